@@ -0,0 +1,43 @@
+package mvc.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmark jar.
+ *
+ * <p>Runs every benchmark of this module, or those matching the given JMH command line, with the
+ * GC profiler enabled so that allocation rates are reported next to the timings. Results are
+ * written as JSON to {@code jmh-result.json}. Caves are generated from {@link #SEED}, so every run
+ * measures the same inputs and needs no network or external data.</p>
+ *
+ * <pre>
+ * mvn -B package
+ * java -jar benchmarks/target/benchmarks.jar [JMH options]
+ * </pre>
+ */
+public class Benchmarks {
+
+    /**
+     * The seed from which every benchmark cave is generated.
+     */
+    public static final long SEED = 0x5EED_CAFEL;
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        Options options = new OptionsBuilder()
+                .parent(commandLine)
+                .include(commandLine.getIncludes().isEmpty() ? "mvc\\.benchmarks\\..*" : String.join("|", commandLine.getIncludes()))
+                .addProfiler(GCProfiler.class)
+                .resultFormat(commandLine.getResultFormat().orElse(ResultFormatType.JSON))
+                .result(commandLine.getResult().orElse("jmh-result.json"))
+                .build();
+        new Runner(options).run();
+    }
+}
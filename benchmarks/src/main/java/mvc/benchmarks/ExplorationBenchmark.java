@@ -0,0 +1,94 @@
+package mvc.benchmarks;
+
+import mvc.model.ConstraintInference;
+import mvc.model.LegacyInference;
+import mvc.model.Model;
+import mvc.model.SimulationEngine;
+import mvc.model.SimulationResult;
+import mvc.model.cave.Cave;
+import mvc.model.cave.CaveGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static mvc.model.Global.SquareStatus;
+
+/**
+ * Measures complete explorations, which exercise {@code Player.exploreCave} on every step,
+ * with each of the player's inference engines.
+ *
+ * <p>Every invocation refills the cave from the next of a fixed set of seeds and runs it to
+ * completion with a {@link SimulationEngine}. The number of steps is reported as an auxiliary
+ * counter, so the results show both the time per episode and the steps per second.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExplorationBenchmark {
+
+    /**
+     * The number of caves each trial cycles through.
+     */
+    private static final int CAVES = 64;
+
+    @Param({"8", "16", "64"})
+    public int side;
+
+    @Param({"0.02", "0.08"})
+    public double density;
+
+    @Param({"legacy", "constraint"})
+    public String inference;
+
+    private final SimulationEngine engine = new SimulationEngine();
+    private final long[] seeds = new long[CAVES];
+    private CaveGenerator generator;
+    private Cave cave;
+    private Model model;
+    private int nextCave;
+
+    /**
+     * Counts the exploration steps performed.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Steps {
+        public long steps;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        generator = new CaveGenerator(side, density, density, 0.01, true);
+        cave = new Cave(side);
+        model = new Model(cave);
+        model.setInferenceFactory(inference.equals("legacy") ? LegacyInference::new : ConstraintInference::new);
+        SplittableRandom random = new SplittableRandom(Benchmarks.SEED);
+        for (int i = 0; i < CAVES; i++) {
+            seeds[i] = random.nextLong();
+        }
+    }
+
+    @Benchmark
+    public SimulationResult exploreEpisode(Steps counter) {
+        int startRow = generator.getStartRow();
+        int startColumn = generator.getStartColumn();
+
+        cave.clear();
+        generator.fill(cave, seeds[nextCave++ % CAVES], startRow, startColumn);
+        cave.setStatus(cave.toLinearIndex(startRow, startColumn), SquareStatus.PLAYER);
+        cave.adjustAmountOfPlayers(1);
+        if (model.getPlayers().isEmpty()) {
+            model.addPlayer(startRow, startColumn);
+        } else {
+            model.relinkPlayers();
+        }
+
+        SimulationResult result = engine.run(model);
+        counter.steps += result.steps();
+        return result;
+    }
+}
@@ -0,0 +1,90 @@
+package mvc.benchmarks;
+
+import mvc.model.cave.CaveModel;
+import mvc.model.cave.Map;
+import mvc.model.cave.NeighborTable;
+import mvc.model.cave.Square;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import static mvc.model.Global.SquareStatus;
+
+/**
+ * Measures a neighbor lookup for every square of a grid, through
+ * {@code CaveModel.getNeighborPositions}, through {@link Map#getNeighbors(int, int)} and through
+ * the allocation-free {@link NeighborTable}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NeighborBenchmark {
+
+    @Param({"16", "128", "1024"})
+    public int side;
+
+    private NeighborCave caveModel;
+    private Map map;
+
+    /**
+     * Exposes the protected neighbor lookup of {@link CaveModel}.
+     */
+    static class NeighborCave extends CaveModel {
+
+        NeighborCave(int caveSide) {
+            super(caveSide);
+        }
+
+        @Override
+        protected SquareStatus getInitialStatus() {
+            return SquareStatus.CLEAN;
+        }
+
+        int[][] neighborPositions(int row, int col) {
+            return getNeighborPositions(row, col);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        caveModel = new NeighborCave(side);
+        map = new Map(side);
+    }
+
+    @Benchmark
+    public void caveModelGetNeighborPositions(Blackhole blackhole) {
+        for (int row = 0; row < side; row++) {
+            for (int col = 0; col < side; col++) {
+                for (int[] position : caveModel.neighborPositions(row, col)) {
+                    blackhole.consume(position);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void mapGetNeighbors(Blackhole blackhole) {
+        for (int row = 0; row < side; row++) {
+            for (int col = 0; col < side; col++) {
+                for (Square neighbor : map.getNeighbors(row, col)) {
+                    blackhole.consume(neighbor);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void neighborTable(Blackhole blackhole) {
+        NeighborTable neighbors = map.getNeighborTable();
+        int squareCount = map.getSquareCount();
+        for (int index = 0; index < squareCount; index++) {
+            for (int direction = 0; direction < NeighborTable.DIRECTIONS; direction++) {
+                blackhole.consume(neighbors.neighbor(index, direction));
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package mvc.benchmarks;
+
+import mvc.model.cave.BitboardCave;
+import mvc.model.cave.Cave;
+import mvc.model.cave.CaveGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the recomputation of every perception of a cave, for the square grid of
+ * {@link Cave} and for the bit planes of {@link BitboardCave}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PerceptionBenchmark {
+
+    @Param({"16", "128", "1024"})
+    public int side;
+
+    @Param({"0.02", "0.08"})
+    public double density;
+
+    private Cave cave;
+    private BitboardCave bitboardCave;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cave = new CaveGenerator(side, density, density, 0.01, false).generate(Benchmarks.SEED);
+        bitboardCave = new BitboardCave(cave);
+    }
+
+    @Benchmark
+    public Cave caveUpdateAllPerceptions() {
+        cave.updateAllPerceptions();
+        return cave;
+    }
+
+    @Benchmark
+    public BitboardCave bitboardUpdateAllPerceptions() {
+        bitboardCave.updateAllPerceptions();
+        return bitboardCave;
+    }
+}
@@ -2,9 +2,16 @@ package mvc.controller;
 
 import mvc.model.Model;
 import mvc.model.cave.Cave;
+import mvc.model.cave.CaveSnapshot;
+import mvc.model.cave.ChangeLog;
 import mvc.model.cave.Square;
+import mvc.model.log.AsyncEventSink;
+import mvc.model.log.EventLevel;
+import mvc.model.log.LogEvent;
 import mvc.view.View;
 
+import javax.swing.*;
+
 import static mvc.model.Global.*;
 
 /**
@@ -13,9 +20,11 @@ import static mvc.model.Global.*;
  * model (business logic) and the view (user interface) while handling user inputs
  * and triggering updates.
  *
- * <p>This class extends {@code Thread} to enable concurrent execution and utilizes
- * event-driven methods to respond to user actions. It supports functionalities like
- * cave side adjustments, square status changes, and cave exploration initiation.
+ * <p>This class extends {@code Thread}, which becomes the model thread: the view and the
+ * {@link StepScheduler} {@link #post(Event) post} typed {@link Event}s to an {@link EventBus},
+ * and this thread handles them one at a time. The model is therefore only read and changed by
+ * this thread, while the view is only changed on the Swing event dispatch thread. It supports
+ * functionalities like cave side adjustments, square status changes, and cave exploration initiation.
  *
  * @author Sergio Vega García
  * @author Marc Roman Colom
@@ -28,8 +37,13 @@ public class Controller extends Thread {
     private Model model;    // The model component of the MVC pattern
     private View view;      // The view component of the MVC pattern
 
+    private final AsyncEventSink log = new AsyncEventSink(System.out);  // Writes messages for the user
+    private final EventBus events = new EventBus(log);                // Carries the events to the model thread
+    private CaveSnapshot snapshot;                    // The last snapshot of the cave sent to the view
+
     private SquareStatus selectedStatus = SQUARE_STATUS_DEFAULT;  // The selected status for cave squares
     private int selectedSpeed = Speed_Constants.DEFAULT_VALUE;    // The selected speed for cave exploration
+    private StepScheduler scheduler;                              // Runs the exploration steps, once started
 
     /**
      * Entry point of the application. Starts the controller thread.
@@ -42,12 +56,14 @@ public class Controller extends Thread {
 
     /**
      * The main execution method of the controller. Initializes the model and view
-     * components of the MVC architecture.
+     * components of the MVC architecture, then handles the posted events until the
+     * program exits.
      */
     @Override
     public void run() {
         initializeModel();
         initializeView();
+        events.dispatch(this::handle);
     }
 
     /**
@@ -55,6 +71,7 @@ public class Controller extends Thread {
      */
     private void initializeModel() {
         model = new Model();
+        model.setEventSink(log);
     }
 
     /**
@@ -63,34 +80,65 @@ public class Controller extends Thread {
      */
     private void initializeView() {
         try {
-            view = new View(this, model.getCave());
+            snapshot = model.getCave().snapshot(null);
+            view = new View(this, snapshot);
         } catch (Exception e) {
-            System.err.println("Error initializing view: " + e.getMessage());
+            log.emit(EventLevel.ERROR, new LogEvent.Failure("Error initializing view", e));
         }
         if (view == null) {
-            System.err.println("View failed to initialize. Exiting program.");
+            report(EventLevel.ERROR, "View failed to initialize. Exiting program.");
+            log.close();
             System.exit(1);
         }
     }
 
     /**
-     * Handles various events triggered by the view or user interactions.
+     * Posts an event triggered by the view or user interactions. The event is handled later,
+     * on the model thread.
+     *
+     * <p>May be called from any thread. It never blocks.</p>
+     *
+     * @param event the event to post
+     */
+    public void post(Event event) {
+        events.post(event);
+    }
+
+    /**
+     * Reports a message to the user through the event sink.
+     *
+     * @param level   the level of the message
+     * @param message the message
+     */
+    private void report(EventLevel level, String message) {
+        if (log.isEnabled(level)) {
+            log.emit(level, new LogEvent.Notice(message));
+        }
+    }
+
+    /**
+     * Handles an event on the model thread.
      * Delegates tasks to specific event-handling methods based on the event type.
      *
-     * @param event  the type of event
-     * @param params optional parameters associated with the event
+     * @param event the event to handle
      */
-    public void notify(String event, Object... params) {
-        switch (event) {
-            case Events_Constants.CAVE_SIDE_CHANGED -> handleCaveSideChanged(castToInt(params[0]));
-            case Events_Constants.SQUARE_CLICKED -> handleSquareClicked(castToByte(params[0]), castToByte(params[1]));
-            case Events_Constants.STATUS_CHANGED -> handleStatusChanged((String) params[0]);
-            case Events_Constants.SPEED_CHANGED -> handleSpeedChanged((String) params[0]);
-            case Events_Constants.NEXT_STEP_CLICKED -> handleNextStepClicked();
-            case Events_Constants.START_CLICKED -> handleStartClicked();
-            case Events_Constants.CAVE_UPDATED -> handleCaveUpdated();
-            case Events_Constants.RESET_CLICKED -> handleResetClicked();
-            default -> System.err.println("Unexpected event: " + event);
+    private void handle(Event event) {
+        if (event instanceof Event.CaveSideChanged changed) {
+            handleCaveSideChanged(changed.side());
+        } else if (event instanceof Event.SquareClicked clicked) {
+            handleSquareClicked(clicked.row(), clicked.column());
+        } else if (event instanceof Event.StatusChanged changed) {
+            handleStatusChanged(changed.status());
+        } else if (event instanceof Event.SpeedChanged changed) {
+            handleSpeedChanged(changed.speed());
+        } else if (event instanceof Event.Signal signal) {
+            switch (signal) {
+                case NEXT_STEP_CLICKED -> handleNextStepClicked();
+                case START_CLICKED -> handleStartClicked();
+                case RESET_CLICKED -> handleResetClicked();
+                case CAVE_UPDATED -> handleCaveUpdated();
+                case EXPLORATION_STEP -> handleExplorationStep();
+            }
         }
     }
 
@@ -101,14 +149,14 @@ public class Controller extends Thread {
      */
     private void handleCaveSideChanged(int side) {
         if (model.isStarted()) {
-            System.err.println("Cave side can not be changed once started.");
+            report(EventLevel.WARN, "Cave side can not be changed once started.");
             return;
         }
 
         model.reset();
-        model.getCave().setCaveSide((byte) side);
+        model.getCave().setCaveSide(side);
 
-        view.updateView();
+        events.post(Event.Signal.CAVE_UPDATED);
     }
 
     /**
@@ -117,14 +165,14 @@ public class Controller extends Thread {
      * @param row    the row index of the clicked square
      * @param column the column index of the clicked square
      */
-    private void handleSquareClicked(byte row, byte column) {
+    private void handleSquareClicked(int row, int column) {
         if (!canPlaceItem(row, column)) return;
 
         Square square = model.getCave().getSquare(row, column);
         SquareStatus status = square.getStatus();
 
         if (status == selectedStatus) {
-            System.out.println("Square already set to selected item. No change made.");
+            report(EventLevel.INFO, "Square already set to selected item. No change made.");
             return;
         }
 
@@ -137,7 +185,7 @@ public class Controller extends Thread {
 
         updateModelCounts(status, selectedStatus);
         square.setStatus(selectedStatus);
-        view.updateView();
+        events.post(Event.Signal.CAVE_UPDATED);
     }
 
     /**
@@ -147,27 +195,30 @@ public class Controller extends Thread {
      * @param column the column index
      * @return {@code true} if the item can be placed; {@code false} otherwise
      */
-    private boolean canPlaceItem(byte row, byte column) {
+    private boolean canPlaceItem(int row, int column) {
         if (model.isStarted()) {
-            System.err.println("Cave cannot be edited once started.");
+            report(EventLevel.WARN, "Cave cannot be edited once started.");
             return false;
         }
 
         Cave cave = model.getCave();
+        if (!cave.isWithinBounds(row, column)) {
+            return false;
+        }
         if (selectedStatus == SquareStatus.MONSTER && cave.getAmountOfMonsters() >= Cave_Constants.MAX_MONSTERS) {
-            System.err.println("Maximum number of monsters reached.");
+            report(EventLevel.WARN, "Maximum number of monsters reached.");
             return false;
         }
         if (selectedStatus == SquareStatus.TREASURE && cave.getAmountOfTreasures() >= Cave_Constants.MAX_TREASURES) {
-            System.err.println("Maximum number of treasures reached.");
+            report(EventLevel.WARN, "Maximum number of treasures reached.");
             return false;
         }
         if (selectedStatus == SquareStatus.PLAYER && cave.getAmountOfPlayers() >= Cave_Constants.MAX_PLAYERS) {
-            System.err.println("Maximum number of players reached.");
+            report(EventLevel.WARN, "Maximum number of players reached.");
             return false;
         }
         if (selectedStatus != SquareStatus.PLAYER && row == cave.getCaveSide() - 1 && column == 0) {
-            System.err.println("Position reserved for a player.");
+            report(EventLevel.WARN, "Position reserved for a player.");
             return false;
         }
 
@@ -220,7 +271,7 @@ public class Controller extends Thread {
             case Images_Constants.CLEAN -> SquareStatus.CLEAN;
             default -> throw new IllegalStateException("Unexpected value: " + status);
         };
-        view.getControls().getStatusSelector().getPicture().setPicture(status);
+        SwingUtilities.invokeLater(() -> view.getControls().getStatusSelector().getPicture().setPicture(status));
     }
 
     /**
@@ -239,52 +290,65 @@ public class Controller extends Thread {
             case Speed_Constants.MANUAL -> Speed_Constants.MANUAL_VALUE;
             default -> throw new IllegalStateException("Unexpected value: " + speed);
         };
-        System.out.println("Speed changed to " + selectedSpeed);
+        if (scheduler != null) {
+            scheduler.setDelay(selectedSpeed);
+        }
+        report(EventLevel.INFO, "Speed changed to " + selectedSpeed);
     }
 
     /**
      * Handles the "Next Step" action in the manual exploration mode.
      *
-     * <p>This method is only applicable when the speed is set to manual. It logs
-     * an error if the speed is not manual and performs the next step otherwise.
+     * <p>This method is only applicable when the speed is set to manual and the exploration
+     * has started. It logs an error otherwise, and asks the scheduler for one more step if so.
      */
     private void handleNextStepClicked() {
         if (selectedSpeed != Speed_Constants.MANUAL_VALUE) {
-            System.err.println("Manual steps only allowed at manual speed.");
+            report(EventLevel.WARN, "Manual steps only allowed at manual speed.");
+            return;
+        }
+        if (!model.isStarted() || scheduler == null) {
+            report(EventLevel.WARN, "Cave has not started.");
             return;
         }
-        update();
+        scheduler.requestStep();
     }
 
     /**
      * Handles the start action to begin cave exploration.
      *
-     * <p>This method initializes perceptions in the cave, starts a background thread for
-     * exploration, and updates the view in a loop. Exploration continues until the cave
-     * is fully explored or the thread is interrupted.
+     * <p>This method initializes perceptions in the cave and hands the exploration over to a
+     * {@link StepScheduler}, which posts one step per delay, or per "Next Step" click in manual
+     * mode, until the cave is fully explored. Clicking start again while exploring pauses
+     * the exploration, and once more resumes it.
      */
     private void handleStartClicked() {
+        if (model.isStarted() && scheduler != null) {
+            togglePause();
+            return;
+        }
         if (!canStart()) return;
 
         // Load perceptions
         model.getCave().updateAllPerceptions();
 
-        new Thread(() -> {
-            System.out.println("Cave started.");
-            model.setStarted(true);
-            while (!model.isCaveExplored()) {
-                if (selectedSpeed == Speed_Constants.MANUAL_VALUE) {
-                    continue;
-                }
-                update();
-                try {
-                    Thread.sleep(selectedSpeed);
-                } catch (InterruptedException e) {
-                    return;
-                }
-            }
-            model.setStarted(false);
-        }).start();
+        report(EventLevel.INFO, "Cave started.");
+        model.setStarted(true);
+        scheduler = new StepScheduler(() -> events.post(Event.Signal.EXPLORATION_STEP), selectedSpeed);
+        scheduler.start();
+    }
+
+    /**
+     * Pauses a running exploration, or resumes a paused one.
+     */
+    private void togglePause() {
+        if (scheduler.isPaused()) {
+            scheduler.resume();
+            report(EventLevel.INFO, "Exploration resumed.");
+        } else {
+            scheduler.pause();
+            report(EventLevel.INFO, "Exploration paused.");
+        }
     }
 
     /**
@@ -298,13 +362,13 @@ public class Controller extends Thread {
      */
     private boolean canStart() {
         if (model.isStarted()) {
-            System.err.println("Cave has already started.");
+            report(EventLevel.WARN, "Cave has already started.");
             return false;
         }
 
         Cave cave = model.getCave();
         if (cave.getAmountOfMonsters() == 0 || cave.getAmountOfTreasures() == 0 || cave.getAmountOfPlayers() == 0) {
-            System.err.println("A monster, a treasure and a player are required to start.");
+            report(EventLevel.WARN, "A monster, a treasure and a player are required to start.");
             return false;
         }
 
@@ -312,50 +376,60 @@ public class Controller extends Thread {
     }
 
     /**
-     * Handles updates to the cave and refreshes the view.
+     * Runs one step of the exploration, and stops the exploration once the cave is explored.
      *
-     * <p>This method is triggered when the cave state changes, ensuring that
-     * the view remains consistent with the model.
+     * <p>Steps still queued when the exploration was stopped or reset are ignored.</p>
      */
-    private void handleCaveUpdated() {
-        view.updateView();
-    }
+    private void handleExplorationStep() {
+        if (scheduler == null) return;
 
-    private void handleResetClicked() {
-        model.reset();
-        view.updateView();
-        System.out.println("The cave has been reset.");
+        model.exploreCave();
+        events.post(Event.Signal.CAVE_UPDATED);
+
+        if (model.isCaveExplored()) {
+            stopExploration();
+        }
     }
 
     /**
-     * Safely casts an object to an {@code int}.
-     *
-     * <p>If the provided parameter is not an {@code Integer}, this method
-     * returns {@code 0} as a fallback.
-     *
-     * @param param the object to cast
-     * @return the cast integer, or {@code 0} if the object is not an {@code Integer}
+     * Cancels the scheduler of the running exploration and marks the model as not started.
      */
-    private int castToInt(Object param) {
-        return param instanceof Integer ? (Integer) param : 0;
+    private void stopExploration() {
+        scheduler.cancel();
+        scheduler = null;
+        model.setStarted(false);
     }
 
     /**
-     * Safely casts an object to a {@code byte}.
+     * Handles updates to the cave and refreshes the view.
      *
-     * <p>If the provided parameter is not a {@code Byte}, this method
-     * returns {@code 0} as a fallback.
+     * <p>This method is triggered when the cave state changes, ensuring that
+     * the view remains consistent with the model. Updates posted while a batch of
+     * events is being handled are coalesced into a single refresh, which runs on
+     * the event dispatch thread.
      *
-     * @param param the object to cast
-     * @return the cast byte, or {@code 0} if the object is not a {@code Byte}
+     * <p>The view never reads the model: it is handed an immutable {@link CaveSnapshot},
+     * which only copies the parts of the cave in its {@link ChangeLog}. Nothing is sent
+     * when the cave did not change.
      */
-    private byte castToByte(Object param) {
-        return param instanceof Byte ? (Byte) param : 0;
-    }
+    private void handleCaveUpdated() {
+        Cave cave = model.getCave();
+        ChangeLog changes = cave.getChangeLog();
+        if (changes != null && changes.isEmpty()) return;
 
-    private void update() {
-        model.exploreCave();
-        view.updateView();
+        snapshot = cave.snapshot(snapshot);
+        view.updateView(snapshot);
     }
 
+    /**
+     * Handles the reset action: stops any running exploration, then empties the cave.
+     */
+    private void handleResetClicked() {
+        if (scheduler != null) {
+            stopExploration();
+        }
+        model.reset();
+        events.post(Event.Signal.CAVE_UPDATED);
+        report(EventLevel.INFO, "The cave has been reset.");
+    }
 }
@@ -0,0 +1,75 @@
+package mvc.controller;
+
+/**
+ * An event posted to the {@link Controller}.
+ *
+ * <p>Events that carry data are records, so coordinates and values travel as typed fields
+ * instead of boxed varargs. Events without data are the constants of {@link Signal}, which are
+ * shared, and the {@link EventBus} queues them in preallocated slots, so posting a signal
+ * allocates nothing. The hierarchy is sealed, so the controller's dispatch covers
+ * every kind of event.</p>
+ *
+ * @author Sergio Vega García
+ * @see EventBus
+ */
+public sealed interface Event {
+
+    /**
+     * The cave side selected in the spinner changed.
+     *
+     * @param side the new side length of the cave
+     */
+    record CaveSideChanged(int side) implements Event {
+    }
+
+    /**
+     * A square of the cave was clicked.
+     *
+     * @param row    the row of the square
+     * @param column the column of the square
+     */
+    record SquareClicked(int row, int column) implements Event {
+    }
+
+    /**
+     * A status was selected in the status selector.
+     *
+     * @param status the action command of the selected status, one of the image constants
+     */
+    record StatusChanged(String status) implements Event {
+    }
+
+    /**
+     * A speed was selected in the speed selector.
+     *
+     * @param speed the action command of the selected speed, one of the speed constants
+     */
+    record SpeedChanged(String speed) implements Event {
+    }
+
+    /**
+     * Events without data.
+     */
+    enum Signal implements Event {
+        /**
+         * The "Next Step" picture was clicked.
+         */
+        NEXT_STEP_CLICKED,
+        /**
+         * The "Start" picture was clicked.
+         */
+        START_CLICKED,
+        /**
+         * The "Reset" picture was clicked.
+         */
+        RESET_CLICKED,
+        /**
+         * The cave changed and the view must be refreshed. Coalesced by the {@link EventBus}.
+         */
+        CAVE_UPDATED,
+        /**
+         * The {@link StepScheduler} asks for one step of the exploration.
+         */
+        EXPLORATION_STEP
+    }
+}
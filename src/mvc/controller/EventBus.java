@@ -0,0 +1,171 @@
+package mvc.controller;
+
+import mvc.model.log.EventLevel;
+import mvc.model.log.EventSink;
+import mvc.model.log.LogEvent;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Carries {@link Event}s from any thread to a single consumer thread, which handles them one
+ * at a time and in the order they were posted.
+ *
+ * <p>Events wait in a ring buffer allocated once, so posting allocates nothing. A producer claims
+ * a slot with a compare-and-set on the tail, publishes the event with a release store and
+ * unparks the consumer. The consumer drains every published event in one batch and parks when
+ * the buffer is empty, so it uses no CPU while idle and a burst of input is handled in a single
+ * wake-up.</p>
+ *
+ * <p>Posting only waits when {@link #CAPACITY} events are already waiting, until the consumer
+ * frees a slot. The consumer itself cannot wait for its own progress, so an event it posts to a
+ * full buffer is dropped and reported to the event sink.</p>
+ *
+ * <p>{@link Event.Signal#CAVE_UPDATED} is not queued. Posting it only raises a flag, which the
+ * consumer checks after each batch, so any number of updates posted while a batch is being
+ * handled result in a single refresh once the batch is done.</p>
+ *
+ * @author Sergio Vega García
+ */
+public class EventBus {
+
+    /**
+     * The number of events that can wait to be handled.
+     */
+    public static final int CAPACITY = 1 << 10;
+
+    /**
+     * How long a producer sleeps before checking again for a free slot in a full buffer.
+     */
+    private static final long FULL_WAIT = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private static final int MASK = CAPACITY - 1;
+
+    // The ring buffer: a slot holds an event once it is published, and null once handled
+    private final AtomicReferenceArray<Event> events = new AtomicReferenceArray<>(CAPACITY);
+
+    /**
+     * The number of slots ever claimed by producers.
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * The number of slots ever freed by the consumer. Only written by the consumer thread.
+     */
+    private volatile long head;
+
+    private final AtomicBoolean caveUpdated = new AtomicBoolean();
+    private volatile Thread consumer;
+    private final EventSink errors;
+
+    /**
+     * Constructs a bus.
+     *
+     * @param errors receives the failures of the handler
+     */
+    public EventBus(EventSink errors) {
+        this.errors = errors;
+    }
+
+    /**
+     * Posts an event. May be called from any thread, including the consumer's.
+     *
+     * <p>Waits while the buffer is full, unless called from the consumer thread, which drops
+     * the event instead.</p>
+     *
+     * @param event the event to post
+     */
+    public void post(Event event) {
+        if (event == Event.Signal.CAVE_UPDATED) {
+            if (!caveUpdated.compareAndSet(false, true)) return;
+        } else if (!enqueue(event)) {
+            return;
+        }
+        Thread thread = consumer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Turns the calling thread into the consumer and handles events until it is interrupted.
+     *
+     * <p>Events posted before this call are kept and handled first. An exception thrown by the
+     * handler is reported to the event sink as an error and the next event is handled as usual.</p>
+     *
+     * @param handler handles each event, on the calling thread
+     */
+    public void dispatch(Consumer<Event> handler) {
+        Thread thread = Thread.currentThread();
+        consumer = thread;
+        while (!thread.isInterrupted()) {
+            drain(handler);
+            if (caveUpdated.getAndSet(false)) {
+                handle(handler, Event.Signal.CAVE_UPDATED);
+            } else {
+                LockSupport.park(this);
+            }
+        }
+    }
+
+    // ----------------------------
+    // HELPER METHODS - RING BUFFER
+    // ----------------------------
+
+    /**
+     * Claims a slot and publishes the event in it, waiting for a free slot if the buffer is full.
+     *
+     * @return {@code false} if the buffer was full and the caller is the consumer, so the event was dropped.
+     */
+    private boolean enqueue(Event event) {
+        while (true) {
+            long slot = tail.get();
+            if (slot - head > MASK) {
+                if (Thread.currentThread() == consumer) {
+                    if (errors.isEnabled(EventLevel.ERROR)) {
+                        errors.emit(EventLevel.ERROR, new LogEvent.Notice("Event bus full, dropped " + event));
+                    }
+                    return false;
+                }
+                LockSupport.parkNanos(this, FULL_WAIT);
+            } else if (tail.compareAndSet(slot, slot + 1)) {
+                events.lazySet((int) slot & MASK, event);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Handles every published event in order. Each slot is freed before its event is handled, so
+     * producers waiting on a full buffer can go on while a long event is handled.
+     */
+    private void drain(Consumer<Event> handler) {
+        long next = head;
+        while (true) {
+            int index = (int) next & MASK;
+            Event event = events.get(index);
+            if (event == null) return;
+
+            events.set(index, null);
+            head = ++next;
+            handle(handler, event);
+        }
+    }
+
+    /**
+     * Handles one event. A failing handler is reported and does not stop the consumer.
+     */
+    private void handle(Consumer<Event> handler, Event event) {
+        try {
+            handler.accept(event);
+        } catch (RuntimeException e) {
+            if (errors.isEnabled(EventLevel.ERROR)) {
+                errors.emit(EventLevel.ERROR, new LogEvent.Failure("Error handling event " + event, e));
+            }
+        }
+    }
+}
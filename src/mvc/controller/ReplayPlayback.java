@@ -0,0 +1,84 @@
+package mvc.controller;
+
+import mvc.model.ReplayReader;
+import mvc.model.cave.CaveSnapshot;
+
+import java.util.function.Consumer;
+
+import static mvc.model.Global.Speed_Constants;
+
+/**
+ * Plays a recorded exploration back into the view, one step at a time, without running the players.
+ *
+ * <p>The steps are timed by a {@link StepScheduler}, and every step applies the next recorded step
+ * of the {@link ReplayReader} and hands a new snapshot of its cave to the view, for instance
+ * {@code new ReplayPlayback(reader, caveView::updateCave, delay)}. The reader is only touched by
+ * the scheduler thread, so it must not be used elsewhere while the playback runs.</p>
+ *
+ * @author Sergio Vega García
+ */
+public class ReplayPlayback {
+
+    private final ReplayReader reader;
+    private final Consumer<CaveSnapshot> view;
+    private final StepScheduler scheduler;
+
+    private CaveSnapshot snapshot;
+
+    /**
+     * Constructs a playback of a log from its current step.
+     *
+     * @param reader the recorded exploration
+     * @param view   receives a snapshot of the cave after every step; must be thread-safe
+     * @param delay  the delay between steps in milliseconds, or {@link Speed_Constants#MANUAL_VALUE}
+     */
+    public ReplayPlayback(ReplayReader reader, Consumer<CaveSnapshot> view, int delay) {
+        this.reader = reader;
+        this.view = view;
+        this.scheduler = new StepScheduler(this::step, delay);
+    }
+
+    /**
+     * Shows the current step and starts playing the following ones.
+     */
+    public void start() {
+        snapshot = reader.snapshot(null);
+        view.accept(snapshot);
+        scheduler.start();
+    }
+
+    /**
+     * Changes the delay between steps.
+     *
+     * @param delay the delay in milliseconds, or {@link Speed_Constants#MANUAL_VALUE} to step on demand
+     */
+    public void setDelay(int delay) {
+        scheduler.setDelay(delay);
+    }
+
+    /**
+     * Requests one more step. Only has an effect in manual mode.
+     */
+    public void requestStep() {
+        scheduler.requestStep();
+    }
+
+    /**
+     * Stops the playback.
+     */
+    public void cancel() {
+        scheduler.cancel();
+    }
+
+    /**
+     * Shows the next recorded step, and stops at the end of the log.
+     */
+    private void step() {
+        if (!reader.nextStep()) {
+            scheduler.cancel();
+            return;
+        }
+        snapshot = reader.snapshot(snapshot);
+        view.accept(snapshot);
+    }
+}
@@ -0,0 +1,205 @@
+package mvc.controller;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static mvc.model.Global.Speed_Constants;
+
+/**
+ * Runs the steps of an exploration on a background thread, at a fixed delay or on demand.
+ *
+ * <p>The thread never spins. Between steps it parks on a {@link Condition}: for the remaining
+ * delay at automatic speeds, and indefinitely in manual mode or while paused. It wakes up as
+ * soon as a step is requested, the speed changes, the run is paused or resumed, or it is
+ * cancelled, and then re-evaluates what to do, so a new speed applies from the last step
+ * without waiting out the old delay.</p>
+ *
+ * <p>The controller's step only posts {@link Event.Signal#EXPLORATION_STEP} to its event bus, so
+ * the model is only touched by the model thread. The scheduler never decides when the run is
+ * over: the controller cancels it once the cave is explored.</p>
+ *
+ * <h2>Usage</h2>
+ * <p>Create a scheduler with the step to run, call
+ * {@link #start()} once, then drive it with {@link #setDelay(int)}, {@link #requestStep()},
+ * {@link #pause()}, {@link #resume()} and {@link #cancel()} from any thread.</p>
+ *
+ * @author Sergio Vega García
+ */
+public class StepScheduler {
+
+    private final Runnable step;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition wakeUp = lock.newCondition();
+
+    // State shared with the scheduler thread, guarded by the lock
+    private int delay;
+    private int requestedSteps;
+    private boolean paused;
+    private boolean cancelled;
+
+    private Thread thread;
+
+    /**
+     * Constructs a scheduler.
+     *
+     * @param step  runs one step of the exploration; must not block
+     * @param delay the initial delay between steps in milliseconds, or {@link Speed_Constants#MANUAL_VALUE}
+     */
+    public StepScheduler(Runnable step, int delay) {
+        this.step = step;
+        this.delay = delay;
+    }
+
+    /**
+     * Starts the scheduler thread. The first step runs at once unless the mode is manual.
+     */
+    public void start() {
+        thread = new Thread(this::runSteps, "exploration");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Changes the delay between steps.
+     *
+     * @param delay the delay in milliseconds, or {@link Speed_Constants#MANUAL_VALUE} to step on demand
+     */
+    public void setDelay(int delay) {
+        lock.lock();
+        try {
+            this.delay = delay;
+            requestedSteps = 0;
+            wakeUp.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Requests one more step. Only has an effect in manual mode.
+     *
+     * @return {@code true} if the step was queued; {@code false} if the mode is not manual
+     */
+    public boolean requestStep() {
+        lock.lock();
+        try {
+            if (delay != Speed_Constants.MANUAL_VALUE) return false;
+            requestedSteps++;
+            wakeUp.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops running steps until {@link #resume()} is called.
+     */
+    public void pause() {
+        lock.lock();
+        try {
+            paused = true;
+            wakeUp.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Resumes running steps after {@link #pause()}.
+     */
+    public void resume() {
+        lock.lock();
+        try {
+            paused = false;
+            wakeUp.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checks whether the scheduler is paused.
+     *
+     * @return {@code true} if paused
+     */
+    public boolean isPaused() {
+        lock.lock();
+        try {
+            return paused;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the scheduler and waits for the step in progress, if any, to complete.
+     *
+     * <p>After this returns no further step is posted. Steps posted before may still be queued,
+     * so the handler of {@link Event.Signal#EXPLORATION_STEP} must ignore steps of a cancelled run.</p>
+     */
+    public void cancel() {
+        lock.lock();
+        try {
+            cancelled = true;
+            wakeUp.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        if (thread != null && thread != Thread.currentThread()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * The body of the scheduler thread.
+     */
+    private void runSteps() {
+        try {
+            long lastStep = System.nanoTime() - TimeUnit.DAYS.toNanos(1);
+            while (awaitNextStep(lastStep)) {
+                lastStep = System.nanoTime();
+                step.run();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Parks until the next step is due.
+     *
+     * @param lastStep the {@link System#nanoTime()} at which the previous step started
+     * @return {@code true} if a step should run; {@code false} if the scheduler was cancelled
+     */
+    private boolean awaitNextStep(long lastStep) throws InterruptedException {
+        lock.lock();
+        try {
+            while (!cancelled) {
+                if (paused) {
+                    wakeUp.await();
+                } else if (delay == Speed_Constants.MANUAL_VALUE) {
+                    if (requestedSteps > 0) {
+                        requestedSteps--;
+                        return true;
+                    }
+                    wakeUp.await();
+                } else {
+                    long remaining = lastStep + TimeUnit.MILLISECONDS.toNanos(delay) - System.nanoTime();
+                    if (remaining <= 0) return true;
+                    wakeUp.awaitNanos(remaining);
+                }
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package mvc.model;
+
+import mvc.model.cave.Cave;
+import mvc.model.cave.CaveGenerator;
+
+/**
+ * Fills an empty {@link Cave} from a seed.
+ *
+ * <p>Implementations must be deterministic: the same seed and cave side always produce the same
+ * cave. They must also keep the cave's item counts in sync with its squares and leave the
+ * square of the player start position clean.</p>
+ *
+ * @see CaveGenerator
+ */
+@FunctionalInterface
+public interface CaveFactory {
+
+    /**
+     * Fills a cave that has just been cleared.
+     *
+     * @param cave        the empty cave to fill
+     * @param seed        the seed that determines the layout
+     * @param startRow    the row of the player start position, which must be left clean
+     * @param startColumn the column of the player start position, which must be left clean
+     */
+    void fill(Cave cave, long seed, int startRow, int startColumn);
+}
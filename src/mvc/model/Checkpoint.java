@@ -0,0 +1,115 @@
+package mvc.model;
+
+import mvc.model.cave.Cave;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static mvc.model.Global.Cave_Constants;
+
+/**
+ * The saved state of a running exploration: the cave, and for every player its position, flags,
+ * arrows, map, deductions and planned route.
+ *
+ * <p>A checkpoint owns a copy of every structure of the model, kept as the same flat status and
+ * perception arrays and {@link mvc.model.cave.BitPlane}s the model uses. Saving and restoring copy
+ * them array by array into structures allocated once, so after the first save neither allocates
+ * and both take time proportional to the size of the planes. The same checkpoint can be saved
+ * over again and restored any number of times.</p>
+ *
+ * <h2>Usage</h2>
+ * <p>To evaluate several continuations of the same mid-game state:</p>
+ * <pre>{@code
+ * Checkpoint checkpoint = model.checkpoint();
+ * for (Variant variant : variants) {
+ *     model.restore(checkpoint);
+ *     variant.applyTo(model.getCave());
+ *     while (!model.isCaveExplored()) model.exploreCave();
+ *     ...
+ * }
+ * }</pre>
+ *
+ * <p>A checkpoint can be restored into any model with players on the same starting squares, in
+ * the same order and with the same kind of inference engine, so forks can also run side by side
+ * in separate models.</p>
+ *
+ * @author Sergio Vega García
+ * @see Model#checkpoint(Checkpoint)
+ * @see Model#restore(Checkpoint)
+ */
+public final class Checkpoint {
+
+    private final Cave cave = new Cave(Cave_Constants.MIN_SIDE);
+    private Player[] players = new Player[0];
+
+    /**
+     * Constructs an empty checkpoint, to be filled by {@link Model#checkpoint(Checkpoint)}.
+     */
+    public Checkpoint() {
+    }
+
+    /**
+     * Copies the state of a model into this checkpoint.
+     *
+     * @param sourceCave       The cave of the model.
+     * @param sourcePlayers    The players of the model.
+     * @param inferenceFactory Creates the engines of the copies of players not saved before.
+     */
+    void save(Cave sourceCave, List<Player> sourcePlayers, Supplier<InferenceEngine> inferenceFactory) {
+        cave.copyFrom(sourceCave);
+
+        if (players.length != sourcePlayers.size()) {
+            players = Arrays.copyOf(players, sourcePlayers.size());
+        }
+        for (int i = 0; i < players.length; i++) {
+            Player source = sourcePlayers.get(i);
+            if (players[i] == null || !players[i].isCompatibleWith(source)) {
+                players[i] = new Player(source.getStartingRow(), source.getStartingColumn(), inferenceFactory.get());
+            }
+            players[i].copyFrom(source);
+        }
+    }
+
+    /**
+     * Copies the state in this checkpoint into a model.
+     *
+     * @param targetCave    The cave of the model.
+     * @param targetPlayers The players of the model.
+     * @throws IllegalArgumentException If the model does not have the players this checkpoint was
+     *                                  taken with; the model is left unchanged.
+     */
+    void restore(Cave targetCave, List<Player> targetPlayers) {
+        if (targetPlayers.size() != players.length) {
+            throw new IllegalArgumentException("The checkpoint has " + players.length
+                    + " players but the model has " + targetPlayers.size());
+        }
+        for (int i = 0; i < players.length; i++) {
+            if (!targetPlayers.get(i).isCompatibleWith(players[i])) {
+                throw new IllegalArgumentException("Player " + i + " of the model does not match the checkpoint");
+            }
+        }
+        targetCave.copyFrom(cave);
+        for (int i = 0; i < players.length; i++) {
+            targetPlayers.get(i).copyFrom(players[i]);
+        }
+    }
+
+    /**
+     * Returns the side length of the saved cave.
+     *
+     * @return The side length.
+     */
+    public int getCaveSide() {
+        return cave.getCaveSide();
+    }
+
+    /**
+     * Returns the number of saved players.
+     *
+     * @return The number of players.
+     */
+    public int getPlayerCount() {
+        return players.length;
+    }
+}
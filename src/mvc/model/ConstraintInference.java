@@ -0,0 +1,323 @@
+package mvc.model;
+
+import mvc.model.cave.BitPlane;
+import mvc.model.cave.Map;
+import mvc.model.cave.NeighborTable;
+
+import java.util.BitSet;
+
+import static mvc.model.Global.*;
+
+/**
+ * An inference engine that only makes sound deductions, by treating the perceptions of the
+ * visited squares as constraints over their neighbors.
+ *
+ * <p>Every perception that has a source status (stench for monsters, breeze for holes, radiance
+ * for treasures) is a separate <em>kind</em>. A visited square that does not perceive a kind
+ * states that none of its neighbors is of that kind; a visited square that does perceive it
+ * states that at least one neighbor is. A square is of at most one kind, so proving one kind
+ * rules out the others. These constraints are solved by unit propagation: whenever a perceived
+ * kind has a single remaining candidate among the neighbors, that candidate is proven.</p>
+ *
+ * <p>Facts and evidence are kept in one {@link BitPlane} per kind, and only the constraints
+ * around squares whose facts changed are re-examined, so an update costs time proportional to
+ * what was learned rather than to the size of the map. Squares proven safe become
+ * {@link SquareStatus#CLEAN}, proven hazards become their status, and everything else is left
+ * {@link SquareStatus#UNKNOWN}.</p>
+ *
+ * <p>A killed monster or a taken treasure, whoever removed it, invalidates what its neighbors
+ * perceived of that kind, so that evidence is dropped until the neighbors are perceived again.
+ * Evidence of absence is kept, since removing a hazard never makes a perception appear.</p>
+ *
+ * @author Sergio Vega García
+ */
+public class ConstraintInference implements InferenceEngine {
+
+    /**
+     * The perception of each kind, and the status that produces it.
+     */
+    private static final PerceptionType[] KIND_PERCEPTIONS = {PerceptionType.STENCH, PerceptionType.BREEZE, PerceptionType.RADIANCE};
+    private static final SquareStatus[] KIND_STATUSES = {SquareStatus.MONSTER, SquareStatus.HOLE, SquareStatus.TREASURE};
+
+    private static final int KINDS = KIND_PERCEPTIONS.length;
+    private static final int MONSTER = 0;
+    private static final int HOLE = 1;
+    private static final int TREASURE = 2;
+
+    private Map map;
+    private NeighborTable neighbors;
+
+    // Per kind: squares proven to be of the kind, and squares proven not to be
+    private BitPlane[] proven;
+    private BitPlane[] excluded;
+
+    // Per kind: visited squares that perceive the kind, and visited squares that do not
+    private BitPlane[] present;
+    private BitPlane[] absent;
+
+    // Squares notified since the last update
+    private final BitSet perceived = new BitSet();
+    private final BitSet changed = new BitSet();
+
+    // Visited squares whose "at least one" constraints must be examined again
+    private int[] worklist;
+    private int worklistSize;
+    private final BitSet queued = new BitSet();
+
+    @Override
+    public void reset(Map map) {
+        this.map = map;
+        neighbors = map.getNeighborTable();
+
+        int side = map.getCaveSide();
+        if (proven == null || proven[0].getSide() != side) {
+            proven = newPlanes(side);
+            excluded = newPlanes(side);
+            present = newPlanes(side);
+            absent = newPlanes(side);
+            worklist = new int[map.getSquareCount()];
+        } else {
+            for (int kind = 0; kind < KINDS; kind++) {
+                proven[kind].clear();
+                excluded[kind].clear();
+                present[kind].clear();
+                absent[kind].clear();
+            }
+        }
+        perceived.clear();
+        changed.clear();
+        queued.clear();
+        worklistSize = 0;
+    }
+
+    @Override
+    public void copyFrom(InferenceEngine source, Map map) {
+        if (!(source instanceof ConstraintInference other)) {
+            throw new IllegalArgumentException("Cannot copy a " + source.getClass().getSimpleName());
+        }
+        reset(map);
+        for (int kind = 0; kind < KINDS; kind++) {
+            proven[kind].copyFrom(other.proven[kind]);
+            excluded[kind].copyFrom(other.excluded[kind]);
+            present[kind].copyFrom(other.present[kind]);
+            absent[kind].copyFrom(other.absent[kind]);
+        }
+        perceived.or(other.perceived);
+        changed.or(other.changed);
+        queued.or(other.queued);
+        System.arraycopy(other.worklist, 0, worklist, 0, other.worklistSize);
+        worklistSize = other.worklistSize;
+    }
+
+    @Override
+    public void squarePerceived(int square) {
+        perceived.set(square);
+    }
+
+    @Override
+    public void statusChanged(int square) {
+        changed.set(square);
+    }
+
+    @Override
+    public void hazardRemoved(int square, SquareStatus hazard) {
+        int kind = hazard == SquareStatus.MONSTER ? MONSTER : TREASURE;
+        proven[kind].set(square, false);
+        for (int direction = 0; direction < NeighborTable.DIRECTIONS; direction++) {
+            int neighbor = neighbors.neighbor(square, direction);
+            if (neighbor >= 0) {
+                present[kind].set(neighbor, false);
+            }
+        }
+        changed.set(square);
+    }
+
+    @Override
+    public void update() {
+        for (int square = changed.nextSetBit(0); square >= 0; square = changed.nextSetBit(square + 1)) {
+            learnKnownSquare(square);
+        }
+        changed.clear();
+
+        for (int square = perceived.nextSetBit(0); square >= 0; square = perceived.nextSetBit(square + 1)) {
+            learnKnownSquare(square);
+            learnPerceptions(square);
+        }
+        perceived.clear();
+
+        propagate();
+    }
+
+    // ---------------------
+    // HELPER METHODS - FACTS
+    // ---------------------
+
+    /**
+     * Records what the player's own status writes and visits say about a square.
+     *
+     * <p>A square the player stands on, has left or has cleared is neither a monster nor a hole.
+     * Whether it holds a treasure is only known once it has been visited.</p>
+     */
+    private void learnKnownSquare(int square) {
+        SquareStatus status = map.getStatus(square);
+        if (status != SquareStatus.PLAYER && status != SquareStatus.CLEAN) return;
+
+        proven[MONSTER].set(square, false);
+        proven[HOLE].set(square, false);
+        exclude(MONSTER, square);
+        exclude(HOLE, square);
+
+        if (map.isVisited(square)) {
+            if (map.hasTreasure(square)) {
+                prove(TREASURE, square);
+            } else {
+                proven[TREASURE].set(square, false);
+                exclude(TREASURE, square);
+            }
+        } else if (status == SquareStatus.CLEAN) {
+            exclude(TREASURE, square);
+        }
+    }
+
+    /**
+     * Turns the fresh perceptions of a visited square into constraints over its neighbors.
+     */
+    private void learnPerceptions(int square) {
+        for (int kind = 0; kind < KINDS; kind++) {
+            if (map.getPerception(square, KIND_PERCEPTIONS[kind])) {
+                present[kind].set(square, true);
+                absent[kind].set(square, false);
+                enqueue(square);
+            } else {
+                present[kind].set(square, false);
+                absent[kind].set(square, true);
+                for (int direction = 0; direction < NeighborTable.DIRECTIONS; direction++) {
+                    int neighbor = neighbors.neighbor(square, direction);
+                    if (neighbor >= 0) {
+                        exclude(kind, neighbor);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Records that a square is not of the given kind and queues the constraints it takes part in.
+     */
+    private void exclude(int kind, int square) {
+        if (excluded[kind].get(square) || proven[kind].get(square)) return;
+        excluded[kind].set(square, true);
+
+        for (int direction = 0; direction < NeighborTable.DIRECTIONS; direction++) {
+            int neighbor = neighbors.neighbor(square, direction);
+            if (neighbor >= 0 && present[kind].get(neighbor)) {
+                enqueue(neighbor);
+            }
+        }
+        refreshStatus(square);
+    }
+
+    /**
+     * Records that a square is of the given kind, which rules out every other kind.
+     */
+    private void prove(int kind, int square) {
+        if (proven[kind].get(square)) return;
+        proven[kind].set(square, true);
+        excluded[kind].set(square, false);
+
+        for (int other = 0; other < KINDS; other++) {
+            if (other != kind) {
+                exclude(other, square);
+            }
+        }
+        refreshStatus(square);
+    }
+
+    /**
+     * Writes the status that the facts about an unvisited square imply into the map.
+     *
+     * <p>Only unknown squares are written, except that a square already deduced clean
+     * is upgraded once it is proven to hold a treasure.</p>
+     */
+    private void refreshStatus(int square) {
+        if (map.isVisited(square)) return;
+
+        SquareStatus status;
+        if (proven[MONSTER].get(square)) {
+            status = SquareStatus.MONSTER;
+        } else if (proven[HOLE].get(square)) {
+            status = SquareStatus.HOLE;
+        } else if (proven[TREASURE].get(square)) {
+            status = SquareStatus.TREASURE;
+        } else if (excluded[MONSTER].get(square) && excluded[HOLE].get(square)) {
+            status = SquareStatus.CLEAN;
+        } else {
+            return;
+        }
+
+        SquareStatus current = map.getStatus(square);
+        if (current == SquareStatus.UNKNOWN || (current == SquareStatus.CLEAN && status == SquareStatus.TREASURE)) {
+            map.setStatus(square, status);
+        }
+    }
+
+    // ---------------------------
+    // HELPER METHODS - PROPAGATION
+    // ---------------------------
+
+    /**
+     * Examines queued constraints until no constraint has a single candidate left.
+     */
+    private void propagate() {
+        while (worklistSize > 0) {
+            int square = worklist[--worklistSize];
+            queued.clear(square);
+            for (int kind = 0; kind < KINDS; kind++) {
+                if (present[kind].get(square)) {
+                    examine(kind, square);
+                }
+            }
+        }
+    }
+
+    /**
+     * Examines the "at least one neighbor is of this kind" constraint of a visited square.
+     *
+     * <p>A constraint already satisfied by a proven neighbor says nothing more. One with a single
+     * candidate proves it. One with no candidate left comes from stale evidence and is dropped.</p>
+     */
+    private void examine(int kind, int square) {
+        int candidates = 0;
+        int candidate = -1;
+        for (int direction = 0; direction < NeighborTable.DIRECTIONS; direction++) {
+            int neighbor = neighbors.neighbor(square, direction);
+            if (neighbor < 0) continue;
+            if (proven[kind].get(neighbor)) return;
+            if (!excluded[kind].get(neighbor)) {
+                candidates++;
+                candidate = neighbor;
+            }
+        }
+
+        if (candidates == 1) {
+            prove(kind, candidate);
+        } else if (candidates == 0) {
+            present[kind].set(square, false);
+        }
+    }
+
+    private void enqueue(int square) {
+        if (!queued.get(square)) {
+            queued.set(square);
+            worklist[worklistSize++] = square;
+        }
+    }
+
+    private static BitPlane[] newPlanes(int side) {
+        BitPlane[] planes = new BitPlane[KINDS];
+        for (int kind = 0; kind < KINDS; kind++) {
+            planes[kind] = new BitPlane(side);
+        }
+        return planes;
+    }
+}
@@ -0,0 +1,244 @@
+package mvc.model;
+
+import mvc.model.cave.Cave;
+import mvc.model.metrics.ExplorationMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static mvc.model.Global.SquareStatus;
+
+/**
+ * Runs many independent exploration episodes in parallel and aggregates their results.
+ *
+ * <p>Each episode fills a cave from its own seed with a {@link CaveFactory}, places one player at
+ * the bottom-left square (the position the editor reserves for players) and explores it with a
+ * {@link SimulationEngine}. Episodes are spread over a {@link ForkJoinPool}: every worker owns
+ * one {@link Cave}, one {@link Model} and one {@link Player}, cleared and reused between episodes,
+ * and pulls episodes in chunks from a shared counter.</p>
+ *
+ * <p>The result of every episode is stored at its own position and aggregated in seed order once
+ * all workers are done, so a given seed set always produces the same statistics regardless of
+ * the number of threads.</p>
+ */
+public class EpisodeRunner {
+
+    /**
+     * The number of consecutive episodes a worker claims at once.
+     */
+    private static final int CHUNK_SIZE = 64;
+
+    /**
+     * The side length of every generated cave.
+     */
+    private final int caveSide;
+
+    /**
+     * The factory that fills each cave from its seed.
+     */
+    private final CaveFactory caveFactory;
+
+    /**
+     * The number of worker threads.
+     */
+    private final int parallelism;
+
+    /**
+     * The engine used to run each episode.
+     */
+    private final SimulationEngine engine;
+
+    /**
+     * Creates the inference engine of each worker's player.
+     */
+    private final Supplier<InferenceEngine> inferenceFactory;
+
+    /**
+     * Constructs a runner using every available processor and the default step limit.
+     *
+     * @param caveSide    the side length of every generated cave
+     * @param caveFactory the factory that fills each cave from its seed
+     */
+    public EpisodeRunner(int caveSide, CaveFactory caveFactory) {
+        this(caveSide, caveFactory, Runtime.getRuntime().availableProcessors(), 0);
+    }
+
+    /**
+     * Constructs a runner.
+     *
+     * @param caveSide    the side length of every generated cave
+     * @param caveFactory the factory that fills each cave from its seed
+     * @param parallelism the number of worker threads
+     * @param maxSteps    the step limit per episode, or {@code 0} to derive it from the cave size
+     */
+    public EpisodeRunner(int caveSide, CaveFactory caveFactory, int parallelism, int maxSteps) {
+        this(caveSide, caveFactory, parallelism, maxSteps, ConstraintInference::new);
+    }
+
+    /**
+     * Constructs a runner whose players reason with the given kind of inference engine.
+     *
+     * @param caveSide         the side length of every generated cave
+     * @param caveFactory      the factory that fills each cave from its seed
+     * @param parallelism      the number of worker threads
+     * @param maxSteps         the step limit per episode, or {@code 0} to derive it from the cave size
+     * @param inferenceFactory creates a new inference engine for each worker's player
+     */
+    public EpisodeRunner(int caveSide, CaveFactory caveFactory, int parallelism, int maxSteps,
+                         Supplier<InferenceEngine> inferenceFactory) {
+        this.caveSide = caveSide;
+        this.caveFactory = caveFactory;
+        this.parallelism = Math.max(1, parallelism);
+        this.engine = new SimulationEngine(maxSteps);
+        this.inferenceFactory = inferenceFactory;
+    }
+
+    /**
+     * Runs a number of episodes whose seeds are derived from a base seed.
+     *
+     * @param baseSeed the seed from which every episode seed is derived
+     * @param episodes the number of episodes to run
+     * @return the aggregated statistics
+     */
+    public EpisodeStatistics run(long baseSeed, int episodes) {
+        SplittableRandom random = new SplittableRandom(baseSeed);
+        long[] seeds = new long[episodes];
+        for (int i = 0; i < episodes; i++) {
+            seeds[i] = random.nextLong();
+        }
+        return run(seeds);
+    }
+
+    /**
+     * Runs one episode per seed.
+     *
+     * @param seeds the seed of every episode
+     * @return the aggregated statistics
+     */
+    public EpisodeStatistics run(long[] seeds) {
+        return run(seeds, null);
+    }
+
+    /**
+     * Runs one episode per seed, measuring every turn of every episode.
+     *
+     * <p>Each worker records into metrics of its own, which are added to the given metrics once
+     * all workers are done, so measuring takes no synchronization between workers.</p>
+     *
+     * @param seeds   the seed of every episode
+     * @param metrics receives the measurements of every turn, or {@code null} to measure nothing
+     * @return the aggregated statistics
+     */
+    public EpisodeStatistics run(long[] seeds, ExplorationMetrics metrics) {
+        ExplorationMetrics[] workerMetrics = new ExplorationMetrics[parallelism];
+        int[] steps = new int[seeds.length];
+        int[] arrows = new int[seeds.length];
+        SimulationResult.Outcome[] outcomes = new SimulationResult.Outcome[seeds.length];
+        AtomicInteger nextEpisode = new AtomicInteger();
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(parallelism);
+            for (int i = 0; i < parallelism; i++) {
+                int workerIndex = i;
+                tasks.add(pool.submit(() -> {
+                    Worker worker = new Worker();
+                    if (metrics != null) {
+                        workerMetrics[workerIndex] = new ExplorationMetrics(
+                                metrics.isTrackingAllocations(), metrics.getSampleInterval());
+                        worker.model.setMetrics(workerMetrics[workerIndex]);
+                    }
+                    int first;
+                    while ((first = nextEpisode.getAndAdd(CHUNK_SIZE)) < seeds.length) {
+                        int last = Math.min(first + CHUNK_SIZE, seeds.length);
+                        for (int episode = first; episode < last; episode++) {
+                            SimulationResult result = worker.run(seeds[episode]);
+                            steps[episode] = result.steps();
+                            arrows[episode] = result.arrowsUsed();
+                            outcomes[episode] = result.outcome();
+                        }
+                    }
+                }));
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        if (metrics != null) {
+            for (ExplorationMetrics measured : workerMetrics) {
+                if (measured != null) metrics.add(measured);
+            }
+        }
+        return aggregate(steps, arrows, outcomes);
+    }
+
+    /**
+     * Combines per-episode results, in episode order.
+     */
+    private EpisodeStatistics aggregate(int[] steps, int[] arrows, SimulationResult.Outcome[] outcomes) {
+        int successes = 0;
+        int deaths = 0;
+        int stepLimits = 0;
+        long totalSteps = 0;
+        long totalArrows = 0;
+        double stepsSquares = 0;
+        int minSteps = steps.length == 0 ? 0 : Integer.MAX_VALUE;
+        int maxSteps = 0;
+
+        for (int i = 0; i < steps.length; i++) {
+            switch (outcomes[i]) {
+                case SUCCESS -> successes++;
+                case DEATH -> deaths++;
+                case STEP_LIMIT -> stepLimits++;
+            }
+            totalSteps += steps[i];
+            totalArrows += arrows[i];
+            stepsSquares += (double) steps[i] * steps[i];
+            minSteps = Math.min(minSteps, steps[i]);
+            maxSteps = Math.max(maxSteps, steps[i]);
+        }
+
+        return new EpisodeStatistics(steps.length, successes, deaths, stepLimits,
+                totalSteps, minSteps, maxSteps, totalArrows, stepsSquares);
+    }
+
+    /**
+     * The reusable state of a single worker thread.
+     */
+    private class Worker {
+
+        private final Cave cave = new Cave(caveSide);
+        private final Model model = new Model(cave);
+        private final int startRow = caveSide - 1;
+        private final int startColumn = 0;
+
+        Worker() {
+            model.setInferenceFactory(inferenceFactory);
+        }
+
+        /**
+         * Refills the worker's cave from a seed and explores it.
+         */
+        SimulationResult run(long seed) {
+            cave.clear();
+            caveFactory.fill(cave, seed, startRow, startColumn);
+            cave.setStatus(cave.toLinearIndex(startRow, startColumn), SquareStatus.PLAYER);
+            cave.adjustAmountOfPlayers(1);
+
+            if (model.getPlayers().isEmpty()) {
+                model.addPlayer(startRow, startColumn);
+            } else {
+                model.relinkPlayers();
+            }
+            return engine.run(model);
+        }
+    }
+}
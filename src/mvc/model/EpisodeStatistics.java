@@ -0,0 +1,63 @@
+package mvc.model;
+
+/**
+ * Aggregated results of a batch of episodes run by {@link EpisodeRunner}.
+ *
+ * @param episodes     the number of episodes run
+ * @param successes    the number of episodes where every player escaped with the treasure
+ * @param deaths       the number of episodes where a player died
+ * @param stepLimits   the number of episodes that hit the step limit
+ * @param totalSteps   the sum of the steps of every episode
+ * @param minSteps     the fewest steps taken by an episode
+ * @param maxSteps     the most steps taken by an episode
+ * @param totalArrows  the sum of the arrows used in every episode
+ * @param stepsSquares the sum of the squared steps of every episode, for the variance
+ */
+public record EpisodeStatistics(int episodes, int successes, int deaths, int stepLimits,
+                                long totalSteps, int minSteps, int maxSteps,
+                                long totalArrows, double stepsSquares) {
+
+    /**
+     * Returns the fraction of episodes that ended in success.
+     *
+     * @return the success rate, between {@code 0} and {@code 1}
+     */
+    public double successRate() {
+        return episodes == 0 ? 0 : (double) successes / episodes;
+    }
+
+    /**
+     * Returns the mean number of steps per episode.
+     *
+     * @return the mean steps
+     */
+    public double meanSteps() {
+        return episodes == 0 ? 0 : (double) totalSteps / episodes;
+    }
+
+    /**
+     * Returns the standard deviation of the steps per episode.
+     *
+     * @return the standard deviation of the steps
+     */
+    public double stepsStandardDeviation() {
+        if (episodes == 0) return 0;
+        double mean = meanSteps();
+        return Math.sqrt(Math.max(0, stepsSquares / episodes - mean * mean));
+    }
+
+    /**
+     * Returns the mean number of arrows used per episode.
+     *
+     * @return the mean arrows
+     */
+    public double meanArrows() {
+        return episodes == 0 ? 0 : (double) totalArrows / episodes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("episodes=%d success=%.4f deaths=%d stepLimits=%d steps(mean=%.2f sd=%.2f min=%d max=%d) arrows(mean=%.3f)",
+                episodes, successRate(), deaths, stepLimits, meanSteps(), stepsStandardDeviation(), minSteps, maxSteps, meanArrows());
+    }
+}
@@ -23,12 +23,12 @@ public class Global {
      * @param direction The direction for which we want the deltas.
      * @return The corresponding deltas.
      */
-    public static byte[] getDirectionDelta(Directions direction) {
+    public static int[] getDirectionDelta(Directions direction) {
         return switch (direction) {
-            case NORTH -> new byte[]{-1, 0};
-            case EAST -> new byte[]{0, 1};
-            case SOUTH -> new byte[]{1, 0};
-            case WEST -> new byte[]{0, -1};
+            case NORTH -> new int[]{-1, 0};
+            case EAST -> new int[]{0, 1};
+            case SOUTH -> new int[]{1, 0};
+            case WEST -> new int[]{0, -1};
         };
     }
 
@@ -79,6 +79,13 @@ public class Global {
         STENCH, BREEZE, RADIANCE, BANG, GROAN
     }
 
+    /**
+     * Enum representing the actions a player can take in a step.
+     */
+    public enum ActionType {
+        NONE, MOVE, SHOOT, TAKE, LEAVE
+    }
+
     /**
      * Enum representing the possible statuses of a square in the cave.
      */
@@ -93,41 +100,27 @@ public class Global {
         /**
          * The minimum allowed length of the cave's side.
          */
-        public static final byte MIN_SIDE = 4;
+        public static final int MIN_SIDE = 4;
 
         /**
          * The maximum allowed length of the cave's side.
          */
-        public static final byte MAX_SIDE = 16;
+        public static final int MAX_SIDE = 4096;
 
         /**
          * The maximum number of monsters allowed in the cave.
          */
-        public static final byte MAX_MONSTERS = 10;
+        public static final int MAX_MONSTERS = 10;
 
         /**
          * The maximum number of treasures allowed in the cave.
          */
-        public static final byte MAX_TREASURES = 10;
+        public static final int MAX_TREASURES = 10;
 
         /**
          * The maximum number of players allowed in the cave.
          */
-        public static final byte MAX_PLAYERS = 10;
-    }
-
-    /**
-     * Class containing constants related to game events.
-     */
-    public static class Events_Constants {
-        public static final String CAVE_SIDE_CHANGED = "CAVE_SIDE_CHANGED";
-        public static final String SQUARE_CLICKED = "SQUARE_CLICKED";
-        public static final String STATUS_CHANGED = "STATUS_CHANGED";
-        public static final String SPEED_CHANGED = "SPEED_CHANGED";
-        public static final String NEXT_STEP_CLICKED = "NEXT_STEP_CLICKED";
-        public static final String START_CLICKED = "START_CLICKED";
-        public static final String CAVE_UPDATED = "CAVE_UPDATED";
-        public static final String RESET_CLICKED = "RESET_CLICKED";
+        public static final int MAX_PLAYERS = 10;
     }
 
     /**
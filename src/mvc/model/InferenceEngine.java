@@ -0,0 +1,78 @@
+package mvc.model;
+
+import mvc.model.cave.Map;
+
+import static mvc.model.Global.SquareStatus;
+
+/**
+ * Deduces the status of the squares of a player's {@link Map} from the perceptions the player
+ * has gathered.
+ *
+ * <p>The {@link Player} owns the map and tells its engine about every change it makes: the
+ * squares it perceives, the statuses it writes and the hazards it removes. When the player asks
+ * for an update, the engine writes the statuses it can deduce back into the map. Engines keep
+ * whatever bookkeeping they need between updates, so an update only has to look at the squares
+ * affected by the changes since the previous one.</p>
+ *
+ * <h2>Implementations</h2>
+ * <ul>
+ *   <li>{@link LegacyInference}: the original neighbor-counting rules.</li>
+ *   <li>{@link ConstraintInference}: sound "at least one" / "none" constraints solved by unit
+ *   propagation. The default.</li>
+ * </ul>
+ *
+ * <p>An engine serves a single player and is not thread-safe.</p>
+ *
+ * @author Sergio Vega García
+ */
+public interface InferenceEngine {
+
+    /**
+     * Starts a new exploration on the given map, forgetting everything deduced so far.
+     *
+     * @param map The player's map, already cleared, with the starting square marked.
+     */
+    void reset(Map map);
+
+    /**
+     * Takes over the state of another engine of the same class, so that from now on both make the
+     * same deductions. Used to restore a {@link Checkpoint}.
+     *
+     * <p>Buffers of the right size are reused, so this only allocates when the sizes differ.</p>
+     *
+     * @param source The engine to copy.
+     * @param map    This engine's map, already holding a copy of the source engine's map.
+     * @throws IllegalArgumentException If the engine is of another class.
+     */
+    void copyFrom(InferenceEngine source, Map map);
+
+    /**
+     * Notifies that the player perceived a square: it is visited, and its map perceptions and
+     * treasure flag are fresh.
+     *
+     * @param square The linear index of the square.
+     */
+    void squarePerceived(int square);
+
+    /**
+     * Notifies that the player wrote the status of a square in the map.
+     *
+     * @param square The linear index of the square.
+     */
+    void statusChanged(int square);
+
+    /**
+     * Notifies that a monster was killed or a treasure taken at a square, by this player or
+     * another, so the perceptions of its neighbors have changed.
+     *
+     * @param square The linear index of the square.
+     * @param hazard The status that was removed, {@link SquareStatus#MONSTER} or {@link SquareStatus#TREASURE}.
+     */
+    void hazardRemoved(int square, SquareStatus hazard);
+
+    /**
+     * Deduces what can be deduced from the changes notified since the last update and writes the
+     * resulting statuses into the map.
+     */
+    void update();
+}
@@ -0,0 +1,259 @@
+package mvc.model;
+
+import mvc.model.cave.Map;
+import mvc.model.cave.NeighborTable;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import static mvc.model.Global.*;
+
+/**
+ * The original inference rules of the {@link Player}.
+ *
+ * <p>Each square is evaluated with three rules: a square that perceives nothing makes its
+ * unknown neighbors clean; a square with a single unknown neighbor blames it for the perception
+ * its known neighbors do not explain; and an unknown square with two neighbors sharing a
+ * perception takes the matching status. The rules are cheap but not sound, so they can miss
+ * deductions and mislabel squares. They are kept as the reference for {@link ConstraintInference}.</p>
+ *
+ * <p>Only pending squares are evaluated, in the same row-major order as a full scan of the map.
+ * A square whose evaluation changes its neighborhood is queued again: later squares are handled
+ * in this same pass, earlier ones in the next update, exactly as a full scan would see them.
+ * Skipped squares have the same inputs as their last evaluation, which changed nothing.</p>
+ *
+ * @author Sergio Vega García
+ */
+public class LegacyInference implements InferenceEngine {
+
+    // Cached enum values, so that iterating over them allocates nothing
+    private static final PerceptionType[] PERCEPTION_TYPES = PerceptionType.values();
+    private static final SquareStatus[] STATUSES = SquareStatus.values();
+
+    private Map map;
+    private NeighborTable neighbors;
+
+    // Squares whose neighborhood changed since they were last evaluated
+    private final BitSet pendingSquares = new BitSet();
+
+    // Scratch buffers reused by the rules
+    private final SquareStatus[] statusesBefore = new SquareStatus[NeighborTable.DIRECTIONS + 1];
+    private final int[] perceptionCounter = new int[PERCEPTION_TYPES.length];
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Every square starts pending, so the first update is a full pass.</p>
+     */
+    @Override
+    public void reset(Map map) {
+        this.map = map;
+        neighbors = map.getNeighborTable();
+        pendingSquares.clear();
+        pendingSquares.set(0, map.getSquareCount());
+    }
+
+    @Override
+    public void copyFrom(InferenceEngine source, Map map) {
+        if (!(source instanceof LegacyInference other)) {
+            throw new IllegalArgumentException("Cannot copy a " + source.getClass().getSimpleName());
+        }
+        this.map = map;
+        neighbors = map.getNeighborTable();
+        pendingSquares.clear();
+        pendingSquares.or(other.pendingSquares);
+    }
+
+    @Override
+    public void squarePerceived(int square) {
+        markDirty(square);
+    }
+
+    @Override
+    public void statusChanged(int square) {
+        markDirty(square);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Queues the squares affected by a status change at the given square and by
+     * the perception updates of its neighbors.</p>
+     */
+    @Override
+    public void hazardRemoved(int square, SquareStatus hazard) {
+        markDirty(square);
+        for (int direction = 0; direction < NeighborTable.DIRECTIONS; direction++) {
+            int neighbor = neighbors.neighbor(square, direction);
+            if (neighbor >= 0) {
+                markDirty(neighbor);
+            }
+        }
+    }
+
+    @Override
+    public void update() {
+        int position = pendingSquares.nextSetBit(0);
+        while (position >= 0) {
+            pendingSquares.clear(position);
+            evaluateSquare(position);
+            position = pendingSquares.nextSetBit(position + 1);
+        }
+    }
+
+    /**
+     * Applies the inference rules to a single square and queues the neighborhoods that changed.
+     *
+     * @param square The linear index of the square.
+     */
+    private void evaluateSquare(int square) {
+        recordStatuses(square);
+
+        // Update neighbors of a clean square
+        if (map.hasPerceptions(square) && map.getPerceptions(square).isClean()) {
+            markNeighborsClean(square);
+        }
+
+        // Handle squares with one unknown neighbor
+        int unknownNeighbors = 0;
+        int unknownNeighbor = -1;
+        for (int direction = 0; direction < NeighborTable.DIRECTIONS; direction++) {
+            int neighbor = neighbors.neighbor(square, direction);
+            if (neighbor >= 0 && map.getStatus(neighbor) == SquareStatus.UNKNOWN) {
+                unknownNeighbors++;
+                unknownNeighbor = neighbor;
+            }
+        }
+        if (unknownNeighbors == 1) {
+            updateUnknownNeighborStatus(unknownNeighbor, square);
+        }
+
+        // Infer status of the current square based on neighbors
+        if (map.getStatus(square) == SquareStatus.UNKNOWN) {
+            inferSquareStatus(square);
+        }
+
+        markChangedStatuses(square);
+    }
+
+    // -----------------------
+    // HELPER METHODS - STATUS
+    // -----------------------
+
+    /**
+     * Marks all unknown neighbors as clean.
+     */
+    private void markNeighborsClean(int square) {
+        for (int direction = 0; direction < NeighborTable.DIRECTIONS; direction++) {
+            int neighbor = neighbors.neighbor(square, direction);
+            if (neighbor >= 0 && map.getStatus(neighbor) == SquareStatus.UNKNOWN) {
+                map.setStatus(neighbor, SquareStatus.CLEAN);
+            }
+        }
+    }
+
+    /**
+     * Sets the status of the only unknown neighbor of a square from the perception the square has
+     * but its known neighbors do not explain.
+     *
+     * <p>When several perceptions disagree, the one with the highest {@link PerceptionType} ordinal
+     * decides the status.</p>
+     */
+    private void updateUnknownNeighborStatus(int unknownNeighbor, int square) {
+        if (!map.hasPerceptions(square)) return;
+
+        Perceptions inferred = Perceptions.NONE;
+        for (int direction = 0; direction < NeighborTable.DIRECTIONS; direction++) {
+            int neighbor = neighbors.neighbor(square, direction);
+            if (neighbor >= 0) {
+                SquareStatus status = map.getStatus(neighbor);
+                if (status != null) {
+                    inferred = inferred.union(Perceptions.producedBy(status));
+                }
+            }
+        }
+
+        int mismatched = map.getPerceptions(square).symmetricDifference(inferred).getMask();
+        if (mismatched != 0) {
+            PerceptionType perceptionType = PERCEPTION_TYPES[31 - Integer.numberOfLeadingZeros(mismatched)];
+            map.setStatus(unknownNeighbor, mapPerceptionToStatus(perceptionType));
+        }
+    }
+
+    /**
+     * Infers the status of the current square based on its neighbors.
+     */
+    private void inferSquareStatus(int square) {
+        Arrays.fill(perceptionCounter, 0);
+        int neighborsWithPerceptionsCounter = 0;
+
+        for (int direction = 0; direction < NeighborTable.DIRECTIONS; direction++) {
+            int neighbor = neighbors.neighbor(square, direction);
+            if (neighbor < 0 || !map.hasPerceptions(neighbor)) continue;
+            neighborsWithPerceptionsCounter++;
+
+            for (PerceptionType perceptionType : PERCEPTION_TYPES) {
+                if (map.getPerception(neighbor, perceptionType)) {
+                    perceptionCounter[perceptionType.ordinal()]++;
+                }
+            }
+        }
+
+        if (neighborsWithPerceptionsCounter >= 2) {
+            boolean statusSet = false;
+            for (int i = 0; i < perceptionCounter.length; i++) {
+                if (perceptionCounter[i] >= 2) {
+                    map.setStatus(square, STATUSES[i]);
+                    statusSet = true;
+                    break;
+                }
+            }
+            if (!statusSet) {
+                map.setStatus(square, SquareStatus.CLEAN);
+            }
+        }
+    }
+
+    // --------------------------
+    // HELPER METHODS - WORKLIST
+    // --------------------------
+
+    /**
+     * Queues a square and its neighbors, the squares whose evaluation reads its status or perceptions.
+     */
+    private void markDirty(int square) {
+        pendingSquares.set(square);
+        for (int direction = 0; direction < NeighborTable.DIRECTIONS; direction++) {
+            int neighbor = neighbors.neighbor(square, direction);
+            if (neighbor >= 0) {
+                pendingSquares.set(neighbor);
+            }
+        }
+    }
+
+    /**
+     * Stores the statuses of a square and its neighbors before the inference rules run.
+     */
+    private void recordStatuses(int square) {
+        for (int direction = 0; direction < NeighborTable.DIRECTIONS; direction++) {
+            int neighbor = neighbors.neighbor(square, direction);
+            statusesBefore[direction] = neighbor >= 0 ? map.getStatus(neighbor) : null;
+        }
+        statusesBefore[NeighborTable.DIRECTIONS] = map.getStatus(square);
+    }
+
+    /**
+     * Queues every square among a square and its neighbors whose status differs from the recorded one.
+     */
+    private void markChangedStatuses(int square) {
+        for (int direction = 0; direction < NeighborTable.DIRECTIONS; direction++) {
+            int neighbor = neighbors.neighbor(square, direction);
+            if (neighbor >= 0 && map.getStatus(neighbor) != statusesBefore[direction]) {
+                markDirty(neighbor);
+            }
+        }
+        if (map.getStatus(square) != statusesBefore[NeighborTable.DIRECTIONS]) {
+            markDirty(square);
+        }
+    }
+}
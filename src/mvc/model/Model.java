@@ -1,11 +1,18 @@
 package mvc.model;
 
 import mvc.model.cave.Cave;
+import mvc.model.log.EventSink;
+import mvc.model.metrics.ExplorationMetrics;
+import mvc.model.metrics.StepMetrics;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Supplier;
 
+import static mvc.model.Global.ActionType;
 import static mvc.model.Global.Cave_Constants;
+import static mvc.model.Global.SquareStatus;
 
 /**
  * The {@code Model} class serves as the core representation of the game's state and logic.
@@ -33,18 +40,50 @@ public class Model {
     private final List<Player> players;
 
     /**
-     * A flag indicating whether the game has started.
+     * A flag indicating whether the game has started. Only read and written by the thread that
+     * drives the model, like the rest of its state.
      */
     private boolean started;
 
+    /**
+     * Creates the inference engine of every new player.
+     */
+    private Supplier<InferenceEngine> inferenceFactory;
+
+    /**
+     * Records every step of the exploration, or {@code null} when nothing is recorded.
+     */
+    private ReplayLog replayLog;
+
+    /**
+     * Receives the events of every player. Discards them by default.
+     */
+    private EventSink eventSink = EventSink.NONE;
+
+    /**
+     * Measures the turns of every player, or {@code null} when nothing is measured.
+     */
+    private ExplorationMetrics metrics;
+
     /**
      * Constructs a new {@code Model} with an initialized {@link Cave} and an empty list of players.
      * The game is marked as not started by default.
      */
     public Model() {
-        cave = new Cave(Cave_Constants.MIN_SIDE);
+        this(new Cave(Cave_Constants.MIN_SIDE));
+    }
+
+    /**
+     * Constructs a new {@code Model} around an existing {@link Cave} with an empty list of players.
+     * The game is marked as not started by default.
+     *
+     * @param cave the cave players explore
+     */
+    public Model(Cave cave) {
+        this.cave = cave;
         started = false;
         players = new ArrayList<>();
+        inferenceFactory = ConstraintInference::new;
     }
 
     /**
@@ -74,14 +113,72 @@ public class Model {
         return cave;
     }
 
+    /**
+     * Retrieves the players currently in the game.
+     *
+     * @return an unmodifiable view of the players
+     */
+    public List<Player> getPlayers() {
+        return Collections.unmodifiableList(players);
+    }
+
+    /**
+     * Sets how the inference engine of each player added from now on is created.
+     *
+     * @param inferenceFactory creates a new, unshared {@link InferenceEngine} per player
+     */
+    public void setInferenceFactory(Supplier<InferenceEngine> inferenceFactory) {
+        this.inferenceFactory = inferenceFactory;
+    }
+
+    /**
+     * Sets the log every following step of the exploration is recorded to.
+     *
+     * <p>The log must have been opened on this model, and the cave and the players must not change
+     * until recording stops. Closing the log is up to the caller.</p>
+     *
+     * @param replayLog the log to write, or {@code null} to stop recording
+     * @see ReplayLog#open(java.nio.file.Path, Model)
+     */
+    public void setReplayLog(ReplayLog replayLog) {
+        this.replayLog = replayLog;
+    }
+
+    /**
+     * Sets where the players report their actions, for the current players and those added later.
+     *
+     * @param eventSink the sink for the players' events, or {@link EventSink#NONE} to report nothing
+     */
+    public void setEventSink(EventSink eventSink) {
+        this.eventSink = eventSink;
+        for (Player player : players) {
+            player.setEventSink(eventSink);
+        }
+    }
+
+    /**
+     * Sets where the players report the measurements of their turns, for the current players and
+     * those added later. Each player reports to the slot of its position in the list of players.
+     *
+     * @param metrics the metrics to record into, or {@code null} to measure nothing
+     */
+    public void setMetrics(ExplorationMetrics metrics) {
+        this.metrics = metrics;
+        for (int i = 0; i < players.size(); i++) {
+            players.get(i).setStepMetrics(stepMetrics(i));
+        }
+    }
+
     /**
      * Adds a new player to the game at the specified position within the cave.
      *
      * @param row the row position where the player is added
      * @param col the column position where the player is added
      */
-    public void addPlayer(byte row, byte col) {
-        Player player = new Player(row, col);
+    public void addPlayer(int row, int col) {
+        Player player = new Player(row, col, inferenceFactory.get());
+        player.setEventSink(eventSink);
+        player.setStepMetrics(stepMetrics(players.size()));
         player.linkCave(cave);
         players.add(player);
     }
@@ -92,8 +189,10 @@ public class Model {
      * @param row the row position of the player to remove
      * @param col the column position of the player to remove
      */
-    public void removePlayer(byte row, byte col) {
-        players.remove(new Player(row, col));
+    public void removePlayer(int row, int col) {
+        if (players.remove(new Player(row, col))) {
+            setMetrics(metrics);
+        }
     }
 
     /**
@@ -103,18 +202,83 @@ public class Model {
     public void reset() {
         started = false;
         players.clear();
-        cave.setCaveSide(cave.getCaveSide());
+        cave.clear();
+    }
+
+    /**
+     * Links every player to the cave again, putting them back at their starting positions.
+     *
+     * <p>This allows the same players, and their maps, to run a new exploration
+     * after the cave has been refilled.</p>
+     */
+    public void relinkPlayers() {
+        started = false;
+        for (Player player : players) {
+            player.linkCave(cave);
+        }
     }
 
     /**
      * Instructs all players in the game to explore the cave.
      *
-     * <p>Each {@link Player} will call their respective method for exploring the cave.</p>
+     * <p>Each {@link Player} will call their respective method for exploring the cave. A monster
+     * killed or a treasure taken by one player is reported to the others, whose perceptions around
+     * it are then out of date. The turn of every player that has not finished is written to the {@link #setReplayLog(ReplayLog) replay log}, if any.</p>
+     *
+     * @throws java.io.UncheckedIOException if the replay log cannot be written
      */
     public void exploreCave() {
-        for (Player player : players) {
+        if (replayLog == null) {
+            for (int i = 0; i < players.size(); i++) {
+                players.get(i).exploreCave();
+                reportRemovedHazard(i);
+            }
+            return;
+        }
+
+        for (int i = 0; i < players.size(); i++) {
+            Player player = players.get(i);
+            if (player.hasFinished()) continue;
+            replayLog.beginTurn(player);
             player.exploreCave();
+            reportRemovedHazard(i);
+            replayLog.endTurn(i, player);
         }
+        replayLog.endStep();
+    }
+
+    /**
+     * Saves the current state of the exploration into a new {@link Checkpoint}.
+     *
+     * @return the checkpoint
+     */
+    public Checkpoint checkpoint() {
+        Checkpoint checkpoint = new Checkpoint();
+        checkpoint(checkpoint);
+        return checkpoint;
+    }
+
+    /**
+     * Saves the current state of the exploration into an existing {@link Checkpoint},
+     * reusing its structures.
+     *
+     * @param checkpoint the checkpoint to overwrite
+     */
+    public void checkpoint(Checkpoint checkpoint) {
+        checkpoint.save(cave, players, inferenceFactory);
+    }
+
+    /**
+     * Puts the cave and every player back in the state saved in a {@link Checkpoint}.
+     *
+     * <p>The game's started state is not part of the checkpoint. Every square is reported as
+     * changed, so the view and the {@link #setReplayLog(ReplayLog) replay log} pick up the whole state.</p>
+     *
+     * @param checkpoint the checkpoint to restore
+     * @throws IllegalArgumentException if the players do not match those of the checkpoint
+     */
+    public void restore(Checkpoint checkpoint) {
+        checkpoint.restore(cave, players);
     }
 
     /**
@@ -123,6 +287,35 @@ public class Model {
      * @return {@code true} if all players have completed exploration, {@code false} otherwise
      */
     public boolean isCaveExplored() {
-        return players.stream().allMatch(Player::hasFinished);
+        for (int i = 0; i < players.size(); i++) {
+            if (!players.get(i).hasFinished()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tells every other player about the monster or treasure the player at a position in the list
+     * of players removed in its last turn, if any.
+     */
+    private void reportRemovedHazard(int index) {
+        Player player = players.get(index);
+        int square = player.getLastRemovedHazard();
+        if (square < 0 || players.size() == 1) return;
+
+        SquareStatus hazard = player.getLastAction() == ActionType.SHOOT ? SquareStatus.MONSTER : SquareStatus.TREASURE;
+        for (int i = 0; i < players.size(); i++) {
+            if (i != index) {
+                players.get(i).hazardRemovedByOther(square, hazard);
+            }
+        }
+    }
+
+    /**
+     * Returns the metrics of the player at a position in the list of players.
+     */
+    private StepMetrics stepMetrics(int index) {
+        return metrics == null ? StepMetrics.NONE : metrics.player(index);
     }
 }
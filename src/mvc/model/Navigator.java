@@ -0,0 +1,299 @@
+package mvc.model;
+
+import mvc.model.cave.Map;
+import mvc.model.cave.NeighborTable;
+
+import java.util.Arrays;
+
+/**
+ * Plans the player's routes over the squares its {@link Map} knows to be safe.
+ *
+ * <p>Two kinds of route are supported: a route to the nearest square of the map's frontier, the
+ * safe squares not visited yet, and an A* search with the Manhattan distance as heuristic to a
+ * given square, used to walk back to the start. Both only cross squares for which
+ * {@link Map#isSafe(int)} holds, so following a route never puts the player at risk.</p>
+ *
+ * <p>The last route is cached and followed one step at a time. It is planned again only when
+ * the player leaves it, reaches its end, or the {@link Map#getSafeVersion() safe set} of the map
+ * changes. All search buffers are allocated once per map size and reused.</p>
+ *
+ * @author Sergio Vega García
+ */
+public class Navigator {
+
+    // Kinds of route
+    private static final int NONE = 0;
+    private static final int FRONTIER = 1;
+    private static final int TARGET = 2;
+
+    private Map map;
+    private NeighborTable neighbors;
+    private int side;
+
+    // Search buffers, indexed by linear index. A square is discovered in the current search
+    // when its mark equals the current search number, so nothing has to be cleared between searches.
+    private int[] marks;
+    private int[] parents;
+    private int[] costs;
+    private int[] queue;
+    private long[] heap;
+    private int search;
+
+    // The cached route: path[0] is where it started and path[cursor] where the player should be
+    private int[] path;
+    private int pathLength;
+    private int cursor;
+    private int routeKind;
+    private int routeTarget;
+    private int routeVersion;
+
+    /**
+     * Starts planning over a new map, forgetting any cached route.
+     *
+     * @param map The player's map.
+     */
+    public void reset(Map map) {
+        this.map = map;
+        neighbors = map.getNeighborTable();
+        side = map.getCaveSide();
+
+        int squareCount = map.getSquareCount();
+        if (marks == null || marks.length != squareCount) {
+            marks = new int[squareCount];
+            parents = new int[squareCount];
+            costs = new int[squareCount];
+            queue = new int[squareCount];
+            path = new int[squareCount];
+            heap = new long[squareCount];
+            search = 0;
+        }
+        routeKind = NONE;
+    }
+
+    /**
+     * Takes over the cached route of another navigator, so that both plan the same moves from now on.
+     *
+     * <p>Only the route is copied; the search buffers are scratch space and this navigator keeps
+     * its own.</p>
+     *
+     * @param source The navigator to copy.
+     * @param map    This navigator's map, already holding a copy of the source navigator's map.
+     */
+    public void copyFrom(Navigator source, Map map) {
+        reset(map);
+        System.arraycopy(source.path, 0, path, 0, source.pathLength);
+        pathLength = source.pathLength;
+        cursor = source.cursor;
+        routeKind = source.routeKind;
+        routeTarget = source.routeTarget;
+        routeVersion = source.routeVersion;
+    }
+
+    /**
+     * Returns the next square on the shortest safe route to the nearest frontier square, a safe
+     * square not visited yet.
+     *
+     * <p>The target is the closest square of the map's frontier index, reached with A*. Only when
+     * that square is cut off from the player, such as a cleared monster square surrounded by
+     * unknown ones, does a breadth-first search look for the nearest reachable one instead.</p>
+     *
+     * @param position The linear index of the player's square.
+     * @return The linear index of the next square, or {@code -1} if no such square can be reached.
+     */
+    public int nextTowardsFrontier(int position) {
+        if (!map.hasFrontier()) {
+            routeKind = NONE;
+            return -1;
+        }
+        if (!isRouteValid(FRONTIER, position) || !map.isFrontier(routeTarget)) {
+            int target = map.nearestFrontier(position);
+            if (!findPath(position, target)) {
+                target = findFrontier(position);
+                if (target < 0) {
+                    routeKind = NONE;
+                    return -1;
+                }
+            }
+            buildRoute(FRONTIER, position, target);
+        }
+        return path[++cursor];
+    }
+
+    /**
+     * Returns the next square on the shortest safe route to the given target.
+     *
+     * @param position The linear index of the player's square.
+     * @param target   The linear index of the target square, which must itself be safe.
+     * @return The linear index of the next square, or {@code -1} if the target cannot be reached
+     * or the player is already on it.
+     */
+    public int nextTowards(int position, int target) {
+        if (position == target) return -1;
+        if (!isRouteValid(TARGET, position) || routeTarget != target) {
+            if (!findPath(position, target)) {
+                routeKind = NONE;
+                return -1;
+            }
+            buildRoute(TARGET, position, target);
+        }
+        return path[++cursor];
+    }
+
+    // --------------------
+    // HELPER METHODS - ROUTE
+    // --------------------
+
+    /**
+     * Checks whether the cached route is of the given kind, still has steps left from the
+     * player's square, and was planned over the current safe set.
+     */
+    private boolean isRouteValid(int kind, int position) {
+        return routeKind == kind
+                && routeVersion == map.getSafeVersion()
+                && cursor < pathLength - 1
+                && path[cursor] == position;
+    }
+
+    /**
+     * Stores the route found by the last search, from the start to the target, following parents back.
+     */
+    private void buildRoute(int kind, int start, int target) {
+        int length = 0;
+        for (int square = target; square != start; square = parents[square]) {
+            length++;
+        }
+        pathLength = length + 1;
+        int square = target;
+        for (int i = length; i > 0; i--) {
+            path[i] = square;
+            square = parents[square];
+        }
+        path[0] = start;
+
+        cursor = 0;
+        routeKind = kind;
+        routeTarget = target;
+        routeVersion = map.getSafeVersion();
+    }
+
+    // ---------------------
+    // HELPER METHODS - SEARCH
+    // ---------------------
+
+    /**
+     * Searches breadth-first over safe squares for the nearest frontier square.
+     *
+     * @return The linear index of the square found, or {@code -1}.
+     */
+    private int findFrontier(int start) {
+        startSearch();
+        int head = 0;
+        int tail = 0;
+        discover(start, -1, 0);
+        queue[tail++] = start;
+
+        while (head < tail) {
+            int square = queue[head++];
+            if (map.isFrontier(square)) {
+                return square;
+            }
+            for (int direction = 0; direction < NeighborTable.DIRECTIONS; direction++) {
+                int neighbor = neighbors.neighbor(square, direction);
+                if (neighbor >= 0 && marks[neighbor] != search && map.isSafe(neighbor)) {
+                    discover(neighbor, square, 0);
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Searches with A* over safe squares for a shortest route to the target.
+     *
+     * <p>The open set is a binary heap of {@code (estimate << 32 | square)} keys. Improved squares
+     * are pushed again rather than updated in place, and outdated entries are skipped when popped.</p>
+     *
+     * @return {@code true} if the target was reached.
+     */
+    private boolean findPath(int start, int target) {
+        startSearch();
+        discover(start, -1, 0);
+        int heapSize = push(0, start, distance(start, target));
+
+        while (heapSize > 0) {
+            long key = heap[0];
+            heapSize = pop(heapSize);
+            int square = (int) key;
+            int estimate = (int) (key >>> 32);
+            if (estimate != costs[square] + distance(square, target)) continue;
+            if (square == target) return true;
+
+            int cost = costs[square] + 1;
+            for (int direction = 0; direction < NeighborTable.DIRECTIONS; direction++) {
+                int neighbor = neighbors.neighbor(square, direction);
+                if (neighbor < 0 || !map.isSafe(neighbor)) continue;
+                if (marks[neighbor] != search || cost < costs[neighbor]) {
+                    discover(neighbor, square, cost);
+                    heapSize = push(heapSize, neighbor, cost + distance(neighbor, target));
+                }
+            }
+        }
+        return false;
+    }
+
+    private void startSearch() {
+        if (++search == 0) {
+            Arrays.fill(marks, 0);
+            search = 1;
+        }
+    }
+
+    private void discover(int square, int parent, int cost) {
+        marks[square] = search;
+        parents[square] = parent;
+        costs[square] = cost;
+    }
+
+    /**
+     * Returns the Manhattan distance between two squares.
+     */
+    private int distance(int from, int to) {
+        return Math.abs(from / side - to / side) + Math.abs(from % side - to % side);
+    }
+
+    // -------------------
+    // HELPER METHODS - HEAP
+    // -------------------
+
+    private int push(int size, int square, int estimate) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        long key = ((long) estimate << 32) | square;
+        int i = size;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= key) break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = key;
+        return size + 1;
+    }
+
+    private int pop(int size) {
+        long last = heap[--size];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) break;
+            if (child + 1 < size && heap[child + 1] < heap[child]) child++;
+            if (heap[child] >= last) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        if (size > 0) heap[i] = last;
+        return size;
+    }
+}
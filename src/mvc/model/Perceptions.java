@@ -1,33 +1,100 @@
 package mvc.model;
 
-import java.util.Arrays;
-
 import static mvc.model.Global.PerceptionType;
+import static mvc.model.Global.SquareStatus;
+import static mvc.model.Global.mapStatusToPerception;
 
 /**
- * The {@code Perceptions} class manages the state of various perceptual attributes
- * related to an entity. Each perception is represented as a boolean value indicating
- * whether that perception is active or not.
+ * The {@code Perceptions} class represents the state of various perceptual attributes
+ * related to an entity. Each perception is represented as a bit indicating whether that
+ * perception is active or not.
  *
  * <p>For example, perceptions can represent sensory inputs such as "Stench," "Breeze,"
- * and other environmental or situational indicators. The class allows querying and updating
- * these perceptions and provides a summary of their current state.</p>
+ * and other environmental or situational indicators. The class allows querying these
+ * perceptions, combining them and provides a summary of their current state.</p>
+ *
+ * <p>Instances are immutable and interned: the state is a bit mask over {@link PerceptionType}
+ * ordinals, and there is exactly one instance per mask, obtained through {@link #of(int)}.
+ * Queries and set operations are single bit operations, no operation allocates, and two
+ * instances are equal only if they are the same object.</p>
  */
-public class Perceptions {
+public final class Perceptions {
+
+    /**
+     * The number of perception types, one bit each.
+     */
+    private static final int TYPES = PerceptionType.values().length;
+
+    /**
+     * The interned instances, indexed by mask.
+     */
+    private static final Perceptions[] TABLE = new Perceptions[1 << TYPES];
+
+    /**
+     * The perceptions each {@link SquareStatus} produces on its neighbors, indexed by ordinal.
+     */
+    private static final Perceptions[] PRODUCED_BY = new Perceptions[SquareStatus.values().length];
+
+    static {
+        for (int mask = 0; mask < TABLE.length; mask++) {
+            TABLE[mask] = new Perceptions(mask);
+        }
+        for (SquareStatus status : SquareStatus.values()) {
+            PerceptionType perceptionType = mapStatusToPerception(status);
+            PRODUCED_BY[status.ordinal()] = perceptionType == null ? TABLE[0] : TABLE[bit(perceptionType)];
+        }
+    }
+
+    /**
+     * The perceptions with every perception inactive.
+     */
+    public static final Perceptions NONE = TABLE[0];
+
+    /**
+     * The state of each perception, one bit per {@link PerceptionType} ordinal.
+     */
+    private final byte mask;
 
     /**
-     * An array storing the state of each perception, mapped to the ordinal values
-     * of the {@link PerceptionType} enumeration.
+     * Constructs the {@code Perceptions} for a mask. Only used to fill the interned table.
+     *
+     * @param mask the bit mask of active perceptions
      */
-    private final boolean[] perceptions;
+    private Perceptions(int mask) {
+        this.mask = (byte) mask;
+    }
 
     /**
-     * Constructs a {@code Perceptions} object and initializes all perceptions
-     * to {@code false}.
+     * Returns the perceptions whose active perceptions are given by a bit mask.
+     *
+     * @param mask the bit mask over {@link PerceptionType} ordinals
+     * @return the interned {@code Perceptions} for that mask
+     * @throws IllegalArgumentException if the mask has bits outside the perception types
      */
-    public Perceptions() {
-        this.perceptions = new boolean[PerceptionType.values().length];
-        Arrays.fill(this.perceptions, false); // Initialize all perceptions to false
+    public static Perceptions of(int mask) {
+        if (mask < 0 || mask >= TABLE.length) {
+            throw new IllegalArgumentException("Invalid perception mask: " + mask);
+        }
+        return TABLE[mask];
+    }
+
+    /**
+     * Returns the perceptions that a square with the given status produces on its neighbors.
+     *
+     * @param status the status of the square
+     * @return the perceptions it produces, {@link #NONE} if it produces none
+     */
+    public static Perceptions producedBy(SquareStatus status) {
+        return PRODUCED_BY[status.ordinal()];
+    }
+
+    /**
+     * Returns the bit mask of active perceptions.
+     *
+     * @return the mask over {@link PerceptionType} ordinals
+     */
+    public int getMask() {
+        return mask;
     }
 
     /**
@@ -37,17 +104,48 @@ public class Perceptions {
      * @return {@code true} if the perception is active, {@code false} otherwise
      */
     public boolean getPerception(PerceptionType perceptionType) {
-        return perceptions[perceptionType.ordinal()];
+        return (mask & bit(perceptionType)) != 0;
     }
 
     /**
-     * Sets the state of a specific perception.
+     * Returns these perceptions with a specific perception set to the given state.
      *
      * @param perceptionType the type of perception to update, as defined in {@link PerceptionType}
      * @param value          {@code true} to activate the perception, {@code false} to deactivate it
+     * @return the interned {@code Perceptions} with the perception updated
      */
-    public void setPerception(PerceptionType perceptionType, boolean value) {
-        this.perceptions[perceptionType.ordinal()] = value;
+    public Perceptions with(PerceptionType perceptionType, boolean value) {
+        return value ? TABLE[mask | bit(perceptionType)] : TABLE[mask & ~bit(perceptionType)];
+    }
+
+    /**
+     * Returns the perceptions active in these or in the other perceptions.
+     *
+     * @param other the perceptions to combine with
+     * @return the interned union
+     */
+    public Perceptions union(Perceptions other) {
+        return TABLE[mask | other.mask];
+    }
+
+    /**
+     * Returns the perceptions active in both these and the other perceptions.
+     *
+     * @param other the perceptions to combine with
+     * @return the interned intersection
+     */
+    public Perceptions intersection(Perceptions other) {
+        return TABLE[mask & other.mask];
+    }
+
+    /**
+     * Returns the perceptions active in exactly one of these and the other perceptions.
+     *
+     * @param other the perceptions to compare with
+     * @return the interned symmetric difference
+     */
+    public Perceptions symmetricDifference(Perceptions other) {
+        return TABLE[mask ^ other.mask];
     }
 
     /**
@@ -56,12 +154,14 @@ public class Perceptions {
      * @return {@code true} if all perceptions are inactive, {@code false} if any perception is active
      */
     public boolean isClean() {
-        for (boolean value : perceptions) {
-            if (value) {
-                return false;
-            }
-        }
-        return true;
+        return mask == 0;
+    }
+
+    /**
+     * Returns the bit of a perception type in the mask.
+     */
+    private static int bit(PerceptionType perceptionType) {
+        return 1 << perceptionType.ordinal();
     }
 
     /**
@@ -2,10 +2,12 @@ package mvc.model;
 
 import mvc.model.cave.Cave;
 import mvc.model.cave.Map;
-import mvc.model.cave.Square;
+import mvc.model.cave.NeighborTable;
+import mvc.model.log.EventLevel;
+import mvc.model.log.EventSink;
+import mvc.model.log.LogEvent;
+import mvc.model.metrics.StepMetrics;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Objects;
 
 import static mvc.model.Global.*;
@@ -16,28 +18,66 @@ import static mvc.model.Global.*;
  */
 public class Player {
 
+    // Movement preferences while searching for the treasure and while heading to the exit
+    private static final Directions[] SEARCH_PRIORITIES = {Directions.NORTH, Directions.EAST, Directions.SOUTH, Directions.WEST};
+    private static final Directions[] EXIT_PRIORITIES = {Directions.WEST, Directions.SOUTH, Directions.EAST, Directions.NORTH};
+
     // Initial position of the player
-    private final byte startingRow;
-    private final byte startingCol;
+    private final int startingRow;
+    private final int startingCol;
 
     // Current state of the player
-    private byte actualRow;
-    private byte actualCol;
+    private int actualRow;
+    private int actualCol;
     private boolean treasureFound;
     private boolean leftCave;
+    private boolean dead;
+
+    // The action taken in the last step, and the direction of the last arrow shot
+    private ActionType lastAction = ActionType.NONE;
+    private Directions lastDirection;
+
+    // The square where the last step killed a monster or took a treasure, or -1
+    private int lastRemovedHazard = -1;
 
     // Player's environment
     private Cave cave;
     private Map map;
+    private NeighborTable neighbors;
     private int arrows;
+    private int initialArrows;
+
+    // Deduces the statuses of the map from the perceptions
+    private final InferenceEngine inference;
+
+    // Plans routes over the squares known to be safe
+    private final Navigator navigator = new Navigator();
+
+    // Receives the player's actions
+    private EventSink events = EventSink.NONE;
+
+    // Receives the measurements of the player's turns
+    private StepMetrics metrics = StepMetrics.NONE;
 
     /**
-     * Constructs a player at the given starting position.
+     * Constructs a player at the given starting position that reasons with a {@link ConstraintInference}.
      *
      * @param row    The starting row of the player.
      * @param column The starting column of the player.
      */
-    public Player(byte row, byte column) {
+    public Player(int row, int column) {
+        this(row, column, new ConstraintInference());
+    }
+
+    /**
+     * Constructs a player at the given starting position that reasons with the given inference engine.
+     *
+     * @param row       The starting row of the player.
+     * @param column    The starting column of the player.
+     * @param inference The engine that deduces the statuses of the player's map. Not shared with other players.
+     */
+    public Player(int row, int column, InferenceEngine inference) {
+        this.inference = inference;
         startingRow = row;
         startingCol = column;
         actualRow = startingRow;
@@ -50,11 +90,23 @@ public class Player {
     /**
      * Links the player to a cave and initializes the map.
      *
+     * <p>Linking also puts the player back at its starting position with no treasure,
+     * so a player can be linked again to run a new exploration.</p>
+     *
      * @param cave The cave the player will explore.
      */
     public void linkCave(Cave cave) {
         this.cave = cave;
+        actualRow = startingRow;
+        actualCol = startingCol;
+        treasureFound = false;
+        leftCave = false;
+        dead = false;
+        lastAction = ActionType.NONE;
+        lastDirection = null;
+        lastRemovedHazard = -1;
         arrows = cave.getAmountOfMonsters();
+        initialArrows = arrows;
         initializeMap();
     }
 
@@ -62,13 +114,68 @@ public class Player {
     // INITIALIZATION
     // --------------
 
+    /**
+     * Puts this player in the state of another player that started on the same square: position,
+     * flags, arrows, map, deductions and planned route. The player stays linked to its own cave.
+     *
+     * <p>Everything is copied into the existing structures, so this allocates nothing once the
+     * map has the right size.</p>
+     *
+     * @param source The player to copy.
+     * @throws IllegalArgumentException If the players started on different squares or use
+     *                                  different kinds of inference engine.
+     */
+    void copyFrom(Player source) {
+        if (!isCompatibleWith(source)) {
+            throw new IllegalArgumentException("Cannot copy a player that started elsewhere or reasons differently");
+        }
+        actualRow = source.actualRow;
+        actualCol = source.actualCol;
+        treasureFound = source.treasureFound;
+        leftCave = source.leftCave;
+        dead = source.dead;
+        lastAction = source.lastAction;
+        lastDirection = source.lastDirection;
+        lastRemovedHazard = source.lastRemovedHazard;
+        arrows = source.arrows;
+        initialArrows = source.initialArrows;
+
+        if (map == null) {
+            map = new Map(source.map.getCaveSide());
+        }
+        map.copyFrom(source.map);
+        neighbors = map.getNeighborTable();
+        inference.copyFrom(source.inference, map);
+        navigator.copyFrom(source.navigator, map);
+    }
+
+    /**
+     * Checks whether this player can take over the state of another one.
+     *
+     * @param other The other player.
+     * @return {@code true} if both started on the same square and use the same kind of inference engine.
+     */
+    boolean isCompatibleWith(Player other) {
+        return equals(other) && inference.getClass() == other.inference.getClass();
+    }
+
     /**
      * Initializes the player's map based on the cave's size.
      * Marks the player's starting position on the map.
+     *
+     * <p>A map of the right size from a previous exploration is cleared instead of reallocated.</p>
      */
     private void initializeMap() {
-        map = new Map(cave.getCaveSide());
-        map.getSquare(startingRow, startingCol).setStatus(SquareStatus.PLAYER);
+        int caveSide = cave.getCaveSide();
+        if (map == null || map.getCaveSide() != caveSide) {
+            map = new Map(caveSide);
+        } else {
+            map.clear();
+        }
+        neighbors = map.getNeighborTable();
+        map.setStatus(map.toLinearIndex(startingRow, startingCol), SquareStatus.PLAYER);
+        inference.reset(map);
+        navigator.reset(map);
     }
 
     // ----------
@@ -78,54 +185,59 @@ public class Player {
     /**
      * The player explores the cave by perceiving, updating knowledge,
      * and making decisions based on the current state.
+     * A player that has already finished does nothing.
      */
     public void exploreCave() {
+        if (hasFinished()) return;
+
+        lastAction = ActionType.NONE;
+        lastDirection = null;
+        lastRemovedHazard = -1;
+        if (metrics.measureTurn()) {
+            exploreCaveMeasured();
+            return;
+        }
         getPerceptions();
         updateKnowledge();
         makeDecision();
     }
 
+    /**
+     * Takes a turn like {@link #exploreCave()}, timing each phase and reporting it to the metrics.
+     */
+    private void exploreCaveMeasured() {
+        long allocatedBefore = metrics.allocatedBytes();
+        long start = System.nanoTime();
+        getPerceptions();
+        long perceived = System.nanoTime();
+        long changesBefore = map.getStatusChangeCount();
+        updateKnowledge();
+        int inferred = (int) (map.getStatusChangeCount() - changesBefore);
+        long updated = System.nanoTime();
+        makeDecision();
+        long decided = System.nanoTime();
+        long allocated = metrics.allocatedBytes() - allocatedBefore;
+
+        metrics.recordTurn(perceived - start, updated - perceived, decided - updated, inferred, allocated);
+    }
+
     /**
      * Retrieves perceptions from the current cave square and updates the map.
      */
     private void getPerceptions() {
-        Square caveSquare = cave.getSquare(actualRow, actualCol);
-        Square mapSquare = map.getSquare(actualRow, actualCol);
+        int position = currentPosition();
 
-        mapSquare.setVisited(true);
-        mapSquare.setPerceptions(caveSquare.getPerceptions());
+        map.setVisited(position, true);
+        map.setHasTreasure(position, cave.hasTreasure(position));
+        map.copyPerceptions(cave, position);
+        inference.squarePerceived(position);
     }
 
     /**
      * Updates the player's knowledge about the cave based on current perceptions.
      */
     private void updateKnowledge() {
-        byte caveSide = map.getCaveSide();
-
-        for (byte row = 0; row < caveSide; row++) {
-            for (byte col = 0; col < caveSide; col++) {
-                Square currentSquare = map.getSquare(row, col);
-
-                Perceptions currentPerceptions = currentSquare.getPerceptions();
-                Square[] neighbors = map.getNeighbors(row, col);
-
-                // Update neighbors of a clean square
-                if (currentPerceptions != null && currentPerceptions.isClean()) {
-                    markNeighborsClean(neighbors);
-                }
-
-                // Handle squares with one unknown neighbor
-                Object[] result = getUnknownNeighbors(neighbors);
-                if ((int) result[0] == 1 && result[1] != null) {
-                    updateUnknownNeighborStatus((Square) result[1], neighbors, currentPerceptions);
-                }
-
-                // Infer status of the current square based on neighbors
-                if (currentSquare.getStatus() == SquareStatus.UNKNOWN) {
-                    inferSquareStatus(currentSquare, neighbors);
-                }
-            }
-        }
+        inference.update();
     }
 
     /**
@@ -138,7 +250,7 @@ public class Player {
             } else if (shouldShoot()) {
                 shoot(getMonsterDirection());
             } else {
-                movementWithPriorities(Directions.WEST, Directions.SOUTH, Directions.EAST, Directions.NORTH);
+                returnToStart();
             }
         } else {
             if (canTake()) {
@@ -146,7 +258,7 @@ public class Player {
             } else if (shouldShoot()) {
                 shoot(getMonsterDirection());
             } else {
-                movementWithPriorities(Directions.NORTH, Directions.EAST, Directions.SOUTH, Directions.WEST);
+                explore();
             }
         }
     }
@@ -160,21 +272,11 @@ public class Player {
     }
 
     private boolean canTake() {
-        return cave.getSquare(actualRow, actualCol).hasTreasure();
+        return cave.hasTreasure(currentPosition());
     }
 
     private boolean shouldShoot() {
-        if (arrows <= 0) return false;
-
-        for (Directions direction : Directions.values()) {
-            Square[] squares = getSquaresInDirection(direction);
-            for (Square square : squares) {
-                if (square != null && square.getStatus() == SquareStatus.MONSTER) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return arrows > 0 && getMonsterDirection() != null;
     }
 
     // --------------
@@ -185,9 +287,12 @@ public class Player {
      * Allows the player to leave the cave if they are at the starting position.
      */
     private void leaveCave() {
-        updateSquareStatus(actualRow, actualCol, SquareStatus.CLEAN);
+        updateSquareStatus(currentPosition(), SquareStatus.CLEAN);
         leftCave = true;
-        System.out.println("Player has left the cave.");
+        lastAction = ActionType.LEAVE;
+        if (events.isEnabled(EventLevel.INFO)) {
+            events.emit(EventLevel.INFO, new LogEvent.CaveLeft(actualRow, actualCol));
+        }
     }
 
     /**
@@ -196,39 +301,75 @@ public class Player {
      */
     private void shoot(Directions direction) {
         arrows--;
-        System.out.println("Shooting an arrow to the " + direction);
-
-        byte[] delta = getDirectionDelta(direction);
-        byte newRow = (byte) (actualRow + delta[0]);
-        byte newCol = (byte) (actualCol + delta[1]);
-
-        while (cave.isWithinBounds(newRow, newCol)) {
-            Square caveSquare = cave.getSquare(newRow, newCol);
-            if (caveSquare.getStatus() == SquareStatus.MONSTER) {
-                System.out.println(PerceptionType.GROAN + ": Monster defeated!");
-                updateSquareStatus(newRow, newCol, SquareStatus.CLEAN);
-                updateNeighborPerceptions(newRow, newCol);
+        lastAction = ActionType.SHOOT;
+        lastDirection = direction;
+        if (events.isEnabled(EventLevel.INFO)) {
+            events.emit(EventLevel.INFO, new LogEvent.ArrowShot(actualRow, actualCol, direction));
+        }
+
+        int square = neighbors.neighbor(currentPosition(), direction);
+        while (square >= 0) {
+            if (cave.getStatus(square) == SquareStatus.MONSTER) {
+                if (events.isEnabled(EventLevel.INFO)) {
+                    events.emit(EventLevel.INFO, new LogEvent.MonsterKilled(square / map.getCaveSide(), square % map.getCaveSide()));
+                }
+                updateSquareStatus(square, SquareStatus.CLEAN);
+                updateNeighborPerceptions(square);
+                inference.hazardRemoved(square, SquareStatus.MONSTER);
+                lastRemovedHazard = square;
                 return;
             }
-            newRow += delta[0];
-            newCol += delta[1];
+            square = neighbors.neighbor(square, direction);
         }
 
-        System.out.println(PerceptionType.BANG + ": Arrow hit a wall!");
+        if (events.isEnabled(EventLevel.INFO)) {
+            events.emit(EventLevel.INFO, new LogEvent.ArrowMissed(actualRow, actualCol, direction));
+        }
     }
 
     /**
      * The player picks up the treasure.
      */
     private void take() {
+        int position = currentPosition();
         treasureFound = true;
-        cave.getSquare(actualRow, actualCol).setHasTreasure(false);
-        map.getSquare(actualRow, actualCol).setHasTreasure(false);
-        updateNeighborPerceptions(actualRow, actualCol);
-        System.out.println("Treasure collected!");
+        lastAction = ActionType.TAKE;
+        cave.setHasTreasure(position, false);
+        map.setHasTreasure(position, false);
+        updateNeighborPerceptions(position);
+        inference.hazardRemoved(position, SquareStatus.TREASURE);
+        lastRemovedHazard = position;
+        if (events.isEnabled(EventLevel.INFO)) {
+            events.emit(EventLevel.INFO, new LogEvent.TreasureCollected(actualRow, actualCol));
+        }
+    }
+
+    /**
+     * Walks towards the nearest safe square not visited yet, falling back to the
+     * one-square-ahead preferences when no such square can be reached.
+     */
+    private void explore() {
+        int next = navigator.nextTowardsFrontier(currentPosition());
+        if (next >= 0) {
+            move(next);
+        } else {
+            movementWithPriorities(SEARCH_PRIORITIES);
+        }
     }
 
-    private void movement(Directions... preferences) {
+    /**
+     * Walks the shortest known-safe route back to the starting square.
+     */
+    private void returnToStart() {
+        int next = navigator.nextTowards(currentPosition(), map.toLinearIndex(startingRow, startingCol));
+        if (next >= 0) {
+            move(next);
+        } else {
+            movementWithPriorities(EXIT_PRIORITIES);
+        }
+    }
+
+    private void movement(Directions[] preferences) {
         for (Directions direction : preferences) {
             if (isSafe(direction)) {
                 moveInDirection(direction);
@@ -237,7 +378,7 @@ public class Player {
         }
     }
 
-    private void movementWithPriorities(Directions... preferences) {
+    private void movementWithPriorities(Directions[] preferences) {
         for (Directions direction : preferences) {
             if (isSafe(direction) && notHasVisited(direction)) {
                 moveInDirection(direction);
@@ -251,76 +392,54 @@ public class Player {
     // HELPER METHODS - SHOOT
     // ----------------------
 
+    /**
+     * Finds the first direction, in {@link Directions} order, with a square known to hold a monster.
+     *
+     * @return The direction, or {@code null} if no known monster is in line with the player.
+     */
     private Directions getMonsterDirection() {
-        for (Directions direction : Directions.values()) {
-            Square[] squares = getSquaresInDirection(direction);
-            for (Square square : squares) {
-                if (square != null && square.getStatus() == SquareStatus.MONSTER) {
-                    return direction;
-                }
-            }
-        }
-        // Should not occur due to shouldShoot
-        return null;
-    }
-
-    private Square[] getSquaresInDirection(Directions direction) {
-        List<Square> squaresInDirection = new ArrayList<>();
-        byte[] delta = getDirectionDelta(direction);
-        byte newRow = (byte) (actualRow + delta[0]);
-        byte newCol = (byte) (actualCol + delta[1]);
-
-        while (map.isWithinBounds(newRow, newCol)) {
-            Square caveSquare = map.getSquare(newRow, newCol);
-            squaresInDirection.add(caveSquare);
-            newRow += delta[0];
-            newCol += delta[1];
-        }
-
-        return squaresInDirection.toArray(new Square[0]);
+        return map.getMonsterDirection(currentPosition());
     }
 
     // -------------------------
     // HELPER METHODS - MOVEMENT
     // -------------------------
 
-    private void move(byte nextRow, byte nextCol) {
-        updateSquareStatus(actualRow, actualCol, SquareStatus.CLEAN);
-        updateSquareStatus(nextRow, nextCol, SquareStatus.PLAYER);
+    private void move(int next) {
+        SquareStatus destination = cave.getStatus(next);
+        dead = destination == SquareStatus.MONSTER || destination == SquareStatus.HOLE;
+        lastAction = ActionType.MOVE;
+
+        updateSquareStatus(currentPosition(), SquareStatus.CLEAN);
+        updateSquareStatus(next, SquareStatus.PLAYER);
 
-        actualRow = nextRow;
-        actualCol = nextCol;
+        actualRow = next / map.getCaveSide();
+        actualCol = next % map.getCaveSide();
     }
 
     private void moveInDirection(Directions direction) {
-        byte[] delta = getDirectionDelta(direction);
-        move((byte) (actualRow + delta[0]), (byte) (actualCol + delta[1]));
+        move(neighbors.neighbor(currentPosition(), direction));
     }
 
-    private boolean isPositionSafe(byte row, byte col) {
-        if (map.isWithinBounds(row, col)) {
-            SquareStatus status = map.getSquare(row, col).getStatus();
-            Perceptions perceptions = map.getSquare(actualRow, actualCol).getPerceptions();
+    private boolean isPositionSafe(int square) {
+        if (square >= 0) {
+            SquareStatus status = map.getStatus(square);
+            int position = currentPosition();
             return (status == SquareStatus.TREASURE || status == SquareStatus.PLAYER || status == SquareStatus.CLEAN ||
-                    (status == SquareStatus.UNKNOWN && !perceptions.getPerception(PerceptionType.STENCH) && !perceptions.getPerception(PerceptionType.BREEZE)));
+                    (status == SquareStatus.UNKNOWN && !map.getPerception(position, PerceptionType.STENCH) && !map.getPerception(position, PerceptionType.BREEZE)));
         } else {
             return false;
         }
     }
 
     private boolean isSafe(Directions direction) {
-        byte[] delta = getDirectionDelta(direction);
-        byte newRow = (byte) (actualRow + delta[0]);
-        byte newCol = (byte) (actualCol + delta[1]);
-        return isPositionSafe(newRow, newCol);
+        return isPositionSafe(neighbors.neighbor(currentPosition(), direction));
     }
 
     private boolean notHasVisited(Directions direction) {
-        byte[] delta = getDirectionDelta(direction);
-        byte newRow = (byte) (actualRow + delta[0]);
-        byte newCol = (byte) (actualCol + delta[1]);
-        if (map.isWithinBounds(newRow, newCol)) {
-            return map.getSquare(newRow, newCol).notVisited();
+        int square = neighbors.neighbor(currentPosition(), direction);
+        if (square >= 0) {
+            return !map.isVisited(square);
         }
         return true;
 
@@ -330,96 +449,174 @@ public class Player {
     // HELPER METHODS - STATUS
     // -----------------------
 
+    private void updateSquareStatus(int square, SquareStatus status) {
+        cave.setStatus(square, status);
+        map.setStatus(square, status);
+        inference.statusChanged(square);
+    }
+
+    private void updateNeighborPerceptions(int square) {
+        cave.updateNeighborPerceptions(square);
+        map.updateNeighborPerceptions(square);
+    }
+
     /**
-     * Marks all unknown neighbors as clean.
+     * Returns the linear index of the player's current square.
      */
-    private void markNeighborsClean(Square[] neighbors) {
-        for (Square neighbor : neighbors) {
-            if (neighbor != null && neighbor.getStatus() == SquareStatus.UNKNOWN) {
-                neighbor.setStatus(SquareStatus.CLEAN);
-            }
-        }
+    private int currentPosition() {
+        return map.toLinearIndex(actualRow, actualCol);
     }
 
-    public Object[] getUnknownNeighbors(Square[] neighbors) {
-        int unknownNeighborsCount = 0;
-        Square unknownNeighbor = null;
-        for (Square neighbor : neighbors) {
-            if (neighbor != null && neighbor.getStatus() == SquareStatus.UNKNOWN) {
-                unknownNeighborsCount++;
-                unknownNeighbor = neighbor;
-            }
-        }
-        return new Object[]{unknownNeighborsCount, unknownNeighbor};
+    // --------------
+    // HELPER METHODS
+    // --------------
+
+    /**
+     * Sets where the player reports its actions.
+     *
+     * @param events The sink for the player's events, or {@link EventSink#NONE} to report nothing.
+     */
+    public void setEventSink(EventSink events) {
+        this.events = events;
     }
 
-    private void updateUnknownNeighborStatus(Square unknownNeighbor, Square[] neighbors, Perceptions currentPerceptions) {
-        Perceptions inferredPerceptions = new Perceptions();
-        for (Square neighbor : neighbors) {
-            if (neighbor != null) {
-                PerceptionType perceptionType = mapStatusToPerception(neighbor.getStatus());
-                if (perceptionType != null) {
-                    inferredPerceptions.setPerception(perceptionType, true);
-                }
-            }
-        }
-        for (PerceptionType perceptionType : PerceptionType.values()) {
-            if (currentPerceptions != null &&
-                    currentPerceptions.getPerception(perceptionType) != inferredPerceptions.getPerception(perceptionType)) {
-                unknownNeighbor.setStatus(mapPerceptionToStatus(perceptionType));
-            }
-        }
+    /**
+     * Sets where the player reports the measurements of its turns.
+     *
+     * @param metrics The metrics of the player, or {@link StepMetrics#NONE} to measure nothing.
+     */
+    public void setStepMetrics(StepMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Checks whether the player is done, either by leaving the cave with the treasure or by dying.
+     *
+     * @return {@code true} if the player will take no further actions.
+     */
+    public boolean hasFinished() {
+        return (treasureFound && leftCave) || dead;
     }
 
     /**
-     * Infers the status of the current square based on its neighbors.
+     * Checks whether the player walked into a monster or a hole.
+     *
+     * @return {@code true} if the player is dead.
      */
-    private void inferSquareStatus(Square square, Square[] neighbors) {
-        byte[] perceptionCounter = new byte[PerceptionType.values().length];
-        byte neighborsWithPerceptionsCounter = 0;
+    public boolean isDead() {
+        return dead;
+    }
 
-        for (Square neighbor : neighbors) {
-            if (neighbor == null || neighbor.getPerceptions() == null) continue;
-            neighborsWithPerceptionsCounter++;
+    /**
+     * Checks whether the player has collected the treasure.
+     *
+     * @return {@code true} if the treasure was taken.
+     */
+    public boolean isTreasureFound() {
+        return treasureFound;
+    }
 
-            for (PerceptionType perceptionType : PerceptionType.values()) {
-                if (neighbor.getPerceptions().getPerception(perceptionType)) {
-                    perceptionCounter[perceptionType.ordinal()]++;
-                }
-            }
-        }
+    /**
+     * Checks whether the player has left the cave.
+     *
+     * @return {@code true} if the player left the cave with the treasure.
+     */
+    public boolean hasLeftCave() {
+        return leftCave;
+    }
 
-        if (neighborsWithPerceptionsCounter >= 2) {
-            boolean statusSet = false;
-            for (int i = 0; i < perceptionCounter.length; i++) {
-                if (perceptionCounter[i] >= 2) {
-                    square.setStatus(SquareStatus.values()[i]);
-                    statusSet = true;
-                    break;
-                }
-            }
-            if (!statusSet) {
-                square.setStatus(SquareStatus.CLEAN);
-            }
-        }
+    /**
+     * Returns the row of the player's current square.
+     *
+     * @return The current row.
+     */
+    public int getRow() {
+        return actualRow;
     }
 
-    private void updateSquareStatus(byte row, byte col, SquareStatus status) {
-        cave.getSquare(row, col).setStatus(status);
-        map.getSquare(row, col).setStatus(status);
+    /**
+     * Returns the column of the player's current square.
+     *
+     * @return The current column.
+     */
+    public int getColumn() {
+        return actualCol;
     }
 
-    private void updateNeighborPerceptions(byte row, byte col) {
-        cave.updateNeighborPerceptions(row, col);
-        map.updateNeighborPerceptions(row, col);
+    /**
+     * Returns the row of the square where the player started.
+     *
+     * @return The starting row.
+     */
+    public int getStartingRow() {
+        return startingRow;
     }
 
-    // --------------
-    // HELPER METHODS
-    // --------------
+    /**
+     * Returns the column of the square where the player started.
+     *
+     * @return The starting column.
+     */
+    public int getStartingColumn() {
+        return startingCol;
+    }
 
-    public boolean hasFinished() {
-        return treasureFound && leftCave;
+    /**
+     * Returns the player's knowledge of the cave. The map is replaced when the player is
+     * linked to a cave of a different size.
+     *
+     * @return The player's {@link Map}.
+     */
+    public Map getMap() {
+        return map;
+    }
+
+    /**
+     * Returns the action the player took in its last step.
+     *
+     * @return The last action, or {@link ActionType#NONE} if it could not act or has not acted yet.
+     */
+    public ActionType getLastAction() {
+        return lastAction;
+    }
+
+    /**
+     * Returns the direction of the arrow shot in the last step.
+     *
+     * @return The direction, or {@code null} if the last action was not {@link ActionType#SHOOT}.
+     */
+    public Directions getLastDirection() {
+        return lastDirection;
+    }
+
+    /**
+     * Returns the square where the last step killed a monster or took a treasure. The hazard is a
+     * monster if the last action was {@link ActionType#SHOOT} and a treasure if it was {@link ActionType#TAKE}.
+     *
+     * @return The linear index of the square, or {@code -1} if the last step removed nothing.
+     */
+    int getLastRemovedHazard() {
+        return lastRemovedHazard;
+    }
+
+    /**
+     * Tells the player that another player killed a monster or took a treasure, so what it
+     * perceived around that square may no longer hold.
+     *
+     * @param square The linear index of the square.
+     * @param hazard The status that was removed, {@link SquareStatus#MONSTER} or {@link SquareStatus#TREASURE}.
+     */
+    void hazardRemovedByOther(int square, SquareStatus hazard) {
+        inference.hazardRemoved(square, hazard);
+    }
+
+    /**
+     * Returns the number of arrows shot since the player was linked to the cave.
+     *
+     * @return The number of arrows used.
+     */
+    public int getArrowsUsed() {
+        return initialArrows - arrows;
     }
 
     @Override
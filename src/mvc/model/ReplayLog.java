@@ -0,0 +1,360 @@
+package mvc.model;
+
+import mvc.model.cave.Cave;
+import mvc.model.cave.CaveModel;
+import mvc.model.cave.ChangeLog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static mvc.model.Global.*;
+
+/**
+ * The append-only binary log of an exploration, and its writer.
+ *
+ * <p>The log starts with the full state of the cave and of every player's map, followed by one
+ * record per turn of a player: the action taken, the square perceived and its perceptions, where
+ * the player ended up, and the squares of the cave and of the map whose state changed. Replaying
+ * the records in order with a {@link ReplayReader} reconstructs the cave and the maps after any
+ * step, without running the players again.</p>
+ *
+ * <h2>Layout</h2>
+ * <p>All values are big-endian.</p>
+ * <pre>
+ * file    := header cave:frame map:frame* turn*
+ * header  := magic:int32 ("RPLY")  version:int32  side:int32
+ *            monsters:int32  treasures:int32  cavePlayers:int32
+ *            players:int32  (startRow:int32  startColumn:int32)*
+ * frame   := state*                                   (one per square, row-major)
+ * turn    := step:int32  player:int32  action:int8  direction:int8
+ *            perceived:int32  perceptions:int8  position:int32  flags:int8  arrowsUsed:int32
+ *            cave:delta  map:delta
+ * delta   := count:int32 (index:int32 state)*  |  -1:int32 frame
+ * state   := status:int8  perceptions:int8  squareFlags:int8
+ * </pre>
+ * <p>Statuses, actions and directions are stored as ordinals, and {@code -1} stands for no
+ * status, no direction or unknown perceptions. Perceptions are stored as their mask. A turn's
+ * {@code flags} hold, from the lowest bit, whether the player has the treasure, has left the cave
+ * and is dead; a square's {@code squareFlags} hold whether it was visited and has a treasure.
+ * A delta is a whole frame when the grid was cleared during the turn.</p>
+ *
+ * <h2>Recording</h2>
+ * <p>The changed squares come from the {@link CaveModel#getJournal() journals} of the grids, which
+ * the log turns on, so writing a turn only costs the squares it changed. Records are encoded into
+ * a direct buffer and handed to the file at the end of a step, once {@link #FLUSH_BYTES} have
+ * gathered or {@link #FLUSH_INTERVAL_MILLIS} have passed since the last write. A log cut short by
+ * a crash of the process can therefore still be read up to the last step written, which lags the
+ * exploration by at most that interval. Records reach the operating system, not necessarily the
+ * disk.</p>
+ * <pre>{@code
+ * try (ReplayLog log = ReplayLog.open(path, model)) {
+ *     model.setReplayLog(log);
+ *     while (!model.isCaveExplored()) model.exploreCave();
+ *     model.setReplayLog(null);
+ * }
+ * }</pre>
+ *
+ * <p>A log is not thread-safe: it must be written by the thread that explores the cave. The
+ * cave must keep its size and the players must stay the same while it is recorded.</p>
+ *
+ * @author Sergio Vega García
+ * @see Model#setReplayLog(ReplayLog)
+ */
+public final class ReplayLog implements Closeable {
+
+    /**
+     * The first four bytes of every replay log, "RPLY" in ASCII.
+     */
+    public static final int MAGIC = 0x52504C59;
+
+    /**
+     * The version of the format written by this class.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * The size of the fixed part of the header in bytes, before the starting positions.
+     */
+    public static final int HEADER_BYTES = 28;
+
+    /**
+     * The size of the fixed part of a turn in bytes, before the deltas.
+     */
+    public static final int TURN_BYTES = 24;
+
+    /**
+     * The size of the state of a square in bytes.
+     */
+    public static final int STATE_BYTES = 3;
+
+    /**
+     * The count of a delta that holds a whole frame.
+     */
+    public static final int FULL_FRAME = -1;
+
+    // Bits of the flags of a turn
+    static final int TREASURE_FOUND = 1;
+    static final int LEFT_CAVE = 1 << 1;
+    static final int DEAD = 1 << 2;
+
+    // Bits of the flags of a square
+    static final int VISITED = 1;
+    static final int HAS_TREASURE = 1 << 1;
+
+    /**
+     * The number of buffered bytes past which the records are written at the end of a step.
+     */
+    public static final int FLUSH_BYTES = 1 << 16;
+
+    /**
+     * The time, in milliseconds, past which the records are written at the end of a step.
+     */
+    public static final long FLUSH_INTERVAL_MILLIS = 100;
+
+    private static final long FLUSH_INTERVAL_NANOS = FLUSH_INTERVAL_MILLIS * 1_000_000;
+
+    /**
+     * The size of the buffer records are batched in before being written.
+     */
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private final FileChannel channel;
+    private ByteBuffer buffer;
+
+    private final Cave cave;
+    private final List<Player> players;
+    private final int caveSide;
+    private final int playerCount;
+
+    // The turn being recorded
+    private int step;
+    private int perceived;
+    private int perceivedMask;
+
+    // When the buffer was last written out
+    private long lastFlush;
+
+    private ReplayLog(FileChannel channel, Model model) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        this.cave = model.getCave();
+        this.players = model.getPlayers();
+        this.caveSide = cave.getCaveSide();
+        this.playerCount = players.size();
+    }
+
+    /**
+     * Creates a log, replacing the file if it exists, and records the current state of the model.
+     *
+     * @param path  The file to write.
+     * @param model The model whose exploration is recorded, with its players already added.
+     * @return The open log.
+     * @throws IOException If the file cannot be written.
+     */
+    public static ReplayLog open(Path path, Model model) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        try {
+            ReplayLog log = new ReplayLog(channel, model);
+            log.writeHeader();
+            log.flush();
+            return log;
+        } catch (UncheckedIOException e) {
+            channel.close();
+            throw e.getCause();
+        } catch (RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Notes the state of a player before its turn. Called by the model right before the player explores.
+     *
+     * @param player The player about to explore.
+     */
+    void beginTurn(Player player) {
+        perceived = cave.toLinearIndex(player.getRow(), player.getColumn());
+        perceivedMask = maskOf(cave.getPerceptions(perceived));
+    }
+
+    /**
+     * Records the turn of a player. Called by the model right after the player explored.
+     *
+     * @param index  The position of the player in the model.
+     * @param player The player that explored.
+     */
+    void endTurn(int index, Player player) {
+        if (index >= playerCount || players.get(index) != player) {
+            throw new IllegalStateException("The players changed while recording a replay");
+        }
+
+        int flags = (player.isTreasureFound() ? TREASURE_FOUND : 0)
+                | (player.hasLeftCave() ? LEFT_CAVE : 0)
+                | (player.isDead() ? DEAD : 0);
+        Directions direction = player.getLastDirection();
+
+        ensureRemaining(TURN_BYTES);
+        buffer.putInt(step)
+                .putInt(index)
+                .put((byte) player.getLastAction().ordinal())
+                .put((byte) (direction == null ? -1 : direction.ordinal()))
+                .putInt(perceived)
+                .put((byte) perceivedMask)
+                .putInt(cave.toLinearIndex(player.getRow(), player.getColumn()))
+                .put((byte) flags)
+                .putInt(player.getArrowsUsed());
+        writeDelta(cave);
+        writeDelta(player.getMap());
+    }
+
+    /**
+     * Ends the current step, writing the buffered records out if enough of them have gathered or
+     * enough time has passed. Called by the model after every player has explored.
+     *
+     * @throws UncheckedIOException If the file cannot be written.
+     */
+    void endStep() {
+        step++;
+        if (buffer.position() >= FLUSH_BYTES || System.nanoTime() - lastFlush >= FLUSH_INTERVAL_NANOS) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes the buffered records to the file.
+     *
+     * @throws UncheckedIOException If the file cannot be written.
+     */
+    public void flush() {
+        lastFlush = System.nanoTime();
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Writes the buffered records, closes the file and stops recording changes in the cave and the maps.
+     *
+     * @throws IOException If the file cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            channel.close();
+            cave.setJournaling(false);
+            for (Player player : players) {
+                player.getMap().setJournaling(false);
+            }
+        }
+    }
+
+    // ----------------------
+    // HELPER METHODS - WRITE
+    // ----------------------
+
+    private void writeHeader() {
+        buffer.putInt(MAGIC)
+                .putInt(VERSION)
+                .putInt(caveSide)
+                .putInt(cave.getAmountOfMonsters())
+                .putInt(cave.getAmountOfTreasures())
+                .putInt(cave.getAmountOfPlayers())
+                .putInt(playerCount);
+        for (Player player : players) {
+            ensureRemaining(8);
+            buffer.putInt(player.getStartingRow()).putInt(player.getStartingColumn());
+        }
+
+        // Journals start with every square changed, so the first deltas are the initial frames
+        startJournal(cave);
+        writeFrame(cave);
+        for (Player player : players) {
+            startJournal(player.getMap());
+            writeFrame(player.getMap());
+        }
+    }
+
+    private void startJournal(CaveModel grid) {
+        grid.setJournaling(true);
+        grid.getJournal().clear();
+    }
+
+    /**
+     * Writes the squares of a grid changed since the last turn, and drains its journal.
+     */
+    private void writeDelta(CaveModel grid) {
+        if (grid.getCaveSide() != caveSide) {
+            throw new IllegalStateException("The cave was resized while recording a replay");
+        }
+        ChangeLog journal = grid.getJournal();
+        if (journal == null || journal.isAllChanged()) {
+            // A new map, or a grid cleared during the turn
+            ensureRemaining(4);
+            buffer.putInt(FULL_FRAME);
+            startJournal(grid);
+            writeFrame(grid);
+            return;
+        }
+
+        int count = journal.size();
+        ensureRemaining(4);
+        buffer.putInt(count);
+        for (int i = 0; i < count; i++) {
+            int index = journal.get(i);
+            ensureRemaining(4 + STATE_BYTES);
+            buffer.putInt(index);
+            putState(grid, index);
+        }
+        journal.clear();
+    }
+
+    private void writeFrame(CaveModel grid) {
+        int squareCount = grid.getSquareCount();
+        for (int index = 0; index < squareCount; index++) {
+            ensureRemaining(STATE_BYTES);
+            putState(grid, index);
+        }
+    }
+
+    private void putState(CaveModel grid, int index) {
+        SquareStatus status = grid.getStatus(index);
+        int flags = (grid.isVisited(index) ? VISITED : 0) | (grid.hasTreasure(index) ? HAS_TREASURE : 0);
+        buffer.put((byte) (status == null ? -1 : status.ordinal()))
+                .put((byte) maskOf(grid.getPerceptions(index)))
+                .put((byte) flags);
+    }
+
+    private static int maskOf(Perceptions perceptions) {
+        return perceptions == null ? -1 : perceptions.getMask();
+    }
+
+    /**
+     * Makes room for the given number of bytes, writing the buffer out first if needed.
+     */
+    private void ensureRemaining(int bytes) {
+        if (buffer.remaining() < bytes) {
+            flush();
+            if (buffer.capacity() < bytes) {
+                buffer = ByteBuffer.allocateDirect(bytes);
+            }
+        }
+    }
+}
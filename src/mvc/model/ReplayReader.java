@@ -0,0 +1,418 @@
+package mvc.model;
+
+import mvc.model.cave.Cave;
+import mvc.model.cave.CaveModel;
+import mvc.model.cave.CaveSnapshot;
+import mvc.model.cave.Map;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static mvc.model.Global.*;
+
+/**
+ * Reconstructs a recorded exploration from a {@link ReplayLog}, without running the players.
+ *
+ * <p>Opening a log maps it read-only and walks the turns once to locate them. The reader then
+ * holds a {@link Cave} and one {@link Map} per player, starting at the recorded initial state, and
+ * {@link #seek(int) seeking} to a step applies the recorded changes of every turn up to it. Going
+ * forwards only applies the turns in between; going backwards starts over from the initial state.
+ * A log cut short while it was written is read up to its last complete turn.</p>
+ *
+ * <h2>Usage</h2>
+ * <pre>{@code
+ * ReplayReader replay = ReplayReader.open(path);
+ * CaveSnapshot snapshot = replay.snapshot(null);
+ * while (replay.nextStep()) {
+ *     snapshot = replay.snapshot(snapshot);
+ *     caveView.updateCave(snapshot);
+ * }
+ * }</pre>
+ *
+ * <p>A reader is not thread-safe. The mapping stays valid until the reader is garbage collected;
+ * no file handle is kept open.</p>
+ *
+ * @author Sergio Vega García
+ */
+public final class ReplayReader {
+
+    /**
+     * Cached enum values, indexed by ordinal.
+     */
+    private static final SquareStatus[] STATUSES = SquareStatus.values();
+    private static final ActionType[] ACTIONS = ActionType.values();
+    private static final Directions[] DIRECTIONS = Directions.values();
+
+    private final ByteBuffer buffer;
+    private final int caveSide;
+    private final int squareCount;
+    private final int playerCount;
+
+    /**
+     * The offsets of the initial frames of the cave and of each map.
+     */
+    private final int caveFrame;
+    private final int[] mapFrames;
+
+    /**
+     * The offset of every turn, and the first turn of every step, with one extra entry for the end.
+     */
+    private final int[] turnOffsets;
+    private final int[] stepFirstTurns;
+
+    // The reconstructed state
+    private final Cave cave;
+    private final Map[] maps;
+    private int step;
+    private int nextTurn;
+
+    private ReplayReader(ByteBuffer buffer, int[] turnOffsets, int[] stepFirstTurns) {
+        this.buffer = buffer;
+        this.turnOffsets = turnOffsets;
+        this.stepFirstTurns = stepFirstTurns;
+        caveSide = buffer.getInt(8);
+        squareCount = caveSide * caveSide;
+        playerCount = buffer.getInt(24);
+
+        caveFrame = ReplayLog.HEADER_BYTES + 8 * playerCount;
+        mapFrames = new int[playerCount];
+        for (int player = 0; player < playerCount; player++) {
+            mapFrames[player] = caveFrame + (player + 1) * squareCount * ReplayLog.STATE_BYTES;
+        }
+
+        cave = new Cave(caveSide);
+        cave.adjustAmountOfMonsters(buffer.getInt(12));
+        cave.adjustAmountOfTreasures(buffer.getInt(16));
+        cave.adjustAmountOfPlayers(buffer.getInt(20));
+        maps = new Map[playerCount];
+        for (int player = 0; player < playerCount; player++) {
+            maps[player] = new Map(caveSide);
+        }
+        restart();
+    }
+
+    /**
+     * Maps a replay log and locates its turns.
+     *
+     * @param path The file to open.
+     * @return The reader, at the initial state of the exploration.
+     * @throws IOException If the file cannot be read, is not a replay log, has an unsupported
+     *                     version, is corrupt or is larger than 2 GiB.
+     */
+    public static ReplayReader open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < ReplayLog.HEADER_BYTES) {
+                throw new IOException("Not a replay log: " + path);
+            }
+            if (fileSize > Integer.MAX_VALUE) {
+                throw new IOException("Replay log too large to map: " + path);
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            int size = (int) fileSize;
+
+            if (buffer.getInt(0) != ReplayLog.MAGIC) {
+                throw new IOException("Not a replay log: " + path);
+            }
+            int version = buffer.getInt(4);
+            if (version != ReplayLog.VERSION) {
+                throw new IOException("Unsupported replay log version " + version + ": " + path);
+            }
+            int side = buffer.getInt(8);
+            int players = buffer.getInt(24);
+            if (side < Cave_Constants.MIN_SIDE || side > Cave_Constants.MAX_SIDE || players < 0) {
+                throw new IOException("Corrupt replay log: " + path);
+            }
+            long frameBytes = (long) side * side * ReplayLog.STATE_BYTES;
+            long position = ReplayLog.HEADER_BYTES + 8L * players + (players + 1) * frameBytes;
+            if (position > size) {
+                throw new IOException("Truncated replay log: " + path);
+            }
+
+            // Walk the complete turns, ignoring a partial one at the end
+            int[] turnOffsets = new int[1024];
+            int turnCount = 0;
+            int lastStep = -1;
+            while (position + ReplayLog.TURN_BYTES <= size) {
+                int offset = (int) position;
+                int turnStep = buffer.getInt(offset);
+                int player = buffer.getInt(offset + 4);
+                if (turnStep < lastStep || player < 0 || player >= players) {
+                    throw new IOException("Corrupt replay log, turn " + turnCount + ": " + path);
+                }
+
+                long end = skipDelta(buffer, size, offset + ReplayLog.TURN_BYTES, frameBytes);
+                if (end >= 0) end = skipDelta(buffer, size, end, frameBytes);
+                if (end < 0) break;
+
+                if (turnCount == turnOffsets.length) {
+                    turnOffsets = Arrays.copyOf(turnOffsets, turnCount * 2);
+                }
+                turnOffsets[turnCount++] = offset;
+                lastStep = turnStep;
+                position = end;
+            }
+
+            int[] stepFirstTurns = new int[lastStep + 2];
+            int turn = 0;
+            for (int s = 0; s <= lastStep + 1; s++) {
+                while (turn < turnCount && buffer.getInt(turnOffsets[turn]) < s) turn++;
+                stepFirstTurns[s] = turn;
+            }
+            return new ReplayReader(buffer, Arrays.copyOf(turnOffsets, turnCount), stepFirstTurns);
+        }
+    }
+
+    /**
+     * Returns the end of the delta at the given offset.
+     *
+     * @return The offset after the delta, or {@code -1} if it does not fit in the file.
+     */
+    private static long skipDelta(ByteBuffer buffer, int size, long offset, long frameBytes) throws IOException {
+        if (offset + 4 > size) return -1;
+        int count = buffer.getInt((int) offset);
+        long length;
+        if (count == ReplayLog.FULL_FRAME) {
+            length = frameBytes;
+        } else if (count >= 0) {
+            length = (long) count * (4 + ReplayLog.STATE_BYTES);
+        } else {
+            throw new IOException("Corrupt replay log, delta of " + count + " squares");
+        }
+        long end = offset + 4 + length;
+        return end > size ? -1 : end;
+    }
+
+    // ----------
+    // NAVIGATION
+    // ----------
+
+    /**
+     * Returns the number of recorded steps. The states after step {@code 0} to this number can be reconstructed.
+     *
+     * @return The number of steps.
+     */
+    public int getStepCount() {
+        return stepFirstTurns.length - 1;
+    }
+
+    /**
+     * Returns the number of steps applied to the reconstructed state.
+     *
+     * @return The current step, {@code 0} for the initial state.
+     */
+    public int getStep() {
+        return step;
+    }
+
+    /**
+     * Reconstructs the state after the given number of steps.
+     *
+     * @param target The number of steps, from {@code 0} for the initial state to {@link #getStepCount()}.
+     * @throws IndexOutOfBoundsException If there is no such step.
+     */
+    public void seek(int target) {
+        if (target < 0 || target > getStepCount()) {
+            throw new IndexOutOfBoundsException("Step " + target + " out of 0.." + getStepCount());
+        }
+        if (target < step) restart();
+
+        int end = stepFirstTurns[target];
+        while (nextTurn < end) {
+            applyTurn(turnOffsets[nextTurn++]);
+        }
+        step = target;
+    }
+
+    /**
+     * Applies the next step, if any.
+     *
+     * @return {@code true} if a step was applied; {@code false} at the end of the log.
+     */
+    public boolean nextStep() {
+        if (step == getStepCount()) return false;
+        seek(step + 1);
+        return true;
+    }
+
+    // -----
+    // STATE
+    // -----
+
+    /**
+     * Returns the side length of the recorded cave.
+     *
+     * @return The side length.
+     */
+    public int getCaveSide() {
+        return caveSide;
+    }
+
+    /**
+     * Returns the number of recorded players.
+     *
+     * @return The number of players.
+     */
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    /**
+     * Returns the reconstructed cave at the current step. The same instance is updated by every seek.
+     *
+     * @return The cave.
+     */
+    public Cave getCave() {
+        return cave;
+    }
+
+    /**
+     * Returns the reconstructed map of a player at the current step. The same instance is updated by every seek.
+     *
+     * @param player The position of the player in the model.
+     * @return The player's map.
+     */
+    public Map getMap(int player) {
+        return maps[player];
+    }
+
+    /**
+     * Returns the row where a player started.
+     *
+     * @param player The position of the player in the model.
+     * @return The starting row.
+     */
+    public int getStartingRow(int player) {
+        return buffer.getInt(ReplayLog.HEADER_BYTES + 8 * player);
+    }
+
+    /**
+     * Returns the column where a player started.
+     *
+     * @param player The position of the player in the model.
+     * @return The starting column.
+     */
+    public int getStartingColumn(int player) {
+        return buffer.getInt(ReplayLog.HEADER_BYTES + 8 * player + 4);
+    }
+
+    /**
+     * Takes a snapshot of the reconstructed cave to show in the view.
+     *
+     * @param previous The last snapshot taken from this reader, or {@code null}.
+     * @return The new snapshot.
+     * @see Cave#snapshot(CaveSnapshot)
+     */
+    public CaveSnapshot snapshot(CaveSnapshot previous) {
+        return cave.snapshot(previous);
+    }
+
+    // -----
+    // TURNS
+    // -----
+
+    /**
+     * Returns the number of recorded turns, over all steps and players.
+     *
+     * @return The number of turns.
+     */
+    public int getTurnCount() {
+        return turnOffsets.length;
+    }
+
+    /**
+     * Returns the first turn of a step. The turns of the step run up to the first turn of the next one.
+     *
+     * @param step The step, from {@code 0} to {@link #getStepCount()}.
+     * @return The position of its first turn, or {@link #getTurnCount()} for the end of the log.
+     */
+    public int getFirstTurn(int step) {
+        return stepFirstTurns[step];
+    }
+
+    /**
+     * Decodes a recorded turn.
+     *
+     * @param turn The position of the turn, from {@code 0} to {@link #getTurnCount()} exclusive.
+     * @return The turn.
+     */
+    public ReplayTurn getTurn(int turn) {
+        int offset = turnOffsets[turn];
+        int direction = buffer.get(offset + 9);
+        int perceptions = buffer.get(offset + 14);
+        int flags = buffer.get(offset + 19);
+        return new ReplayTurn(
+                buffer.getInt(offset),
+                buffer.getInt(offset + 4),
+                ACTIONS[buffer.get(offset + 8)],
+                direction < 0 ? null : DIRECTIONS[direction],
+                buffer.getInt(offset + 10),
+                perceptions < 0 ? null : Perceptions.of(perceptions),
+                buffer.getInt(offset + 15),
+                (flags & ReplayLog.TREASURE_FOUND) != 0,
+                (flags & ReplayLog.LEFT_CAVE) != 0,
+                (flags & ReplayLog.DEAD) != 0,
+                buffer.getInt(offset + 20));
+    }
+
+    // ----------------------
+    // HELPER METHODS - APPLY
+    // ----------------------
+
+    /**
+     * Goes back to the initial state.
+     */
+    private void restart() {
+        applyFrame(cave, caveFrame);
+        for (int player = 0; player < playerCount; player++) {
+            applyFrame(maps[player], mapFrames[player]);
+        }
+        step = 0;
+        nextTurn = 0;
+    }
+
+    private void applyTurn(int offset) {
+        int player = buffer.getInt(offset + 4);
+        int end = applyDelta(cave, offset + ReplayLog.TURN_BYTES);
+        applyDelta(maps[player], end);
+    }
+
+    /**
+     * Applies the delta at the given offset to a grid.
+     *
+     * @return The offset after the delta.
+     */
+    private int applyDelta(CaveModel grid, int offset) {
+        int count = buffer.getInt(offset);
+        offset += 4;
+        if (count == ReplayLog.FULL_FRAME) {
+            applyFrame(grid, offset);
+            return offset + squareCount * ReplayLog.STATE_BYTES;
+        }
+        for (int i = 0; i < count; i++) {
+            applyState(grid, buffer.getInt(offset), offset + 4);
+            offset += 4 + ReplayLog.STATE_BYTES;
+        }
+        return offset;
+    }
+
+    private void applyFrame(CaveModel grid, int offset) {
+        for (int index = 0; index < squareCount; index++) {
+            applyState(grid, index, offset + index * ReplayLog.STATE_BYTES);
+        }
+    }
+
+    private void applyState(CaveModel grid, int index, int offset) {
+        int status = buffer.get(offset);
+        int perceptions = buffer.get(offset + 1);
+        int flags = buffer.get(offset + 2);
+        grid.setStatus(index, status < 0 ? null : STATUSES[status]);
+        grid.setPerceptions(index, perceptions < 0 ? null : Perceptions.of(perceptions));
+        grid.setVisited(index, (flags & ReplayLog.VISITED) != 0);
+        grid.setHasTreasure(index, (flags & ReplayLog.HAS_TREASURE) != 0);
+    }
+}
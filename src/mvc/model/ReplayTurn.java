@@ -0,0 +1,33 @@
+package mvc.model;
+
+import static mvc.model.Global.ActionType;
+import static mvc.model.Global.Directions;
+
+/**
+ * The turn of one player in one step of a recorded exploration, as read from a {@link ReplayLog}.
+ *
+ * @param step          the step the turn belongs to, from {@code 0}
+ * @param player        the position of the player in the model
+ * @param action        the action the player took
+ * @param direction     the direction of the arrow shot, or {@code null} if the action was not {@link ActionType#SHOOT}
+ * @param perceived     the linear index of the square where the player perceived, at the start of the turn
+ * @param perceptions   the perceptions of that square, or {@code null} if the cave had none for it
+ * @param square        the linear index of the square where the player ended the turn
+ * @param treasureFound whether the player has the treasure after the turn
+ * @param leftCave      whether the player has left the cave after the turn
+ * @param dead          whether the player is dead after the turn
+ * @param arrowsUsed    the number of arrows the player has shot so far
+ */
+public record ReplayTurn(int step, int player, ActionType action, Directions direction,
+                         int perceived, Perceptions perceptions, int square,
+                         boolean treasureFound, boolean leftCave, boolean dead, int arrowsUsed) {
+
+    /**
+     * Checks whether the player will take no further actions after this turn.
+     *
+     * @return {@code true} if the player left the cave with the treasure or is dead
+     */
+    public boolean hasFinished() {
+        return (treasureFound && leftCave) || dead;
+    }
+}
@@ -0,0 +1,129 @@
+package mvc.model;
+
+import mvc.model.cave.Cave;
+import mvc.model.cave.Square;
+
+import static mvc.model.Global.SquareStatus;
+
+/**
+ * Runs cave explorations to completion without a controller or a view.
+ *
+ * <p>The engine drives {@link Model#exploreCave()} in a tight loop, with no delay between steps
+ * and no rendering, until every player has finished or a step limit is reached. It is meant for
+ * evaluating agent behavior over many episodes rather than watching a single one.</p>
+ *
+ * <p>Usage:</p>
+ * <pre>{@code
+ * SimulationResult result = new SimulationEngine().run(cave, new int[]{row, column});
+ * }</pre>
+ */
+public class SimulationEngine {
+
+    /**
+     * The default maximum number of steps per run, per square of the cave.
+     */
+    public static final int DEFAULT_STEPS_PER_SQUARE = 16;
+
+    /**
+     * The maximum number of steps per run, or {@code 0} to derive it from the cave size.
+     */
+    private final int maxSteps;
+
+    /**
+     * Constructs an engine whose step limit is {@link #DEFAULT_STEPS_PER_SQUARE} times
+     * the number of squares of each cave.
+     */
+    public SimulationEngine() {
+        this(0);
+    }
+
+    /**
+     * Constructs an engine with a fixed step limit.
+     *
+     * @param maxSteps the maximum number of steps per run, or {@code 0} to derive it from the cave size
+     */
+    public SimulationEngine(int maxSteps) {
+        this.maxSteps = maxSteps;
+    }
+
+    /**
+     * Places players in a cave and explores it until every player has finished.
+     *
+     * <p>The cave must already hold its monsters, holes and treasures, with item counts matching
+     * its squares, since each player gets one arrow per monster. Squares at the player positions
+     * are marked as {@link SquareStatus#PLAYER} if they are not already. The cave is modified
+     * by the run.</p>
+     *
+     * @param cave            the cave to explore
+     * @param playerPositions the {@code {row, column}} starting position of each player
+     * @return the result of the run
+     */
+    public SimulationResult run(Cave cave, int[]... playerPositions) {
+        Model model = new Model(cave);
+        for (int[] position : playerPositions) {
+            placePlayer(model, position[0], position[1]);
+        }
+        return run(model);
+    }
+
+    /**
+     * Explores the cave of a model whose players are already placed.
+     *
+     * @param model the model to run
+     * @return the result of the run
+     */
+    public SimulationResult run(Model model) {
+        Cave cave = model.getCave();
+        int stepLimit = maxSteps > 0 ? maxSteps : DEFAULT_STEPS_PER_SQUARE * cave.getSquareCount();
+
+        cave.updateAllPerceptions();
+        model.setStarted(true);
+
+        int steps = 0;
+        while (!model.isCaveExplored() && steps < stepLimit) {
+            model.exploreCave();
+            steps++;
+        }
+
+        model.setStarted(false);
+        return summarize(model, steps);
+    }
+
+    /**
+     * Marks a player's starting square in the cave and adds the player to the model.
+     */
+    private void placePlayer(Model model, int row, int column) {
+        Square square = model.getCave().getSquare(row, column);
+        if (square.getStatus() != SquareStatus.PLAYER) {
+            square.setStatus(SquareStatus.PLAYER);
+            model.getCave().adjustAmountOfPlayers(1);
+        }
+        model.addPlayer(row, column);
+    }
+
+    /**
+     * Builds the result of a finished run from the state of its players.
+     */
+    private SimulationResult summarize(Model model, int steps) {
+        int arrowsUsed = 0;
+        int treasuresCollected = 0;
+        boolean death = false;
+
+        for (Player player : model.getPlayers()) {
+            arrowsUsed += player.getArrowsUsed();
+            if (player.isTreasureFound()) treasuresCollected++;
+            if (player.isDead()) death = true;
+        }
+
+        SimulationResult.Outcome outcome;
+        if (death) {
+            outcome = SimulationResult.Outcome.DEATH;
+        } else if (model.isCaveExplored()) {
+            outcome = SimulationResult.Outcome.SUCCESS;
+        } else {
+            outcome = SimulationResult.Outcome.STEP_LIMIT;
+        }
+
+        return new SimulationResult(steps, arrowsUsed, treasuresCollected, outcome);
+    }
+}
@@ -0,0 +1,41 @@
+package mvc.model;
+
+/**
+ * The outcome of a headless exploration run by {@link SimulationEngine}.
+ *
+ * @param steps              the number of exploration steps performed
+ * @param arrowsUsed         the number of arrows shot by all players
+ * @param treasuresCollected the number of players that collected the treasure
+ * @param outcome            how the run ended
+ */
+public record SimulationResult(int steps, int arrowsUsed, int treasuresCollected, Outcome outcome) {
+
+    /**
+     * The possible ways an exploration run can end.
+     */
+    public enum Outcome {
+        /**
+         * Every player collected the treasure and left the cave.
+         */
+        SUCCESS,
+
+        /**
+         * At least one player walked into a monster or a hole.
+         */
+        DEATH,
+
+        /**
+         * The step limit was reached before every player finished.
+         */
+        STEP_LIMIT
+    }
+
+    /**
+     * Checks whether the run ended with every player out of the cave with the treasure.
+     *
+     * @return {@code true} if the outcome is {@link Outcome#SUCCESS}
+     */
+    public boolean isSuccess() {
+        return outcome == Outcome.SUCCESS;
+    }
+}
@@ -0,0 +1,277 @@
+package mvc.model.cave;
+
+import java.util.Arrays;
+
+/**
+ * A packed set of bits, one per square of a square grid, stored row-major in a {@code long[]}.
+ *
+ * <p>Square {@code (row, column)} maps to bit {@code row * side + column}, the same linear index
+ * used by {@link CaveModel#toLinearIndex(int, int)}. Besides single-bit access, a plane can be
+ * shifted one square in any direction, which lets neighbor computations run 64 squares at a time.</p>
+ *
+ * @author Sergio Vega García
+ */
+public class BitPlane {
+
+    /**
+     * The side length of the grid covered by this plane.
+     */
+    private final int side;
+
+    /**
+     * The number of squares covered by this plane.
+     */
+    private final int size;
+
+    /**
+     * The packed bits, 64 squares per word.
+     */
+    private final long[] words;
+
+    /**
+     * Constructs an empty {@code BitPlane} for a grid with the given side length.
+     *
+     * @param side The side length of the grid.
+     */
+    public BitPlane(int side) {
+        this.side = side;
+        this.size = side * side;
+        this.words = new long[(size + 63) >>> 6];
+    }
+
+    /**
+     * Returns the side length of the grid covered by this plane.
+     *
+     * @return The side length.
+     */
+    public int getSide() {
+        return side;
+    }
+
+    /**
+     * Checks whether the bit at the given linear index is set.
+     *
+     * @param index The linear index of the square.
+     * @return {@code true} if the bit is set; {@code false} otherwise.
+     */
+    public boolean get(int index) {
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Sets or clears the bit at the given linear index.
+     *
+     * @param index The linear index of the square.
+     * @param value {@code true} to set the bit, {@code false} to clear it.
+     */
+    public void set(int index, boolean value) {
+        if (value) {
+            words[index >>> 6] |= 1L << index;
+        } else {
+            words[index >>> 6] &= ~(1L << index);
+        }
+    }
+
+    /**
+     * Clears every bit of this plane.
+     */
+    public void clear() {
+        Arrays.fill(words, 0L);
+    }
+
+    /**
+     * Sets every bit of this plane.
+     */
+    public void fill() {
+        Arrays.fill(words, -1L);
+        trim();
+    }
+
+    /**
+     * Returns the number of set bits.
+     *
+     * @return The number of squares set in this plane.
+     */
+    public int cardinality() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Checks whether no bit is set.
+     *
+     * @return {@code true} if this plane is empty; {@code false} otherwise.
+     */
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the first set bit at or after the given index.
+     *
+     * @param from The linear index to start from.
+     * @return The linear index of the set bit, or {@code -1} if there is none.
+     */
+    public int nextSetBit(int from) {
+        return nextSetBit(from, size);
+    }
+
+    /**
+     * Returns the first set bit in a range, looking no further than its end.
+     *
+     * @param from        The linear index to start from.
+     * @param toExclusive The linear index past the end of the range, at most the number of squares.
+     * @return The linear index of the set bit, or {@code -1} if the range has none.
+     */
+    public int nextSetBit(int from, int toExclusive) {
+        if (from >= toExclusive) return -1;
+        int i = from >>> 6;
+        int last = (toExclusive - 1) >>> 6;
+        long word = words[i] & (-1L << from);
+        while (word == 0) {
+            if (++i > last) return -1;
+            word = words[i];
+        }
+        int bit = (i << 6) + Long.numberOfTrailingZeros(word);
+        return bit < toExclusive ? bit : -1;
+    }
+
+    /**
+     * Returns the last set bit at or before the given index.
+     *
+     * @param from The linear index to start from.
+     * @return The linear index of the set bit, or {@code -1} if there is none.
+     */
+    public int previousSetBit(int from) {
+        return previousSetBit(from, 0);
+    }
+
+    /**
+     * Returns the last set bit in a range, looking no further back than its start.
+     *
+     * @param from       The linear index to start from.
+     * @param lowerBound The first linear index of the range, at least {@code 0}.
+     * @return The linear index of the set bit, or {@code -1} if the range has none.
+     */
+    public int previousSetBit(int from, int lowerBound) {
+        if (from < lowerBound) return -1;
+        int i = from >>> 6;
+        int first = lowerBound >>> 6;
+        long word = words[i] & (-1L >>> (63 - (from & 63)));
+        while (word == 0) {
+            if (--i < first) return -1;
+            word = words[i];
+        }
+        int bit = (i << 6) + 63 - Long.numberOfLeadingZeros(word);
+        return bit >= lowerBound ? bit : -1;
+    }
+
+    /**
+     * Copies the bits of another plane of the same side into this one.
+     *
+     * @param other The plane to copy.
+     */
+    public void copyFrom(BitPlane other) {
+        System.arraycopy(other.words, 0, words, 0, words.length);
+    }
+
+    /**
+     * Sets every bit that is set in the other plane.
+     *
+     * @param other A plane of the same side.
+     */
+    public void or(BitPlane other) {
+        for (int i = 0; i < words.length; i++) {
+            words[i] |= other.words[i];
+        }
+    }
+
+    /**
+     * Clears every bit that is not set in the other plane.
+     *
+     * @param other A plane of the same side.
+     */
+    public void and(BitPlane other) {
+        for (int i = 0; i < words.length; i++) {
+            words[i] &= other.words[i];
+        }
+    }
+
+    /**
+     * Clears every bit that is set in the other plane.
+     *
+     * @param other A plane of the same side.
+     */
+    public void andNot(BitPlane other) {
+        for (int i = 0; i < words.length; i++) {
+            words[i] &= ~other.words[i];
+        }
+    }
+
+    /**
+     * Sets in this plane every square whose neighbor in any of the four directions is set in the source.
+     *
+     * <p>North and south neighbors are a whole-row shift of the source; east and west neighbors are
+     * a one-bit shift masked so that bits do not wrap between rows.</p>
+     *
+     * @param source      The plane whose neighbors are looked up. Must not be this plane.
+     * @param firstColumn A plane with only the first column set.
+     * @param lastColumn  A plane with only the last column set.
+     */
+    public void orNeighborsOf(BitPlane source, BitPlane firstColumn, BitPlane lastColumn) {
+        long[] src = source.words;
+        long[] first = firstColumn.words;
+        long[] last = lastColumn.words;
+        int rowShiftWords = side >>> 6;
+        int rowShiftBits = side & 63;
+
+        for (int i = 0; i < words.length; i++) {
+            long north = shiftedLeft(src, i, rowShiftWords, rowShiftBits);
+            long south = shiftedRight(src, i, rowShiftWords, rowShiftBits);
+            long west = shiftedLeft(src, i, 0, 1) & ~first[i];
+            long east = shiftedRight(src, i, 0, 1) & ~last[i];
+            words[i] |= north | south | west | east;
+        }
+        trim();
+    }
+
+    /**
+     * Returns word {@code i} of the bit sequence shifted towards higher indices.
+     */
+    private static long shiftedLeft(long[] src, int i, int wordShift, int bitShift) {
+        int j = i - wordShift;
+        if (j < 0) return 0L;
+        long high = src[j] << bitShift;
+        long low = (bitShift != 0 && j > 0) ? src[j - 1] >>> (64 - bitShift) : 0L;
+        return high | low;
+    }
+
+    /**
+     * Returns word {@code i} of the bit sequence shifted towards lower indices.
+     */
+    private static long shiftedRight(long[] src, int i, int wordShift, int bitShift) {
+        int j = i + wordShift;
+        if (j >= src.length) return 0L;
+        long low = src[j] >>> bitShift;
+        long high = (bitShift != 0 && j + 1 < src.length) ? src[j + 1] << (64 - bitShift) : 0L;
+        return high | low;
+    }
+
+    /**
+     * Clears the unused bits past the last square.
+     */
+    private void trim() {
+        int used = size & 63;
+        if (used != 0) {
+            words[words.length - 1] &= (1L << used) - 1;
+        }
+    }
+}
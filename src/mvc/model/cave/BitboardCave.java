@@ -0,0 +1,320 @@
+package mvc.model.cave;
+
+import mvc.model.Global.PerceptionType;
+import mvc.model.Global.SquareStatus;
+import mvc.model.Perceptions;
+
+import static mvc.model.Global.mapStatusToPerception;
+
+/**
+ * A bitboard-backed representation of a cave grid, alternative to the {@link Square} objects
+ * held by {@link CaveModel}.
+ *
+ * <p>Every square status, every perception type, the visited flag and the treasure flag is a
+ * separate {@link BitPlane}. A square costs a handful of bits instead of several heap objects,
+ * and perceptions are computed for the whole grid at once by shifting and masking the status
+ * planes rather than by visiting the neighbors of each square.</p>
+ *
+ * <h2>Usage</h2>
+ * <p>Build one from an existing {@link CaveModel} with {@link #BitboardCave(CaveModel)}, or fill
+ * an empty one through {@link #setStatus(int, int, SquareStatus)}, then call
+ * {@link #updateAllPerceptions()}.</p>
+ *
+ * @author Sergio Vega García
+ */
+public class BitboardCave {
+
+    /**
+     * The side length of the cave grid.
+     */
+    private final int caveSide;
+
+    /**
+     * One plane per {@link SquareStatus}, indexed by ordinal. Exactly one plane has each square set.
+     */
+    private final BitPlane[] statusPlanes;
+
+    /**
+     * One plane per {@link PerceptionType}, indexed by ordinal.
+     */
+    private final BitPlane[] perceptionPlanes;
+
+    /**
+     * The squares that have been visited.
+     */
+    private final BitPlane visited;
+
+    /**
+     * The squares that contain a treasure.
+     */
+    private final BitPlane treasures;
+
+    /**
+     * Masks for the first and last column, used to stop east and west shifts from wrapping rows.
+     */
+    private final BitPlane firstColumn;
+    private final BitPlane lastColumn;
+
+    /**
+     * Constructs a new {@code BitboardCave} where every square has the given status.
+     *
+     * @param caveSide      The side length of the cave grid.
+     * @param initialStatus The status of every square.
+     */
+    public BitboardCave(int caveSide, SquareStatus initialStatus) {
+        this.caveSide = caveSide;
+
+        statusPlanes = new BitPlane[SquareStatus.values().length];
+        for (int i = 0; i < statusPlanes.length; i++) {
+            statusPlanes[i] = new BitPlane(caveSide);
+        }
+        perceptionPlanes = new BitPlane[PerceptionType.values().length];
+        for (int i = 0; i < perceptionPlanes.length; i++) {
+            perceptionPlanes[i] = new BitPlane(caveSide);
+        }
+        visited = new BitPlane(caveSide);
+        treasures = new BitPlane(caveSide);
+
+        firstColumn = new BitPlane(caveSide);
+        lastColumn = new BitPlane(caveSide);
+        for (int row = 0; row < caveSide; row++) {
+            firstColumn.set(row * caveSide, true);
+            lastColumn.set(row * caveSide + caveSide - 1, true);
+        }
+
+        statusPlanes[initialStatus.ordinal()].fill();
+        if (initialStatus == SquareStatus.TREASURE) treasures.fill();
+    }
+
+    /**
+     * Constructs a new {@code BitboardCave} holding the same squares as the given cave model.
+     *
+     * @param caveModel The cave model to copy.
+     */
+    public BitboardCave(CaveModel caveModel) {
+        this(caveModel.getCaveSide(), SquareStatus.CLEAN);
+        statusPlanes[SquareStatus.CLEAN.ordinal()].clear();
+
+        for (int row = 0; row < caveSide; row++) {
+            for (int col = 0; col < caveSide; col++) {
+                Square square = caveModel.getSquare(row, col);
+                int index = toLinearIndex(row, col);
+
+                statusPlanes[square.getStatus().ordinal()].set(index, true);
+                visited.set(index, !square.notVisited());
+                treasures.set(index, square.hasTreasure());
+
+                Perceptions perceptions = square.getPerceptions();
+                if (perceptions != null) {
+                    for (PerceptionType perceptionType : PerceptionType.values()) {
+                        perceptionPlanes[perceptionType.ordinal()].set(index, perceptions.getPerception(perceptionType));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Converts 2D coordinates (row, column) into a linear index.
+     *
+     * @param row    The row index (0-based).
+     * @param column The column index (0-based).
+     * @return The linear index.
+     */
+    public int toLinearIndex(int row, int column) {
+        return row * caveSide + column;
+    }
+
+    /**
+     * Returns the side length of the cave grid.
+     *
+     * @return The side length.
+     */
+    public int getCaveSide() {
+        return caveSide;
+    }
+
+    /**
+     * Retrieves the status of the square at the specified position.
+     *
+     * @param row The row index (0-based).
+     * @param col The column index (0-based).
+     * @return The {@link SquareStatus} of the square.
+     */
+    public SquareStatus getStatus(int row, int col) {
+        int index = toLinearIndex(row, col);
+        for (SquareStatus status : SquareStatus.values()) {
+            if (statusPlanes[status.ordinal()].get(index)) {
+                return status;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Updates the status of the square at the specified position.
+     *
+     * <p>As with {@link Square#setStatus(SquareStatus)}, a {@link SquareStatus#TREASURE} status
+     * also marks the square as containing a treasure.</p>
+     *
+     * @param row    The row index (0-based).
+     * @param col    The column index (0-based).
+     * @param status The new {@link SquareStatus}.
+     */
+    public void setStatus(int row, int col, SquareStatus status) {
+        int index = toLinearIndex(row, col);
+        for (BitPlane plane : statusPlanes) {
+            plane.set(index, false);
+        }
+        statusPlanes[status.ordinal()].set(index, true);
+        if (status == SquareStatus.TREASURE) treasures.set(index, true);
+    }
+
+    /**
+     * Returns the plane of squares that currently have the given status.
+     *
+     * @param status The status.
+     * @return The live {@link BitPlane} for that status.
+     */
+    public BitPlane getStatusPlane(SquareStatus status) {
+        return statusPlanes[status.ordinal()];
+    }
+
+    /**
+     * Returns the plane of squares that currently have the given perception.
+     *
+     * @param perceptionType The perception type.
+     * @return The live {@link BitPlane} for that perception.
+     */
+    public BitPlane getPerceptionPlane(PerceptionType perceptionType) {
+        return perceptionPlanes[perceptionType.ordinal()];
+    }
+
+    /**
+     * Checks whether the square at the specified position has the given perception.
+     *
+     * @param row            The row index (0-based).
+     * @param col            The column index (0-based).
+     * @param perceptionType The perception type.
+     * @return {@code true} if the perception is active; {@code false} otherwise.
+     */
+    public boolean getPerception(int row, int col, PerceptionType perceptionType) {
+        return perceptionPlanes[perceptionType.ordinal()].get(toLinearIndex(row, col));
+    }
+
+    /**
+     * Returns the {@link Perceptions} of the square at the specified position.
+     *
+     * @param row The row index (0-based).
+     * @param col The column index (0-based).
+     * @return The perceptions of the square.
+     */
+    public Perceptions getPerceptions(int row, int col) {
+        int index = toLinearIndex(row, col);
+        int mask = 0;
+        for (int i = 0; i < perceptionPlanes.length; i++) {
+            if (perceptionPlanes[i].get(index)) {
+                mask |= 1 << i;
+            }
+        }
+        return Perceptions.of(mask);
+    }
+
+    /**
+     * Checks whether the square at the specified position has been visited.
+     *
+     * @param row The row index (0-based).
+     * @param col The column index (0-based).
+     * @return {@code true} if visited; {@code false} otherwise.
+     */
+    public boolean isVisited(int row, int col) {
+        return visited.get(toLinearIndex(row, col));
+    }
+
+    /**
+     * Marks the square at the specified position as visited or unvisited.
+     *
+     * @param row   The row index (0-based).
+     * @param col   The column index (0-based).
+     * @param value {@code true} to mark the square as visited.
+     */
+    public void setVisited(int row, int col, boolean value) {
+        visited.set(toLinearIndex(row, col), value);
+    }
+
+    /**
+     * Checks whether the square at the specified position contains a treasure.
+     *
+     * @param row The row index (0-based).
+     * @param col The column index (0-based).
+     * @return {@code true} if the square has a treasure; {@code false} otherwise.
+     */
+    public boolean hasTreasure(int row, int col) {
+        return treasures.get(toLinearIndex(row, col));
+    }
+
+    /**
+     * Sets whether the square at the specified position contains a treasure.
+     *
+     * @param row         The row index (0-based).
+     * @param col         The column index (0-based).
+     * @param hasTreasure {@code true} to mark the square as containing a treasure.
+     */
+    public void setHasTreasure(int row, int col, boolean hasTreasure) {
+        treasures.set(toLinearIndex(row, col), hasTreasure);
+    }
+
+    /**
+     * Counts the neighbors of a square that have the given status.
+     *
+     * @param row    The row index of the square.
+     * @param col    The column index of the square.
+     * @param status The status to look for.
+     * @return The number of neighbors, between 0 and 4, with that status.
+     */
+    public int countNeighbors(int row, int col, SquareStatus status) {
+        BitPlane plane = statusPlanes[status.ordinal()];
+        int index = toLinearIndex(row, col);
+        int count = 0;
+        if (row > 0 && plane.get(index - caveSide)) count++;
+        if (row < caveSide - 1 && plane.get(index + caveSide)) count++;
+        if (col > 0 && plane.get(index - 1)) count++;
+        if (col < caveSide - 1 && plane.get(index + 1)) count++;
+        return count;
+    }
+
+    /**
+     * Recomputes the perceptions of every square from the statuses of its neighbors.
+     *
+     * <p>Each perception plane becomes the union of the four one-square shifts of the status plane
+     * that produces it, so the whole grid is processed one 64-bit word at a time.</p>
+     */
+    public void updateAllPerceptions() {
+        for (BitPlane plane : perceptionPlanes) {
+            plane.clear();
+        }
+        for (SquareStatus status : SquareStatus.values()) {
+            PerceptionType perceptionType = mapStatusToPerception(status);
+            if (perceptionType != null) {
+                perceptionPlanes[perceptionType.ordinal()].orNeighborsOf(statusPlanes[status.ordinal()], firstColumn, lastColumn);
+            }
+        }
+    }
+
+    /**
+     * Writes the status, flags and perceptions of every square into the given cave model.
+     *
+     * @param caveModel A cave model with the same side length.
+     */
+    public void copyTo(CaveModel caveModel) {
+        for (int row = 0; row < caveSide; row++) {
+            for (int col = 0; col < caveSide; col++) {
+                Square square = caveModel.getSquare(row, col);
+                square.setStatus(getStatus(row, col));
+                square.setVisited(isVisited(row, col));
+                square.setHasTreasure(hasTreasure(row, col));
+                square.setPerceptions(getPerceptions(row, col));
+            }
+        }
+    }
+}
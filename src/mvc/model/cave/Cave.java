@@ -29,24 +29,24 @@ public class Cave extends CaveModel {
     /**
      * The number of monsters currently in the cave.
      */
-    private byte amountOfMonsters;
+    private int amountOfMonsters;
 
     /**
      * The number of treasures currently in the cave.
      */
-    private byte amountOfTreasures;
+    private int amountOfTreasures;
 
     /**
      * The number of players currently in the cave.
      */
-    private byte amountOfPlayers;
+    private int amountOfPlayers;
 
     /**
      * Constructs a new {@code Cave} with the specified side length.
      *
      * @param caveSide The side length of the cave grid.
      */
-    public Cave(byte caveSide) {
+    public Cave(int caveSide) {
         super(caveSide);
         initializeItemCounts();
     }
@@ -79,20 +79,42 @@ public class Cave extends CaveModel {
      *
      * @param caveSide The new side length of the cave grid.
      */
-    public void setCaveSide(byte caveSide) {
-        this.caveSide = caveSide;
-        squares = new Square[caveSide*caveSide];
+    public void setCaveSide(int caveSide) {
+        allocateSquares(caveSide);
+        clear();
+    }
 
-        initializeSquares();
+    /**
+     * Empties the cave without changing its side length.
+     *
+     * <p>Every square becomes {@code CLEAN} and item counts are reset, reusing the grid storage.</p>
+     */
+    @Override
+    public void clear() {
+        super.clear();
         initializeItemCounts();
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The item counts are copied too.</p>
+     */
+    @Override
+    public void copyFrom(CaveModel source) {
+        super.copyFrom(source);
+        Cave cave = (Cave) source;
+        amountOfMonsters = cave.amountOfMonsters;
+        amountOfTreasures = cave.amountOfTreasures;
+        amountOfPlayers = cave.amountOfPlayers;
+    }
+
     /**
      * Returns the number of monsters currently in the cave.
      *
      * @return The current count of monsters.
      */
-    public byte getAmountOfMonsters() {
+    public int getAmountOfMonsters() {
         return amountOfMonsters;
     }
 
@@ -102,7 +124,7 @@ public class Cave extends CaveModel {
      * @param delta The amount to add (positive) or remove (negative) from the monster count.
      */
     public void adjustAmountOfMonsters(int delta) {
-        this.amountOfMonsters += (byte) delta;
+        this.amountOfMonsters += delta;
     }
 
     /**
@@ -110,7 +132,7 @@ public class Cave extends CaveModel {
      *
      * @return The current count of treasures.
      */
-    public byte getAmountOfTreasures() {
+    public int getAmountOfTreasures() {
         return amountOfTreasures;
     }
 
@@ -120,7 +142,7 @@ public class Cave extends CaveModel {
      * @param delta The amount to add (positive) or remove (negative) from the treasure count.
      */
     public void adjustAmountOfTreasures(int delta) {
-        this.amountOfTreasures += (byte) delta;
+        this.amountOfTreasures += delta;
     }
 
     /**
@@ -138,7 +160,7 @@ public class Cave extends CaveModel {
      * @param delta The amount to add (positive) or remove (negative) from the player count.
      */
     public void adjustAmountOfPlayers(int delta) {
-        this.amountOfPlayers += (byte) delta;
+        this.amountOfPlayers += delta;
     }
 
     /**
@@ -149,21 +171,9 @@ public class Cave extends CaveModel {
      * simulation starts</p>
      */
     public void updateAllPerceptions() {
-        for (int position = 0; position < squares.length; position++) {
-            updatePerceptions((byte) (position / caveSide), (byte) (position % caveSide));
+        int squareCount = getSquareCount();
+        for (int index = 0; index < squareCount; index++) {
+            updatePerceptions(index);
         }
     }
-
-    /**
-     * Returns the array of all squares in the cave grid.
-     *
-     * <p>This array is a 1D representation of the 2D grid, with rows and columns
-     * flattened into a single dimension. Use {@link #getSquare(byte, byte)} to access
-     * specific squares by their 2D coordinates.</p>
-     *
-     * @return The array of {@link Square} objects in the cave.
-     */
-    public Square[] getSquares() {
-        return squares;
-    }
 }
@@ -0,0 +1,147 @@
+package mvc.model.cave;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static mvc.model.Global.SquareStatus;
+
+/**
+ * The binary file format for collections of caves, and its writer.
+ *
+ * <h2>Layout</h2>
+ * <p>All values are big-endian.</p>
+ * <pre>
+ * file    := header record*
+ * header  := magic:int32 ("CAVE")  version:int32  count:int32
+ * record  := side:int32  monsters:int32  treasures:int32  players:int32  statuses
+ * </pre>
+ * <p>{@code statuses} packs the {@link SquareStatus} ordinal of every square in row-major order
+ * into four bits, two squares per byte with the even square in the low nibble, and
+ * {@link #NO_STATUS} for a square without status. A record of side {@code n} therefore takes
+ * {@link #recordSize(int) 16 + ceil(n² / 2)} bytes, and can be read in place without parsing.</p>
+ *
+ * <p>Files are read with {@link MappedCaveFile}.</p>
+ *
+ * @author Sergio Vega García
+ */
+public final class CaveFile {
+
+    /**
+     * The first four bytes of every cave file, "CAVE" in ASCII.
+     */
+    public static final int MAGIC = 0x43415645;
+
+    /**
+     * The version of the format written by this class.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * The size of the file header in bytes.
+     */
+    public static final int HEADER_BYTES = 12;
+
+    /**
+     * The size of the fixed part of a record in bytes, before the packed statuses.
+     */
+    public static final int RECORD_HEADER_BYTES = 16;
+
+    /**
+     * The nibble stored for a square without status.
+     */
+    public static final int NO_STATUS = 0xF;
+
+    /**
+     * The size of the buffer records are batched in before being written.
+     */
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private CaveFile() {
+    }
+
+    /**
+     * Returns the size in bytes of the record of a cave.
+     *
+     * @param caveSide The side length of the cave.
+     * @return The size of its record, header included.
+     */
+    public static int recordSize(int caveSide) {
+        return RECORD_HEADER_BYTES + (caveSide * caveSide + 1) / 2;
+    }
+
+    /**
+     * Writes caves to a file, replacing it if it exists.
+     *
+     * <p>Records are encoded into a direct buffer and written in large batches. The caves are
+     * only iterated once, so they can come from a lazily generated stream, for instance
+     * {@code CaveFile.write(path, generator.stream(seed).limit(n)::iterator)}.</p>
+     *
+     * @param path  The file to write.
+     * @param caves The caves to store, in order.
+     * @return The number of caves written.
+     * @throws IOException If the file cannot be written.
+     */
+    public static int write(Path path, Iterable<? extends Cave> caves) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(0);
+
+            int count = 0;
+            for (Cave cave : caves) {
+                int size = recordSize(cave.getCaveSide());
+                if (buffer.remaining() < size) {
+                    flush(channel, buffer);
+                    if (buffer.capacity() < size) {
+                        buffer = ByteBuffer.allocateDirect(size);
+                    }
+                }
+                encode(cave, buffer);
+                count++;
+            }
+            flush(channel, buffer);
+
+            // The count is only known at the end
+            buffer.putInt(count).flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, 8 + buffer.position());
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Appends the record of a cave to a buffer.
+     *
+     * @param cave   The cave to encode.
+     * @param buffer The buffer, with at least {@link #recordSize(int)} bytes remaining.
+     */
+    public static void encode(Cave cave, ByteBuffer buffer) {
+        buffer.putInt(cave.getCaveSide())
+                .putInt(cave.getAmountOfMonsters())
+                .putInt(cave.getAmountOfTreasures())
+                .putInt(cave.getAmountOfPlayers());
+
+        int squareCount = cave.getSquareCount();
+        for (int index = 0; index < squareCount; index += 2) {
+            int low = nibble(cave.getStatus(index));
+            int high = index + 1 < squareCount ? nibble(cave.getStatus(index + 1)) : 0;
+            buffer.put((byte) (high << 4 | low));
+        }
+    }
+
+    private static int nibble(SquareStatus status) {
+        return status == null ? NO_STATUS : status.ordinal();
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
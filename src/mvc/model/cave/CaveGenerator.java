@@ -0,0 +1,262 @@
+package mvc.model.cave;
+
+import mvc.model.CaveFactory;
+import mvc.model.Global.SquareStatus;
+
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * Generates caves procedurally from a seed.
+ *
+ * <p>Every square other than the player start position independently becomes a monster, a hole
+ * or a treasure with the configured ratios, and at least one treasure is always placed. Squares
+ * are written straight into the {@link Cave} storage and the item counts are updated once at the
+ * end. The same seed and settings always produce the same cave.</p>
+ *
+ * <p>When the generator is solvable, the first treasure is guaranteed to be reachable from the
+ * start position without crossing a monster or a hole: if it is not, the hazards on a straight
+ * row-then-column path between them are cleared.</p>
+ *
+ * <p>The reachability check searches through a queue and a visited plane kept per thread and reused
+ * from one cave to the next, so generating caves of the same size does not allocate them again and
+ * a generator can be shared by several threads.</p>
+ *
+ * <p>{@link #stream(long)} produces an unbounded, lazily generated sequence of caves, so a caller
+ * can consume as many as needed without holding them in memory.</p>
+ *
+ * @author Sergio Vega García
+ */
+public class CaveGenerator implements CaveFactory {
+
+    /**
+     * The side length of the generated caves.
+     */
+    private final int caveSide;
+
+    /**
+     * The probability of a square holding a monster.
+     */
+    private final double monsterRatio;
+
+    /**
+     * The probability of a square holding a hole.
+     */
+    private final double holeRatio;
+
+    /**
+     * The probability of a square holding a treasure.
+     */
+    private final double treasureRatio;
+
+    /**
+     * Whether a hazard-free path from the start to a treasure is guaranteed.
+     */
+    private final boolean solvable;
+
+    /**
+     * The search space of the reachability check of each thread.
+     */
+    private final ThreadLocal<SearchSpace> searchSpaces = new ThreadLocal<>();
+
+    /**
+     * Constructs a generator.
+     *
+     * @param caveSide      The side length of the generated caves.
+     * @param monsterRatio  The probability of a square holding a monster.
+     * @param holeRatio     The probability of a square holding a hole.
+     * @param treasureRatio The probability of a square holding a treasure. At least one is always placed.
+     * @param solvable      {@code true} to guarantee a hazard-free path from the start to a treasure.
+     */
+    public CaveGenerator(int caveSide, double monsterRatio, double holeRatio, double treasureRatio, boolean solvable) {
+        if (monsterRatio < 0 || holeRatio < 0 || treasureRatio < 0 || monsterRatio + holeRatio + treasureRatio > 1) {
+            throw new IllegalArgumentException("Invalid item ratios: " + monsterRatio + ", " + holeRatio + ", " + treasureRatio);
+        }
+        this.caveSide = caveSide;
+        this.monsterRatio = monsterRatio;
+        this.holeRatio = holeRatio;
+        this.treasureRatio = treasureRatio;
+        this.solvable = solvable;
+    }
+
+    /**
+     * Returns the row of the player start position, the bottom-left square.
+     *
+     * @return The start row.
+     */
+    public int getStartRow() {
+        return caveSide - 1;
+    }
+
+    /**
+     * Returns the column of the player start position, the bottom-left square.
+     *
+     * @return The start column.
+     */
+    public int getStartColumn() {
+        return 0;
+    }
+
+    /**
+     * Generates a new cave from a seed, leaving the bottom-left square clean for the player.
+     *
+     * @param seed The seed that determines the layout.
+     * @return The generated cave.
+     */
+    public Cave generate(long seed) {
+        Cave cave = new Cave(caveSide);
+        fill(cave, seed, getStartRow(), getStartColumn());
+        return cave;
+    }
+
+    /**
+     * Returns an unbounded stream of caves, generated lazily from seeds derived from a base seed.
+     *
+     * @param baseSeed The seed from which every cave seed is derived.
+     * @return The stream of caves.
+     */
+    public Stream<Cave> stream(long baseSeed) {
+        return new SplittableRandom(baseSeed).longs().mapToObj(this::generate);
+    }
+
+    /**
+     * Fills an empty cave from a seed. The cave may have any side length, not only this generator's.
+     *
+     * @param cave        The empty cave to fill.
+     * @param seed        The seed that determines the layout.
+     * @param startRow    The row of the player start position, which is left clean.
+     * @param startColumn The column of the player start position, which is left clean.
+     */
+    @Override
+    public void fill(Cave cave, long seed, int startRow, int startColumn) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int squareCount = cave.getSquareCount();
+        int start = cave.toLinearIndex(startRow, startColumn);
+        double holeLimit = monsterRatio + holeRatio;
+        double treasureLimit = holeLimit + treasureRatio;
+
+        int monsters = 0;
+        int treasures = 0;
+        int firstTreasure = -1;
+
+        for (int index = 0; index < squareCount; index++) {
+            if (index == start) continue;
+            double roll = random.nextDouble();
+            if (roll < monsterRatio) {
+                cave.setStatus(index, SquareStatus.MONSTER);
+                monsters++;
+            } else if (roll < holeLimit) {
+                cave.setStatus(index, SquareStatus.HOLE);
+            } else if (roll < treasureLimit) {
+                cave.setStatus(index, SquareStatus.TREASURE);
+                if (treasures++ == 0) firstTreasure = index;
+            }
+        }
+
+        if (treasures == 0) {
+            firstTreasure = random.nextInt(squareCount - 1);
+            if (firstTreasure >= start) firstTreasure++;
+            if (cave.getStatus(firstTreasure) == SquareStatus.MONSTER) monsters--;
+            cave.setStatus(firstTreasure, SquareStatus.TREASURE);
+            treasures++;
+        }
+
+        if (solvable && !isReachable(cave, start, firstTreasure)) {
+            monsters -= carvePath(cave, startRow, startColumn, firstTreasure / cave.getCaveSide(), firstTreasure % cave.getCaveSide());
+        }
+
+        cave.adjustAmountOfMonsters(monsters);
+        cave.adjustAmountOfTreasures(treasures);
+    }
+
+    /**
+     * Checks with a breadth-first search whether the target can be reached from the start
+     * without crossing a monster or a hole.
+     */
+    private boolean isReachable(Cave cave, int start, int target) {
+        NeighborTable neighbors = cave.getNeighborTable();
+        SearchSpace space = searchSpace(cave.getCaveSide());
+        int[] queue = space.queue;
+        BitPlane seen = space.seen;
+        int head = 0;
+        int tail = 0;
+
+        queue[tail++] = start;
+        seen.set(start, true);
+        while (head < tail) {
+            int index = queue[head++];
+            if (index == target) return true;
+
+            for (int direction = 0; direction < NeighborTable.DIRECTIONS; direction++) {
+                int neighbor = neighbors.neighbor(index, direction);
+                if (neighbor < 0 || seen.get(neighbor) || isHazard(cave.getStatus(neighbor))) continue;
+                seen.set(neighbor, true);
+                queue[tail++] = neighbor;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the calling thread's search space, cleared and sized for a cave side.
+     */
+    private SearchSpace searchSpace(int side) {
+        SearchSpace space = searchSpaces.get();
+        if (space == null || space.seen.getSide() != side) {
+            space = new SearchSpace(side);
+            searchSpaces.set(space);
+        } else {
+            space.seen.clear();
+        }
+        return space;
+    }
+
+    /**
+     * Clears the hazards on the path that goes along the start row and then along the target column.
+     *
+     * @return The number of monsters removed.
+     */
+    private int carvePath(Cave cave, int startRow, int startColumn, int targetRow, int targetColumn) {
+        int removedMonsters = 0;
+        int columnStep = Integer.signum(targetColumn - startColumn);
+        int rowStep = Integer.signum(targetRow - startRow);
+
+        for (int col = startColumn; col != targetColumn; col += columnStep) {
+            removedMonsters += clearHazard(cave, cave.toLinearIndex(startRow, col));
+        }
+        for (int row = startRow; row != targetRow; row += rowStep) {
+            removedMonsters += clearHazard(cave, cave.toLinearIndex(row, targetColumn));
+        }
+        return removedMonsters;
+    }
+
+    /**
+     * Makes a square clean if it holds a hazard.
+     *
+     * @return {@code 1} if a monster was removed, {@code 0} otherwise.
+     */
+    private int clearHazard(Cave cave, int index) {
+        SquareStatus status = cave.getStatus(index);
+        if (!isHazard(status)) return 0;
+        cave.setStatus(index, SquareStatus.CLEAN);
+        return status == SquareStatus.MONSTER ? 1 : 0;
+    }
+
+    private static boolean isHazard(SquareStatus status) {
+        return status == SquareStatus.MONSTER || status == SquareStatus.HOLE;
+    }
+
+    /**
+     * The breadth-first search queue and visited squares of one thread.
+     */
+    private static final class SearchSpace {
+
+        private final int[] queue;
+        private final BitPlane seen;
+
+        SearchSpace(int side) {
+            queue = new int[side * side];
+            seen = new BitPlane(side);
+        }
+    }
+}
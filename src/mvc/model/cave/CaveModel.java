@@ -5,23 +5,27 @@ import mvc.model.Global.PerceptionType;
 import mvc.model.Global.SquareStatus;
 import mvc.model.Perceptions;
 
+import java.util.Arrays;
+
 import static mvc.model.Global.getDirectionDelta;
-import static mvc.model.Global.mapStatusToPerception;
 
 /**
  * Represents an abstract model of a cave, which is organized as a grid of squares.
  *
  * <p>This class serves as the base for specific cave implementations, providing core functionality
- * for managing a grid of {@link Square} objects and determining their positions based on rows
- * and columns. The specific characteristics of the cave, such as the initial {@link SquareStatus},
+ * for managing a grid of squares and determining their positions based on rows and columns.
+ * The specific characteristics of the cave, such as the initial {@link SquareStatus},
  * must be defined by subclasses.</p>
  *
- * <p>The cave is represented as a 1D array of {@link Square} objects for memory efficiency, and
- * utilities are provided to translate between 2D grid coordinates and the underlying array indices.</p>
+ * <p>The grid is not stored as one object per square. Statuses and perceptions are kept in flat
+ * {@code byte[]} arrays and the visited and treasure flags in {@link BitPlane}s, all indexed by
+ * the linear index of a square. {@link Square} objects are lightweight handles over this storage,
+ * created on demand by {@link #getSquare(int, int)}. Coordinates are {@code int}, so the grid can
+ * grow up to {@link mvc.model.Global.Cave_Constants#MAX_SIDE} squares per side.</p>
  *
  * <h2>Key Responsibilities</h2>
  * <ul>
- *   <li>Manage the grid of {@link Square} objects based on the cave size.</li>
+ *   <li>Manage the grid storage based on the cave size.</li>
  *   <li>Provide utility methods for accessing squares and validating grid boundaries.</li>
  *   <li>Allow subclasses to define the initial {@link SquareStatus} for the grid.</li>
  * </ul>
@@ -34,25 +38,92 @@ import static mvc.model.Global.mapStatusToPerception;
  */
 public abstract class CaveModel {
 
+    /**
+     * Marker stored in {@link #statuses} for a square without status.
+     */
+    private static final byte NO_STATUS = -1;
+
+    /**
+     * Marker stored in {@link #perceptions} for a square whose perceptions are not known.
+     */
+    private static final byte NO_PERCEPTIONS = -1;
+
+    /**
+     * Cached {@link SquareStatus} values, indexed by ordinal.
+     */
+    private static final SquareStatus[] STATUSES = SquareStatus.values();
+
+    /**
+     * The perception mask each {@link SquareStatus} produces on its neighbors, indexed by ordinal.
+     */
+    private static final byte[] STATUS_PERCEPTIONS = new byte[STATUSES.length];
+
+    static {
+        for (SquareStatus status : STATUSES) {
+            STATUS_PERCEPTIONS[status.ordinal()] = (byte) Perceptions.producedBy(status).getMask();
+        }
+    }
+
+    /**
+     * The perception mask a treasure produces on its neighbors.
+     */
+    private static final byte TREASURE_PERCEPTIONS = STATUS_PERCEPTIONS[SquareStatus.TREASURE.ordinal()];
+
     /**
      * The side length of the cave grid. This value determines the number of rows and columns in the grid.
      */
-    protected byte caveSide;
+    protected int caveSide;
+
+    /**
+     * The status ordinal of every square, or {@link #NO_STATUS}.
+     */
+    private byte[] statuses;
+
+    /**
+     * The perceptions of every square as a bit mask over {@link PerceptionType} ordinals,
+     * or {@link #NO_PERCEPTIONS}.
+     */
+    private byte[] perceptions;
+
+    /**
+     * The squares that have been visited.
+     */
+    private BitPlane visited;
+
+    /**
+     * The squares that contain a treasure.
+     */
+    private BitPlane treasures;
+
+    /**
+     * The neighbors of every square, shared with other grids of the same side length.
+     */
+    private NeighborTable neighborTable;
 
     /**
-     * The 1D array representing the grid of squares in the cave.
-     * The array's size is {@code caveSide * caveSide}.
+     * The squares whose status changed since the last snapshot, or {@code null} until the
+     * first snapshot is taken.
      */
-    protected Square[] squares;
+    private ChangeLog changeLog;
+
+    /**
+     * The squares whose state of any kind changed since the journal was last drained,
+     * or {@code null} when nobody is recording them.
+     */
+    private ChangeLog journal;
+
+    /**
+     * The number of times a square's status has changed, ever.
+     */
+    private long statusChanges;
 
     /**
      * Constructs a new {@code CaveModel} with the specified grid size.
      *
      * @param caveSide The side length of the square cave grid. Must be greater than zero.
      */
-    public CaveModel(byte caveSide) {
-        this.caveSide = caveSide;
-        this.squares = new Square[caveSide * caveSide];
+    public CaveModel(int caveSide) {
+        allocateSquares(caveSide);
         initializeSquares();
     }
 
@@ -67,36 +138,99 @@ public abstract class CaveModel {
     protected abstract SquareStatus getInitialStatus();
 
     /**
-     * Initializes the {@code squares} array with {@link Square} objects, all with
-     * the initial {@link SquareStatus}.
+     * Allocates the grid storage for the given side length.
+     *
+     * @param caveSide The new side length of the grid.
+     */
+    protected void allocateSquares(int caveSide) {
+        this.caveSide = caveSide;
+        int squareCount = caveSide * caveSide;
+        statuses = new byte[squareCount];
+        perceptions = new byte[squareCount];
+        visited = new BitPlane(caveSide);
+        treasures = new BitPlane(caveSide);
+        neighborTable = NeighborTable.forSide(caveSide);
+        if (changeLog != null) changeLog = new ChangeLog(caveSide);
+        if (journal != null) journal = new ChangeLog(caveSide);
+    }
+
+    /**
+     * Resets every square to the initial {@link SquareStatus}, with no perceptions,
+     * not visited and without treasure.
      */
     protected void initializeSquares() {
         SquareStatus initialStatus = getInitialStatus();
-        for (int i = 0; i < squares.length; i++) {
-            squares[i] = new Square(initialStatus);
+        Arrays.fill(statuses, (byte) initialStatus.ordinal());
+        Arrays.fill(perceptions, NO_PERCEPTIONS);
+        visited.clear();
+        treasures.clear();
+        if (changeLog != null) changeLog.recordAll();
+        if (journal != null) journal.recordAll();
+    }
+
+    /**
+     * Resets every square to its initial state, keeping the current side length
+     * and reusing the grid storage.
+     */
+    public void clear() {
+        initializeSquares();
+    }
+
+    /**
+     * Overwrites the state of every square with that of another grid of the same class,
+     * resizing this one if needed.
+     *
+     * <p>The storage is copied array by array, so this allocates nothing unless the sizes differ.
+     * Every square is recorded as changed.</p>
+     *
+     * @param source The grid to copy.
+     * @throws IllegalArgumentException If the grid is of another class.
+     */
+    public void copyFrom(CaveModel source) {
+        if (source.getClass() != getClass()) {
+            throw new IllegalArgumentException("Cannot copy a " + source.getClass().getSimpleName()
+                    + " into a " + getClass().getSimpleName());
         }
+        if (caveSide != source.caveSide) {
+            allocateSquares(source.caveSide);
+        }
+        System.arraycopy(source.statuses, 0, statuses, 0, statuses.length);
+        System.arraycopy(source.perceptions, 0, perceptions, 0, perceptions.length);
+        visited.copyFrom(source.visited);
+        treasures.copyFrom(source.treasures);
+        if (changeLog != null) changeLog.recordAll();
+        if (journal != null) journal.recordAll();
     }
 
     /**
-     * Converts 2D coordinates (row, column) into a linear index for the squares array.
+     * Converts 2D coordinates (row, column) into a linear index for the grid storage.
      *
      * @param row    The row index (0-based).
      * @param column The column index (0-based).
      * @return The linear index.
      */
-    public int toLinearIndex(byte row, byte column) {
+    public int toLinearIndex(int row, int column) {
         return row * caveSide + column;
     }
 
     /**
-     * Retrieves the {@link Square} object at the specified row and column.
+     * Returns the number of squares in the cave grid.
+     *
+     * @return {@code caveSide * caveSide}.
+     */
+    public int getSquareCount() {
+        return statuses.length;
+    }
+
+    /**
+     * Retrieves a {@link Square} handle for the specified row and column.
      *
      * @param row The row index (0-based).
      * @param col The column index (0-based).
-     * @return The {@link Square} object at the specified position.
+     * @return A {@link Square} backed by this cave's storage.
      */
-    public Square getSquare(byte row, byte col) {
-        return squares[toLinearIndex(row, col)];
+    public Square getSquare(int row, int col) {
+        return new Square(this, toLinearIndex(row, col));
     }
 
     /**
@@ -104,10 +238,94 @@ public abstract class CaveModel {
      *
      * @return The side length.
      */
-    public byte getCaveSide() {
+    public int getCaveSide() {
         return caveSide;
     }
 
+    /**
+     * Returns the neighbor table of the cave grid.
+     *
+     * <p>Iterating over the neighbors of a square through this table allocates nothing:</p>
+     * <pre>{@code
+     * for (int direction = 0; direction < NeighborTable.DIRECTIONS; direction++) {
+     *     int neighbor = table.neighbor(index, direction);
+     *     if (neighbor >= 0) { ... }
+     * }
+     * }</pre>
+     *
+     * @return The {@link NeighborTable} for this cave's side length.
+     */
+    public NeighborTable getNeighborTable() {
+        return neighborTable;
+    }
+
+    /**
+     * Returns the log of the squares whose status changed since the last {@link #snapshot snapshot}.
+     *
+     * <p>Only grids that publish snapshots keep the log: it is created by the first snapshot, so
+     * grids that are never shown, such as the maps of the players, do not pay for it. Resizing or
+     * clearing the grid marks every square as changed. The log is replaced when the grid is
+     * resized, so it must be fetched again after {@link #allocateSquares(int)}.</p>
+     *
+     * @return The {@link ChangeLog} of this grid, or {@code null} if no snapshot was taken yet.
+     */
+    public ChangeLog getChangeLog() {
+        return changeLog;
+    }
+
+    /**
+     * Returns the journal of the squares whose state changed since it was last drained.
+     *
+     * <p>Unlike the {@link #getChangeLog() change log}, which only follows statuses for the view,
+     * the journal records every write that changes a status, the perceptions, the visited flag or
+     * the treasure flag of a square. It is off by default and costs nothing then.</p>
+     *
+     * @return The journal, or {@code null} if it is off.
+     * @see #setJournaling(boolean)
+     */
+    public ChangeLog getJournal() {
+        return journal;
+    }
+
+    /**
+     * Turns the {@link #getJournal() journal} on or off. A new journal considers every square changed.
+     *
+     * <p>The journal is replaced when the grid is resized, so it must be fetched again after
+     * {@link #allocateSquares(int)}.</p>
+     *
+     * @param journaling {@code true} to record state changes.
+     */
+    public void setJournaling(boolean journaling) {
+        if (!journaling) {
+            journal = null;
+        } else if (journal == null) {
+            journal = new ChangeLog(caveSide);
+            journal.recordAll();
+        }
+    }
+
+    /**
+     * Takes an immutable snapshot of the square statuses and drains the {@link #getChangeLog() change log}.
+     *
+     * <p>The new snapshot follows the given one: it only copies the pages of the squares changed
+     * since, and lists those squares. Without a previous snapshot, or after the grid was resized
+     * or cleared, every square is copied and marked as changed. The first snapshot of a grid also
+     * starts its change log, and copies every square.</p>
+     *
+     * @param previous The last snapshot taken of this grid, or {@code null}.
+     * @return The new {@link CaveSnapshot}.
+     */
+    public CaveSnapshot snapshot(CaveSnapshot previous) {
+        boolean copyAll = changeLog == null || changeLog.isAllChanged()
+                || previous == null || previous.getCaveSide() != caveSide;
+        if (changeLog == null) changeLog = new ChangeLog(caveSide);
+        if (copyAll) {
+            changeLog.clear();
+            return CaveSnapshot.copyOf(previous == null ? 1 : previous.getVersion() + 1, caveSide, statuses);
+        }
+        return previous.next(statuses, changeLog.drain());
+    }
+
     /**
      * Checks if the given row and column indices are within the cave grid bounds.
      *
@@ -115,52 +333,219 @@ public abstract class CaveModel {
      * @param column The column index.
      * @return {@code true} if within bounds; {@code false} otherwise.
      */
-    public boolean isWithinBounds(byte row, byte column) {
+    public boolean isWithinBounds(int row, int column) {
         return row >= 0 && row < caveSide && column >= 0 && column < caveSide;
     }
 
+    // ------------------
+    // SQUARE STATE
+    // ------------------
+
+    /**
+     * Retrieves the status of the square at the given linear index.
+     *
+     * @param index The linear index of the square.
+     * @return The {@link SquareStatus}, or {@code null} if the square has none.
+     */
+    public SquareStatus getStatus(int index) {
+        byte status = statuses[index];
+        return status == NO_STATUS ? null : STATUSES[status];
+    }
+
+    /**
+     * Updates the status of the square at the given linear index.
+     *
+     * <p>If the status is set to {@link SquareStatus#TREASURE},
+     * the square is marked as containing a treasure.</p>
+     *
+     * <p>A square whose status actually changes is recorded in the {@link #getChangeLog() change log}.</p>
+     *
+     * @param index  The linear index of the square.
+     * @param status The new {@link SquareStatus}.
+     */
+    public void setStatus(int index, SquareStatus status) {
+        byte value = status == null ? NO_STATUS : (byte) status.ordinal();
+        if (statuses[index] != value) {
+            statuses[index] = value;
+            statusChanges++;
+            if (changeLog != null) changeLog.record(index);
+            if (journal != null) journal.record(index);
+        }
+        if (status == SquareStatus.TREASURE) setHasTreasure(index, true);
+    }
+
+    /**
+     * Returns how many times {@link #setStatus(int, SquareStatus)} has changed the status of a square.
+     *
+     * <p>The count only grows, so the difference between two readings is the number of status
+     * changes in between.</p>
+     *
+     * @return The number of status changes.
+     */
+    public long getStatusChangeCount() {
+        return statusChanges;
+    }
+
+    /**
+     * Retrieves the perceptions of the square at the given linear index.
+     *
+     * <p>The returned instance is one of the shared {@link Perceptions} values, so this does not allocate.</p>
+     *
+     * @param index The linear index of the square.
+     * @return The {@link Perceptions} of the square, or {@code null} if they are not known.
+     */
+    public Perceptions getPerceptions(int index) {
+        byte mask = perceptions[index];
+        return mask == NO_PERCEPTIONS ? null : Perceptions.of(mask);
+    }
+
+    /**
+     * Checks whether the perceptions of the square at the given linear index are known.
+     *
+     * @param index The linear index of the square.
+     * @return {@code true} if the square has perceptions; {@code false} otherwise.
+     */
+    public boolean hasPerceptions(int index) {
+        return perceptions[index] != NO_PERCEPTIONS;
+    }
+
+    /**
+     * Checks whether the square at the given linear index has a specific perception.
+     *
+     * @param index          The linear index of the square.
+     * @param perceptionType The perception type.
+     * @return {@code true} if the square's perceptions are known and include that perception.
+     */
+    public boolean getPerception(int index, PerceptionType perceptionType) {
+        byte mask = perceptions[index];
+        return mask != NO_PERCEPTIONS && (mask & (1 << perceptionType.ordinal())) != 0;
+    }
+
+    /**
+     * Copies the perceptions of a square from another cave model of the same side length.
+     *
+     * @param source The cave model to copy from.
+     * @param index  The linear index of the square.
+     */
+    public void copyPerceptions(CaveModel source, int index) {
+        writePerceptions(index, source.perceptions[index]);
+    }
+
+    /**
+     * Updates the perceptions of the square at the given linear index.
+     *
+     * @param index       The linear index of the square.
+     * @param perceptions The new {@link Perceptions}, or {@code null} to forget them.
+     */
+    public void setPerceptions(int index, Perceptions perceptions) {
+        writePerceptions(index, perceptions == null ? NO_PERCEPTIONS : (byte) perceptions.getMask());
+    }
+
+    /**
+     * Checks whether the square at the given linear index has been visited.
+     *
+     * @param index The linear index of the square.
+     * @return {@code true} if visited; {@code false} otherwise.
+     */
+    public boolean isVisited(int index) {
+        return visited.get(index);
+    }
+
+    /**
+     * Marks the square at the given linear index as visited or unvisited.
+     *
+     * @param index The linear index of the square.
+     * @param value {@code true} to mark the square as visited.
+     */
+    public void setVisited(int index, boolean value) {
+        if (journal != null && visited.get(index) != value) journal.record(index);
+        visited.set(index, value);
+    }
+
+    /**
+     * Checks whether the square at the given linear index contains a treasure.
+     *
+     * @param index The linear index of the square.
+     * @return {@code true} if the square has a treasure; {@code false} otherwise.
+     */
+    public boolean hasTreasure(int index) {
+        return treasures.get(index);
+    }
+
+    /**
+     * Sets whether the square at the given linear index contains a treasure.
+     *
+     * @param index       The linear index of the square.
+     * @param hasTreasure {@code true} to mark the square as containing a treasure.
+     */
+    public void setHasTreasure(int index, boolean hasTreasure) {
+        if (journal != null && treasures.get(index) != hasTreasure) journal.record(index);
+        treasures.set(index, hasTreasure);
+    }
+
+    // ------------------
+    // PERCEPTIONS
+    // ------------------
+
     /**
      * Updates the perceptions for a specific square based on its neighbors.
      *
      * @param row    The row index of the square.
      * @param column The column index of the square.
      */
-    public void updatePerceptions(byte row, byte column) {
-        Square square = getSquare(row, column);
-        Perceptions perceptions = new Perceptions();
+    public void updatePerceptions(int row, int column) {
+        updatePerceptions(toLinearIndex(row, column));
+    }
 
-        // Calculate perceptions based on neighbors
-        for (Directions direction : Directions.values()) {
-            byte[] delta = getDirectionDelta(direction);
-            byte neighborRow = (byte) (row + delta[0]);
-            byte neighborCol = (byte) (column + delta[1]);
+    /**
+     * Updates the perceptions for the square at the given linear index based on its neighbors.
+     *
+     * <p>A treasure radiates as long as it lies in its square, even while a player that does not
+     * take it stands on or has walked over the square and changed its status.</p>
+     *
+     * @param index The linear index of the square.
+     */
+    public void updatePerceptions(int index) {
+        byte mask = 0;
 
-            if (isWithinBounds(neighborRow, neighborCol)) {
-                PerceptionType perceptionType = mapStatusToPerception(getSquare(neighborRow, neighborCol).getStatus());
-                if (perceptionType != null) {
-                    perceptions.setPerception(perceptionType, true);
-                }
+        // Calculate perceptions based on neighbors
+        for (int direction = 0; direction < NeighborTable.DIRECTIONS; direction++) {
+            int neighbor = neighborTable.neighbor(index, direction);
+            if (neighbor < 0) continue;
+            if (statuses[neighbor] != NO_STATUS) {
+                mask |= STATUS_PERCEPTIONS[statuses[neighbor]];
+            }
+            if (treasures.get(neighbor)) {
+                mask |= TREASURE_PERCEPTIONS;
             }
         }
-        square.setPerceptions(perceptions);
+        writePerceptions(index, mask);
+    }
+
+    private void writePerceptions(int index, byte mask) {
+        if (journal != null && perceptions[index] != mask) journal.record(index);
+        perceptions[index] = mask;
     }
 
     /**
      * Retrieves the neighbors' positions (row, column) for a given square.
      *
+     * <p>This allocates a new array per call; hot paths iterate over
+     * {@link #getNeighborTable()} instead.</p>
+     *
      * @param row The row index of the square.
      * @param col The column index of the square.
      * @return A 2D array containing valid neighbors' positions.
      */
-    protected byte[][] getNeighborPositions(byte row, byte col) {
-        byte[][] neighbors = new byte[Directions.values().length][];
+    protected int[][] getNeighborPositions(int row, int col) {
+        int[][] neighbors = new int[Directions.values().length][];
         for (Directions direction : Directions.values()) {
-            byte[] delta = getDirectionDelta(direction);
-            byte neighborRow = (byte) (row + delta[0]);
-            byte neighborCol = (byte) (col + delta[1]);
+            int[] delta = getDirectionDelta(direction);
+            int neighborRow = row + delta[0];
+            int neighborCol = col + delta[1];
 
             if (isWithinBounds(neighborRow, neighborCol)) {
-                neighbors[direction.ordinal()] = new byte[]{neighborRow, neighborCol};
+                neighbors[direction.ordinal()] = new int[]{neighborRow, neighborCol};
             } else {
                 neighbors[direction.ordinal()] = null;
             }
@@ -174,11 +559,20 @@ public abstract class CaveModel {
      * @param row The row index of the square.
      * @param col The column index of the square.
      */
-    public void updateNeighborPerceptions(byte row, byte col) {
-        byte[][] neighbors = getNeighborPositions(row, col);
-        for (byte[] neighbor : neighbors) {
-            if (neighbor != null) {
-                updatePerceptions(neighbor[0], neighbor[1]);
+    public void updateNeighborPerceptions(int row, int col) {
+        updateNeighborPerceptions(toLinearIndex(row, col));
+    }
+
+    /**
+     * Updates the perceptions for all neighboring squares of the square at the given linear index.
+     *
+     * @param index The linear index of the square.
+     */
+    public void updateNeighborPerceptions(int index) {
+        for (int direction = 0; direction < NeighborTable.DIRECTIONS; direction++) {
+            int neighbor = neighborTable.neighbor(index, direction);
+            if (neighbor >= 0) {
+                updatePerceptions(neighbor);
             }
         }
     }
@@ -0,0 +1,155 @@
+package mvc.model.cave;
+
+import java.util.Arrays;
+
+import static mvc.model.Global.SquareStatus;
+
+/**
+ * An immutable copy of the square statuses of a {@link CaveModel} at a given moment.
+ *
+ * <p>Snapshots are taken by the thread that changes the cave and can then be read by any other
+ * thread, such as the Swing event dispatch thread, without synchronization and without ever
+ * seeing a half-applied step. Each snapshot has a version one higher than the snapshot it was
+ * taken after, and records which squares changed since that snapshot, so a reader that saw the
+ * previous version only has to look at those squares.</p>
+ *
+ * <p>Statuses are stored as one byte per square, split into pages of {@value #PAGE_SIZE}
+ * squares. A new snapshot shares every page without changes with the previous one, so taking
+ * it only copies the pages touched since, not the whole cave.</p>
+ *
+ * @author Sergio Vega García
+ * @see CaveModel#snapshot(CaveSnapshot)
+ */
+public final class CaveSnapshot {
+
+    /**
+     * The number of squares per page, a power of two.
+     */
+    public static final int PAGE_SIZE = 1 << 12;
+
+    private static final int PAGE_SHIFT = Integer.numberOfTrailingZeros(PAGE_SIZE);
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    /**
+     * Cached {@link SquareStatus} values, indexed by ordinal.
+     */
+    private static final SquareStatus[] STATUSES = SquareStatus.values();
+
+    private final long version;
+    private final int caveSide;
+
+    /**
+     * The status ordinal of every square, or a negative value for no status, in pages. Never modified.
+     */
+    private final byte[][] pages;
+
+    /**
+     * The squares that changed since the previous version, or {@code null} if all of them may have.
+     */
+    private final int[] changedSquares;
+
+    private CaveSnapshot(long version, int caveSide, byte[][] pages, int[] changedSquares) {
+        this.version = version;
+        this.caveSide = caveSide;
+        this.pages = pages;
+        this.changedSquares = changedSquares;
+    }
+
+    /**
+     * Copies all the given statuses into a new snapshot.
+     *
+     * @param version  The version of the snapshot.
+     * @param caveSide The side length of the cave.
+     * @param statuses The status bytes of the cave, one per square.
+     * @return The new snapshot, which marks every square as changed.
+     */
+    static CaveSnapshot copyOf(long version, int caveSide, byte[] statuses) {
+        int pageCount = (statuses.length + PAGE_SIZE - 1) >>> PAGE_SHIFT;
+        byte[][] pages = new byte[pageCount][];
+        for (int page = 0; page < pageCount; page++) {
+            pages[page] = copyPage(statuses, page);
+        }
+        return new CaveSnapshot(version, caveSide, pages, null);
+    }
+
+    /**
+     * Takes the snapshot that follows this one, copying only the pages of the changed squares.
+     *
+     * @param statuses       The current status bytes of the cave, with the same side length.
+     * @param changedSquares The squares changed since this snapshot was taken.
+     * @return The next snapshot.
+     */
+    CaveSnapshot next(byte[] statuses, int[] changedSquares) {
+        byte[][] nextPages = pages.clone();
+        for (int square : changedSquares) {
+            int page = square >>> PAGE_SHIFT;
+            if (nextPages[page] == pages[page]) {
+                nextPages[page] = copyPage(statuses, page);
+            }
+        }
+        return new CaveSnapshot(version + 1, caveSide, nextPages, changedSquares);
+    }
+
+    private static byte[] copyPage(byte[] statuses, int page) {
+        int from = page << PAGE_SHIFT;
+        return Arrays.copyOfRange(statuses, from, Math.min(statuses.length, from + PAGE_SIZE));
+    }
+
+    /**
+     * Returns the version of this snapshot. Consecutive snapshots of a cave have consecutive versions.
+     *
+     * @return The version.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the side length of the cave.
+     *
+     * @return The side length.
+     */
+    public int getCaveSide() {
+        return caveSide;
+    }
+
+    /**
+     * Retrieves the status of the square at the given linear index.
+     *
+     * @param index The linear index of the square.
+     * @return The {@link SquareStatus}, or {@code null} if the square has none.
+     */
+    public SquareStatus getStatus(int index) {
+        byte status = pages[index >>> PAGE_SHIFT][index & PAGE_MASK];
+        return status < 0 ? null : STATUSES[status];
+    }
+
+    /**
+     * Checks whether every square may have changed since the previous version, for instance
+     * after the cave was resized or reset.
+     *
+     * @return {@code true} if the whole cave must be considered changed.
+     */
+    public boolean isFullChange() {
+        return changedSquares == null;
+    }
+
+    /**
+     * Returns the number of squares that changed since the previous version.
+     *
+     * @return The number of changed squares, or {@code 0} if {@link #isFullChange()}.
+     */
+    public int getChangedCount() {
+        return changedSquares == null ? 0 : changedSquares.length;
+    }
+
+    /**
+     * Returns one of the squares that changed since the previous version.
+     *
+     * @param i The position of the square in the change list, below {@link #getChangedCount()}.
+     * @return The linear index of the square.
+     */
+    public int getChangedSquare(int i) {
+        return changedSquares[i];
+    }
+}
@@ -0,0 +1,143 @@
+package mvc.model.cave;
+
+import java.util.Arrays;
+
+/**
+ * Records which squares of a grid changed since the log was last drained.
+ *
+ * <p>Each square is recorded at most once between drains, in the order of its first change, and
+ * recording allocates nothing. Changes that affect the whole grid, such as a resize or a reset,
+ * are recorded as a single flag instead of one entry per square. The log holds at most
+ * {@link #CAPACITY} entries, whatever the size of the grid: once more squares than that change
+ * between drains, the log falls back to the same flag, since by then copying the whole grid costs
+ * about as much as following the changes.</p>
+ *
+ * <p>A log is not thread-safe: it must be recorded and drained by the thread that owns the grid.</p>
+ *
+ * @author Sergio Vega García
+ * @see CaveModel#getChangeLog()
+ */
+public class ChangeLog {
+
+    /**
+     * The largest number of squares recorded one by one between drains.
+     */
+    public static final int CAPACITY = 1 << 16;
+
+    /**
+     * The linear indices of the changed squares, in order of their first change.
+     */
+    private final int[] squares;
+
+    /**
+     * The squares already in {@link #squares}.
+     */
+    private final BitPlane recorded;
+
+    /**
+     * The number of entries in {@link #squares}.
+     */
+    private int size;
+
+    /**
+     * Whether every square must be considered changed.
+     */
+    private boolean allChanged;
+
+    /**
+     * Constructs an empty log for a grid with the given side length.
+     *
+     * @param side The side length of the grid.
+     */
+    public ChangeLog(int side) {
+        squares = new int[Math.min(side * side, CAPACITY)];
+        recorded = new BitPlane(side);
+    }
+
+    /**
+     * Records that a square changed. Records that every square changed if the log is full.
+     *
+     * @param index The linear index of the square.
+     */
+    public void record(int index) {
+        if (allChanged || recorded.get(index)) return;
+        if (size == squares.length) {
+            allChanged = true;
+            return;
+        }
+        recorded.set(index, true);
+        squares[size++] = index;
+    }
+
+    /**
+     * Records that every square changed.
+     */
+    public void recordAll() {
+        allChanged = true;
+    }
+
+    /**
+     * Checks whether every square must be considered changed.
+     *
+     * @return {@code true} if {@link #recordAll()} was called, or the log filled up, since the last drain.
+     */
+    public boolean isAllChanged() {
+        return allChanged;
+    }
+
+    /**
+     * Checks whether nothing changed since the last drain.
+     *
+     * @return {@code true} if the log is empty.
+     */
+    public boolean isEmpty() {
+        return !allChanged && size == 0;
+    }
+
+    /**
+     * Returns the number of squares recorded since the last drain.
+     *
+     * @return The number of entries; {@code 0} when every square changed.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a recorded square without draining the log.
+     *
+     * @param i The position of the entry, from {@code 0} to {@link #size()} exclusive.
+     * @return The linear index of the square.
+     */
+    public int get(int i) {
+        return squares[i];
+    }
+
+    /**
+     * Returns the squares recorded since the last drain and empties the log.
+     *
+     * <p>When every square changed the result is empty; check {@link #isAllChanged()} first.</p>
+     *
+     * @return The linear indices of the changed squares, in order of their first change.
+     */
+    public int[] drain() {
+        int[] changed = allChanged ? new int[0] : Arrays.copyOf(squares, size);
+        clear();
+        return changed;
+    }
+
+    /**
+     * Empties the log.
+     */
+    public void clear() {
+        if (allChanged) {
+            recorded.clear();
+        } else {
+            for (int i = 0; i < size; i++) {
+                recorded.set(squares[i], false);
+            }
+        }
+        size = 0;
+        allChanged = false;
+    }
+}
@@ -3,18 +3,58 @@ package mvc.model.cave;
 import mvc.model.Global.Directions;
 import mvc.model.Global.SquareStatus;
 
+import java.util.Arrays;
+
 /**
  * Represents a specific implementation of the {@link CaveModel}, defining a map structure.
  * The initial status of all squares in the map is {@link SquareStatus#UNKNOWN}.
+ *
+ * <p>The map also tracks which squares are known to be safe to stand on, and counts the changes
+ * to that set in a version number, so that plans built over the safe squares can tell when they
+ * are out of date.</p>
+ *
+ * <p>The safe squares not visited yet form the <em>frontier</em>, where exploration continues.
+ * It is kept as a {@link BitPlane} with a count per row, updated on every status change and
+ * visit, so checking whether any frontier square is left takes constant time and finding the
+ * nearest one only looks at the rows that can still hold a closer square.</p>
  */
 public class Map extends CaveModel {
 
+    /**
+     * Incremented every time a square becomes safe or stops being safe.
+     */
+    private int safeVersion;
+
+    /**
+     * The safe squares that have not been visited. Allocated with the grid storage.
+     */
+    private BitPlane frontier;
+
+    /**
+     * The number of frontier squares in each row, and in total.
+     */
+    private int[] frontierRowCounts;
+    private int frontierCount;
+
+    /**
+     * The squares known to hold a monster, row-major and transposed (bit {@code column * side + row}),
+     * so that both rows and columns are contiguous bit ranges. Allocated with the grid storage.
+     */
+    private BitPlane monstersByRow;
+    private BitPlane monstersByColumn;
+
+    /**
+     * The number of known monsters in each row and each column.
+     */
+    private int[] monsterRowCounts;
+    private int[] monsterColumnCounts;
+
     /**
      * Constructs a new {@code Map} with the specified grid size.
      *
      * @param caveSide The side length of the map grid.
      */
-    public Map(byte caveSide) {
+    public Map(int caveSide) {
         super(caveSide);
     }
 
@@ -28,23 +68,274 @@ public class Map extends CaveModel {
         return SquareStatus.UNKNOWN;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Changing whether the square is safe also advances the {@link #getSafeVersion() safe version},
+     * and the frontier and line-of-sight indexes follow the new status.</p>
+     */
+    @Override
+    public void setStatus(int index, SquareStatus status) {
+        SquareStatus previous = getStatus(index);
+        super.setStatus(index, status);
+        if (isSafeStatus(previous) != isSafeStatus(status)) {
+            safeVersion++;
+            updateFrontier(index);
+        }
+        if ((previous == SquareStatus.MONSTER) != (status == SquareStatus.MONSTER)) {
+            updateMonster(index, status == SquareStatus.MONSTER);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Visiting a square removes it from the frontier.</p>
+     */
+    @Override
+    public void setVisited(int index, boolean value) {
+        super.setVisited(index, value);
+        updateFrontier(index);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Clearing the map also empties the frontier and line-of-sight indexes and advances the
+     * {@link #getSafeVersion() safe version}.</p>
+     */
+    @Override
+    public void clear() {
+        super.clear();
+        frontier.clear();
+        Arrays.fill(frontierRowCounts, 0);
+        frontierCount = 0;
+        monstersByRow.clear();
+        monstersByColumn.clear();
+        Arrays.fill(monsterRowCounts, 0);
+        Arrays.fill(monsterColumnCounts, 0);
+        safeVersion++;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The frontier and line-of-sight indexes and the {@link #getSafeVersion() safe version}
+     * are copied too.</p>
+     */
+    @Override
+    public void copyFrom(CaveModel source) {
+        super.copyFrom(source);
+        Map map = (Map) source;
+        frontier.copyFrom(map.frontier);
+        System.arraycopy(map.frontierRowCounts, 0, frontierRowCounts, 0, frontierRowCounts.length);
+        frontierCount = map.frontierCount;
+        monstersByRow.copyFrom(map.monstersByRow);
+        monstersByColumn.copyFrom(map.monstersByColumn);
+        System.arraycopy(map.monsterRowCounts, 0, monsterRowCounts, 0, monsterRowCounts.length);
+        System.arraycopy(map.monsterColumnCounts, 0, monsterColumnCounts, 0, monsterColumnCounts.length);
+        safeVersion = map.safeVersion;
+    }
+
+    @Override
+    protected void allocateSquares(int caveSide) {
+        super.allocateSquares(caveSide);
+        frontier = new BitPlane(caveSide);
+        frontierRowCounts = new int[caveSide];
+        frontierCount = 0;
+        monstersByRow = new BitPlane(caveSide);
+        monstersByColumn = new BitPlane(caveSide);
+        monsterRowCounts = new int[caveSide];
+        monsterColumnCounts = new int[caveSide];
+    }
+
+    /**
+     * Checks whether the square at the given linear index is known to be safe to stand on:
+     * it is clean, holds a treasure or is occupied by the player.
+     *
+     * @param index The linear index of the square.
+     * @return {@code true} if the square is known to be safe.
+     */
+    public boolean isSafe(int index) {
+        return isSafeStatus(getStatus(index));
+    }
+
+    /**
+     * Returns a number that changes every time the set of safe squares changes.
+     *
+     * @return The current safe version.
+     */
+    public int getSafeVersion() {
+        return safeVersion;
+    }
+
+    // --------
+    // FRONTIER
+    // --------
+
+    /**
+     * Checks whether any safe square is left to visit.
+     *
+     * @return {@code true} if the frontier is not empty.
+     */
+    public boolean hasFrontier() {
+        return frontierCount > 0;
+    }
+
+    /**
+     * Checks whether the square at the given linear index is safe and not visited yet.
+     *
+     * @param index The linear index of the square.
+     * @return {@code true} if the square is on the frontier.
+     */
+    public boolean isFrontier(int index) {
+        return frontier.get(index);
+    }
+
+    /**
+     * Finds the frontier square closest, in Manhattan distance, to the given square.
+     *
+     * <p>Rows are examined outwards from the square's row, skipping empty rows, until the row
+     * distance alone exceeds the best distance found. Within a row, the closest frontier squares
+     * on either side of the column are found a word at a time, without searching past the ends of
+     * the row. Ties are broken towards the north and then the west.</p>
+     *
+     * @param index The linear index of the square to measure from.
+     * @return The linear index of the closest frontier square, or {@code -1} if the frontier is empty.
+     */
+    public int nearestFrontier(int index) {
+        if (frontierCount == 0) return -1;
+
+        int row = index / caveSide;
+        int col = index % caveSide;
+        int best = -1;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int rowDistance = 0; rowDistance < bestDistance && rowDistance < caveSide; rowDistance++) {
+            int north = closestInRow(row - rowDistance, col);
+            if (north >= 0 && rowDistance + Math.abs(north % caveSide - col) < bestDistance) {
+                best = north;
+                bestDistance = rowDistance + Math.abs(north % caveSide - col);
+            }
+            if (rowDistance == 0) continue;
+
+            int south = closestInRow(row + rowDistance, col);
+            if (south >= 0 && rowDistance + Math.abs(south % caveSide - col) < bestDistance) {
+                best = south;
+                bestDistance = rowDistance + Math.abs(south % caveSide - col);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the frontier square of a row closest to the given column, preferring the west on ties.
+     *
+     * @return The linear index of the square, or {@code -1} if the row is out of bounds or has none.
+     */
+    private int closestInRow(int row, int col) {
+        if (row < 0 || row >= caveSide || frontierRowCounts[row] == 0) return -1;
+
+        int rowStart = row * caveSide;
+        int west = frontier.previousSetBit(rowStart + col, rowStart);
+        int east = frontier.nextSetBit(rowStart + col, rowStart + caveSide);
+        if (west < 0) return east;
+        if (east < 0) return west;
+        return rowStart + col - west <= east - rowStart - col ? west : east;
+    }
+
+    /**
+     * Adds the square to the frontier or removes it, to match its current status and visited flag.
+     */
+    private void updateFrontier(int index) {
+        boolean member = isSafe(index) && !isVisited(index);
+        if (member == frontier.get(index)) return;
+
+        frontier.set(index, member);
+        int delta = member ? 1 : -1;
+        frontierRowCounts[index / caveSide] += delta;
+        frontierCount += delta;
+    }
+
+    // -------------
+    // LINE OF SIGHT
+    // -------------
+
+    /**
+     * Finds the first direction, in {@link Directions} order, in which a square known to hold a
+     * monster is in line with the given square.
+     *
+     * <p>Rows and columns without known monsters are skipped by their counts; otherwise each
+     * direction is one bit search over a contiguous range of the row-major or transposed plane,
+     * bounded by the end of the row or column, so it reads at most {@code caveSide / 64 + 1} words.</p>
+     *
+     * @param index The linear index of the square to look from.
+     * @return The direction, or {@code null} if no known monster is in line with the square.
+     */
+    public Directions getMonsterDirection(int index) {
+        int row = index / caveSide;
+        int col = index % caveSide;
+
+        int rowStart = row * caveSide;
+        int columnStart = col * caveSide;
+        boolean rowHasMonsters = monsterRowCounts[row] > 0;
+        boolean columnHasMonsters = monsterColumnCounts[col] > 0;
+
+        if (columnHasMonsters && row > 0
+                && monstersByColumn.previousSetBit(columnStart + row - 1, columnStart) >= 0) {
+            return Directions.NORTH;
+        }
+        if (rowHasMonsters && col < caveSide - 1
+                && monstersByRow.nextSetBit(index + 1, rowStart + caveSide) >= 0) {
+            return Directions.EAST;
+        }
+        if (columnHasMonsters && row < caveSide - 1
+                && monstersByColumn.nextSetBit(columnStart + row + 1, columnStart + caveSide) >= 0) {
+            return Directions.SOUTH;
+        }
+        if (rowHasMonsters && col > 0
+                && monstersByRow.previousSetBit(index - 1, rowStart) >= 0) {
+            return Directions.WEST;
+        }
+        return null;
+    }
+
+    /**
+     * Adds a square to the line-of-sight indexes or removes it.
+     */
+    private void updateMonster(int index, boolean monster) {
+        int row = index / caveSide;
+        int col = index % caveSide;
+        int delta = monster ? 1 : -1;
+
+        monstersByRow.set(index, monster);
+        monstersByColumn.set(col * caveSide + row, monster);
+        monsterRowCounts[row] += delta;
+        monsterColumnCounts[col] += delta;
+    }
+
+    private static boolean isSafeStatus(SquareStatus status) {
+        return status == SquareStatus.CLEAN || status == SquareStatus.TREASURE || status == SquareStatus.PLAYER;
+    }
+
     /**
      * Retrieves all neighbors of a given square.
      *
      * <p>The neighbors are determined based on valid directions. If a neighbor does not exist
-     * (e.g., it is out of bounds), its corresponding position in the returned array will be {@code null}.</p>
+     * (e.g., it is out of bounds), its corresponding position in the returned array will be {@code null}.
+     * This allocates a new array of handles per call; hot paths iterate over
+     * {@link #getNeighborTable()} instead.</p>
      *
      * @param row The row index of the square.
      * @param col The column index of the square.
      * @return An array of {@link Square} objects representing the neighbors in each direction.
      * The array indexes correspond to the order of {@link Directions}.
      */
-    public Square[] getNeighbors(byte row, byte col) {
+    public Square[] getNeighbors(int row, int col) {
         Square[] neighbors = new Square[Directions.values().length];
-        byte[][] neighborPositions = getNeighborPositions(row, col);
+        int[][] neighborPositions = getNeighborPositions(row, col);
 
         for (Directions direction : Directions.values()) {
-            byte[] position = neighborPositions[direction.ordinal()];
+            int[] position = neighborPositions[direction.ordinal()];
             neighbors[direction.ordinal()] = (position != null) ? getSquare(position[0], position[1]) : null;
         }
 
@@ -0,0 +1,155 @@
+package mvc.model.cave;
+
+import java.nio.ByteBuffer;
+
+import static mvc.model.Global.SquareStatus;
+
+/**
+ * A read-only view of one cave record of a {@link MappedCaveFile}, read in place from the
+ * mapped file.
+ *
+ * <p>Nothing is decoded up front: every query reads the packed statuses straight from the
+ * mapping, so a view is cheap to create and costs no memory per square. Use
+ * {@link #copyInto(Cave)} or {@link #toCave()} to get a {@link Cave} that can be explored.</p>
+ *
+ * <p>Views only read the buffer by absolute position, so they may be shared between threads.</p>
+ *
+ * @author Sergio Vega García
+ * @see CaveFile
+ */
+public final class MappedCave {
+
+    /**
+     * Cached {@link SquareStatus} values, indexed by ordinal.
+     */
+    private static final SquareStatus[] STATUSES = SquareStatus.values();
+
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final int caveSide;
+
+    /**
+     * Constructs a view of the record at the given offset of a mapped buffer.
+     *
+     * @param buffer The mapped buffer holding the record.
+     * @param offset The offset of the record in the buffer.
+     */
+    MappedCave(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.caveSide = buffer.getInt(offset);
+    }
+
+    /**
+     * Returns the side length of the cave.
+     *
+     * @return The side length.
+     */
+    public int getCaveSide() {
+        return caveSide;
+    }
+
+    /**
+     * Returns the number of squares of the cave.
+     *
+     * @return The number of squares.
+     */
+    public int getSquareCount() {
+        return caveSide * caveSide;
+    }
+
+    /**
+     * Returns the number of monsters in the cave.
+     *
+     * @return The count of monsters.
+     */
+    public int getAmountOfMonsters() {
+        return buffer.getInt(offset + 4);
+    }
+
+    /**
+     * Returns the number of treasures in the cave.
+     *
+     * @return The count of treasures.
+     */
+    public int getAmountOfTreasures() {
+        return buffer.getInt(offset + 8);
+    }
+
+    /**
+     * Returns the number of players in the cave.
+     *
+     * @return The count of players.
+     */
+    public int getAmountOfPlayers() {
+        return buffer.getInt(offset + 12);
+    }
+
+    /**
+     * Retrieves the status of the square at the given linear index.
+     *
+     * @param index The linear index of the square.
+     * @return The {@link SquareStatus}, or {@code null} if the square has none.
+     * @throws IllegalStateException If the record holds a status code that does not exist.
+     */
+    public SquareStatus getStatus(int index) {
+        int packed = buffer.get(offset + CaveFile.RECORD_HEADER_BYTES + (index >>> 1));
+        int nibble = (index & 1) == 0 ? packed & 0xF : (packed >>> 4) & 0xF;
+        if (nibble == CaveFile.NO_STATUS) return null;
+        if (nibble >= STATUSES.length) {
+            throw new IllegalStateException("Corrupt cave record, square " + index + " has status code " + nibble);
+        }
+        return STATUSES[nibble];
+    }
+
+    /**
+     * Retrieves the status of the square at the given position.
+     *
+     * @param row    The row of the square.
+     * @param column The column of the square.
+     * @return The {@link SquareStatus}, or {@code null} if the square has none.
+     */
+    public SquareStatus getStatus(int row, int column) {
+        return getStatus(row * caveSide + column);
+    }
+
+    /**
+     * Loads this cave into an existing {@link Cave}, resizing it if needed, so that a
+     * single cave can be reused to go through a whole file.
+     *
+     * <p>Perceptions are not computed; call {@link Cave#updateAllPerceptions()} when needed.</p>
+     *
+     * @param cave The cave to overwrite.
+     * @throws IllegalStateException If the record holds a status code that does not exist.
+     */
+    public void copyInto(Cave cave) {
+        if (cave.getCaveSide() != caveSide) {
+            cave.setCaveSide(caveSide);
+        } else {
+            cave.clear();
+        }
+
+        int squareCount = getSquareCount();
+        for (int index = 0; index < squareCount; index++) {
+            SquareStatus status = getStatus(index);
+            if (status != SquareStatus.CLEAN) {
+                cave.setStatus(index, status);
+            }
+        }
+        cave.adjustAmountOfMonsters(getAmountOfMonsters());
+        cave.adjustAmountOfTreasures(getAmountOfTreasures());
+        cave.adjustAmountOfPlayers(getAmountOfPlayers());
+    }
+
+    /**
+     * Materializes this cave as a new {@link Cave}.
+     *
+     * @return The new cave.
+     * @throws IllegalStateException If the record holds a status code that does not exist.
+     */
+    public Cave toCave() {
+        Cave cave = new Cave(caveSide);
+        copyInto(cave);
+        return cave;
+    }
+}
@@ -0,0 +1,166 @@
+package mvc.model.cave;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static mvc.model.Global.Cave_Constants;
+
+/**
+ * A {@link CaveFile} mapped into memory, giving random access to its caves without reading or
+ * parsing them.
+ *
+ * <p>Opening a file maps it read-only and walks the record headers once to locate every record;
+ * the squares themselves are only touched when a cave is queried. The operating system pages the
+ * file in on demand and shares it between processes, so corpora far larger than the heap can be
+ * used. Files over 2 GiB are mapped as several segments, each holding whole records.</p>
+ *
+ * <h2>Usage</h2>
+ * <pre>{@code
+ * MappedCaveFile file = MappedCaveFile.open(path);
+ * Cave cave = new Cave(Cave_Constants.MIN_SIDE);
+ * for (int i = 0; i < file.size(); i++) {
+ *     file.get(i).copyInto(cave);
+ *     ...
+ * }
+ * }</pre>
+ *
+ * <p>The mapping stays valid until the object is garbage collected; no file handle is kept open.</p>
+ *
+ * @author Sergio Vega García
+ */
+public final class MappedCaveFile {
+
+    /**
+     * The largest segment that can be mapped at once.
+     */
+    private static final long MAX_SEGMENT_BYTES = Integer.MAX_VALUE;
+
+    /**
+     * The mapped segments of the file.
+     */
+    private final ByteBuffer[] segments;
+
+    /**
+     * For each record, the index of its segment and its offset within that segment.
+     */
+    private final int[] recordSegments;
+    private final int[] recordOffsets;
+
+    private MappedCaveFile(ByteBuffer[] segments, int[] recordSegments, int[] recordOffsets) {
+        this.segments = segments;
+        this.recordSegments = recordSegments;
+        this.recordOffsets = recordOffsets;
+    }
+
+    /**
+     * Maps a cave file and locates its records.
+     *
+     * @param path The file to open.
+     * @return The mapped file.
+     * @throws IOException If the file cannot be read, is not a cave file, has an unsupported
+     *                     version or is truncated.
+     */
+    public static MappedCaveFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < CaveFile.HEADER_BYTES) {
+                throw new IOException("Not a cave file: " + path);
+            }
+
+            List<ByteBuffer> segments = new ArrayList<>();
+            long segmentStart = 0;
+            MappedByteBuffer segment = map(channel, segmentStart, fileSize);
+            segments.add(segment);
+
+            if (segment.getInt(0) != CaveFile.MAGIC) {
+                throw new IOException("Not a cave file: " + path);
+            }
+            int version = segment.getInt(4);
+            if (version != CaveFile.VERSION) {
+                throw new IOException("Unsupported cave file version " + version + ": " + path);
+            }
+            // Every record takes at least the size of the smallest cave, which bounds the count
+            // before anything is allocated for it
+            int count = segment.getInt(8);
+            long maxCount = (fileSize - CaveFile.HEADER_BYTES) / CaveFile.recordSize(Cave_Constants.MIN_SIDE);
+            if (count < 0 || count > maxCount) {
+                throw new IOException("Corrupt cave file, header claims " + count + " records: " + path);
+            }
+
+            int[] recordSegments = new int[count];
+            int[] recordOffsets = new int[count];
+            long position = CaveFile.HEADER_BYTES;
+            for (int i = 0; i < count; i++) {
+                if (position + CaveFile.RECORD_HEADER_BYTES > fileSize) {
+                    throw new IOException("Truncated cave file, record " + i + ": " + path);
+                }
+                if (position + CaveFile.RECORD_HEADER_BYTES > segmentStart + segment.capacity()) {
+                    segmentStart = position;
+                    segment = map(channel, segmentStart, fileSize);
+                    segments.add(segment);
+                }
+
+                int side = segment.getInt((int) (position - segmentStart));
+                if (side < Cave_Constants.MIN_SIDE || side > Cave_Constants.MAX_SIDE) {
+                    throw new IOException("Corrupt cave file, record " + i + " has side " + side + ": " + path);
+                }
+                long size = CaveFile.recordSize(side);
+                if (position + size > fileSize) {
+                    throw new IOException("Truncated cave file, record " + i + ": " + path);
+                }
+                if (position + size > segmentStart + segment.capacity()) {
+                    segmentStart = position;
+                    segment = map(channel, segmentStart, fileSize);
+                    segments.add(segment);
+                }
+
+                recordSegments[i] = segments.size() - 1;
+                recordOffsets[i] = (int) (position - segmentStart);
+                position += size;
+            }
+
+            return new MappedCaveFile(segments.toArray(new ByteBuffer[0]), recordSegments, recordOffsets);
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long start, long fileSize) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(fileSize - start, MAX_SEGMENT_BYTES));
+    }
+
+    /**
+     * Returns the number of caves in the file.
+     *
+     * @return The number of caves.
+     */
+    public int size() {
+        return recordOffsets.length;
+    }
+
+    /**
+     * Returns a read-only view of a cave, read in place from the mapping.
+     *
+     * @param i The position of the cave in the file.
+     * @return The view of the cave.
+     * @throws IndexOutOfBoundsException If there is no such cave.
+     */
+    public MappedCave get(int i) {
+        return new MappedCave(segments[recordSegments[i]], recordOffsets[i]);
+    }
+
+    /**
+     * Materializes a cave as a new {@link Cave}.
+     *
+     * @param i The position of the cave in the file.
+     * @return The new cave.
+     * @throws IndexOutOfBoundsException If there is no such cave.
+     */
+    public Cave toCave(int i) {
+        return get(i).toCave();
+    }
+}
@@ -0,0 +1,149 @@
+package mvc.model.cave;
+
+import mvc.model.Global.Directions;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The neighbors of every square of a grid with a given side length.
+ *
+ * <p>Whether a square has a neighbor in a direction only depends on whether it lies on the matching
+ * border, so it is computed from the linear index: a comparison against the first or last row, or
+ * the column against the first or last one. The neighbor itself is found by adding a fixed offset
+ * to the linear index, so lookups are a test and an addition, with no allocation and no per-square
+ * storage. The column is taken with a multiplication by a precomputed reciprocal of the side
+ * instead of a division.</p>
+ *
+ * <p>Tables are immutable and cached by side length, so a cave and the maps of all its players,
+ * which have the same side length, use a single table, and grids of different sides can alternate
+ * without rebuilding them.</p>
+ *
+ * @author Sergio Vega García
+ */
+public final class NeighborTable {
+
+    /**
+     * The number of neighbor directions, one per {@link Directions} value.
+     */
+    public static final int DIRECTIONS = Directions.values().length;
+
+    private static final int NORTH = Directions.NORTH.ordinal();
+    private static final int EAST = Directions.EAST.ordinal();
+    private static final int SOUTH = Directions.SOUTH.ordinal();
+
+    /**
+     * The largest side for which the reciprocal gives exact rows.
+     */
+    private static final int MAX_SIDE = 1 << 15;
+
+    /**
+     * The fixed-point precision of the reciprocal of the side. Exact for every index of a grid of
+     * up to {@link #MAX_SIDE} squares per side, without overflowing a {@code long}.
+     */
+    private static final int RECIPROCAL_BITS = 45;
+
+    /**
+     * The tables built so far, by side length.
+     */
+    private static final ConcurrentHashMap<Integer, NeighborTable> TABLES = new ConcurrentHashMap<>();
+
+    /**
+     * The side length of the grid.
+     */
+    private final int side;
+
+    /**
+     * The first linear index of the last row.
+     */
+    private final int lastRowStart;
+
+    /**
+     * {@code 2^RECIPROCAL_BITS / side}, rounded up.
+     */
+    private final long reciprocal;
+
+    /**
+     * The linear index offset of the neighbor in each direction, indexed by {@link Directions} ordinal.
+     */
+    private final int[] offsets;
+
+    /**
+     * Builds the table for a grid with the given side length.
+     *
+     * @param side The side length of the grid.
+     * @throws IllegalArgumentException If the side is not between {@code 1} and {@link #MAX_SIDE}.
+     */
+    private NeighborTable(int side) {
+        if (side <= 0 || side > MAX_SIDE) {
+            throw new IllegalArgumentException("Unsupported side length: " + side);
+        }
+        this.side = side;
+        this.lastRowStart = (side - 1) * side;
+        this.reciprocal = (1L << RECIPROCAL_BITS) / side + 1;
+        this.offsets = new int[DIRECTIONS];
+        offsets[NORTH] = -side;
+        offsets[EAST] = 1;
+        offsets[SOUTH] = side;
+        offsets[Directions.WEST.ordinal()] = -1;
+    }
+
+    /**
+     * Returns the neighbor table for a grid with the given side length.
+     *
+     * @param side The side length of the grid.
+     * @return The shared table for that side.
+     * @throws IllegalArgumentException If the side is not between {@code 1} and {@code 2^15}.
+     */
+    public static NeighborTable forSide(int side) {
+        return TABLES.computeIfAbsent(side, NeighborTable::new);
+    }
+
+    /**
+     * Returns the side length of the grid this table describes.
+     *
+     * @return The side length.
+     */
+    public int getSide() {
+        return side;
+    }
+
+    /**
+     * Returns the linear index of the neighbor of a square in the given direction.
+     *
+     * @param index     The linear index of the square.
+     * @param direction The {@link Directions} ordinal of the direction.
+     * @return The linear index of the neighbor, or {@code -1} if it is out of bounds.
+     */
+    public int neighbor(int index, int direction) {
+        boolean exists;
+        if (direction == NORTH) {
+            exists = index >= side;
+        } else if (direction == SOUTH) {
+            exists = index < lastRowStart;
+        } else if (direction == EAST) {
+            exists = columnOf(index) != side - 1;
+        } else {
+            exists = columnOf(index) != 0;
+        }
+        return exists ? index + offsets[direction] : -1;
+    }
+
+    /**
+     * Returns the column of a linear index.
+     */
+    private int columnOf(int index) {
+        int row = (int) ((index * reciprocal) >>> RECIPROCAL_BITS);
+        return index - row * side;
+    }
+
+    /**
+     * Returns the linear index of the neighbor of a square in the given direction.
+     *
+     * @param index     The linear index of the square.
+     * @param direction The direction.
+     * @return The linear index of the neighbor, or {@code -1} if it is out of bounds.
+     */
+    public int neighbor(int index, Directions direction) {
+        return neighbor(index, direction.ordinal());
+    }
+}
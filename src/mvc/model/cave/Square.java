@@ -3,37 +3,33 @@ package mvc.model.cave;
 import mvc.model.Global.SquareStatus;
 import mvc.model.Perceptions;
 
+/**
+ * A handle to a single square of a {@link CaveModel}.
+ *
+ * <p>A {@code Square} holds no state of its own: every accessor reads or writes the grid storage
+ * of the cave model it was obtained from, so two handles to the same position always agree.</p>
+ */
 public class Square {
 
     /**
-     * The current status of this square.
+     * The cave model that stores this square.
      */
-    private SquareStatus status;
+    private final CaveModel caveModel;
 
     /**
-     * The perceptions associated with this square.
+     * The linear index of this square in the cave model.
      */
-    private Perceptions perceptions;
+    private final int index;
 
     /**
-     * Indicates whether this square has been visited.
-     */
-    private boolean visited;
-
-    /**
-     * Indicates whether this square contains a treasure.
-     */
-    private boolean hasTreasure;
-
-    /**
-     * Constructs a new {@code Square} with the specified status.
+     * Constructs a new {@code Square} handle for the given position of a cave model.
      *
-     * @param status The initial status of this square.
+     * @param caveModel The cave model that stores the square.
+     * @param index     The linear index of the square.
      */
-    public Square(SquareStatus status) {
-        this.status = status;
-        perceptions = null;
-        visited = false;
+    Square(CaveModel caveModel, int index) {
+        this.caveModel = caveModel;
+        this.index = index;
     }
 
     /**
@@ -42,7 +38,7 @@ public class Square {
      * @return The current {@link SquareStatus}.
      */
     public SquareStatus getStatus() {
-        return status;
+        return caveModel.getStatus(index);
     }
 
     /**
@@ -54,8 +50,7 @@ public class Square {
      * @param status The new {@link SquareStatus}.
      */
     public void setStatus(SquareStatus status) {
-        this.status = status;
-        if (status == SquareStatus.TREASURE) hasTreasure = true;
+        caveModel.setStatus(index, status);
     }
 
     /**
@@ -64,7 +59,7 @@ public class Square {
      * @return {@code true} if this square has a treasure, otherwise {@code false}.
      */
     public boolean hasTreasure() {
-        return hasTreasure;
+        return caveModel.hasTreasure(index);
     }
 
     /**
@@ -73,7 +68,7 @@ public class Square {
      * @param hasTreasure {@code true} to mark this square as containing a treasure.
      */
     public void setHasTreasure(boolean hasTreasure) {
-        this.hasTreasure = hasTreasure;
+        caveModel.setHasTreasure(index, hasTreasure);
     }
 
     /**
@@ -82,7 +77,7 @@ public class Square {
      * @return The {@link Perceptions} object for this square.
      */
     public Perceptions getPerceptions() {
-        return perceptions;
+        return caveModel.getPerceptions(index);
     }
 
     /**
@@ -91,7 +86,7 @@ public class Square {
      * @param perceptions The new {@link Perceptions} object to associate with this square.
      */
     public void setPerceptions(Perceptions perceptions) {
-        this.perceptions = perceptions;
+        caveModel.setPerceptions(index, perceptions);
     }
 
     /**
@@ -100,7 +95,7 @@ public class Square {
      * @return {@code true} if the square has not been visited, otherwise {@code false}.
      */
     public boolean notVisited() {
-        return !visited;
+        return !caveModel.isVisited(index);
     }
 
     /**
@@ -109,6 +104,6 @@ public class Square {
      * @param value {@code true} to mark this square as visited.
      */
     public void setVisited(boolean value) {
-        visited = value;
+        caveModel.setVisited(index, value);
     }
 }
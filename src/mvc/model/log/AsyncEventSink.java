@@ -0,0 +1,213 @@
+package mvc.model.log;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An {@link EventSink} that queues events in a bounded ring buffer and writes them to a stream
+ * in batches, on a background thread.
+ *
+ * <p>Emitting never takes a lock and never waits for the stream: a producer claims a slot with a
+ * compare-and-set on the tail and publishes the event with a release store, which the writer
+ * thread picks up with an acquire load. The writer wakes up every few milliseconds, or when
+ * the sink is closed, formats every published event into one buffer and writes it with a single
+ * call, so the stream's lock is taken once per batch instead of once per event.</p>
+ *
+ * <p>When the buffer is full, new events are dropped rather than blocking the caller; the number
+ * of dropped events is reported in the output and by {@link #getDropped()}. Events are written
+ * in the order their slots were claimed, one per line, as {@code LEVEL message}.</p>
+ *
+ * <h2>Usage</h2>
+ * <pre>{@code
+ * AsyncEventSink sink = new AsyncEventSink(System.out);
+ * model.setEventSink(sink);
+ * ...
+ * sink.close();   // writes what is left
+ * }</pre>
+ *
+ * @author Sergio Vega García
+ */
+public final class AsyncEventSink implements EventSink, AutoCloseable {
+
+    /**
+     * The default number of events the buffer holds.
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 12;
+
+    /**
+     * How long the writer waits between batches.
+     */
+    private static final long FLUSH_INTERVAL = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final PrintStream out;
+    private final EventLevel threshold;
+
+    // The ring buffer: a slot holds an event once it is published, and null once written out
+    private final AtomicReferenceArray<LogEvent> events;
+    private final EventLevel[] levels;
+    private final int mask;
+
+    /**
+     * The number of slots ever claimed by producers.
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * The number of slots ever freed by the writer. Only written by the writer thread.
+     */
+    private volatile long head;
+
+    private final AtomicLong dropped = new AtomicLong();
+    private long droppedReported;
+
+    private volatile boolean closed;
+    private final Thread writer;
+
+    /**
+     * Constructs a sink that writes events of level {@link EventLevel#INFO} and above to a stream,
+     * with a buffer of {@link #DEFAULT_CAPACITY} events.
+     *
+     * @param out The stream to write to.
+     */
+    public AsyncEventSink(PrintStream out) {
+        this(out, EventLevel.INFO, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a sink and starts its writer thread.
+     *
+     * @param out       The stream to write to.
+     * @param threshold The lowest level written.
+     * @param capacity  The number of events the buffer holds, a power of two.
+     * @throws IllegalArgumentException If the capacity is not a positive power of two.
+     */
+    public AsyncEventSink(PrintStream out, EventLevel threshold, int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.out = out;
+        this.threshold = threshold;
+        events = new AtomicReferenceArray<>(capacity);
+        levels = new EventLevel[capacity];
+        mask = capacity - 1;
+
+        writer = new Thread(this::writeEvents, "event-sink");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public boolean isEnabled(EventLevel level) {
+        return level.compareTo(threshold) >= 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Events emitted once the sink is closed, or while the buffer is full, are dropped.</p>
+     */
+    @Override
+    public void emit(EventLevel level, LogEvent event) {
+        if (!isEnabled(level) || closed) return;
+
+        long slot;
+        do {
+            slot = tail.get();
+            if (slot - head > mask) {
+                dropped.incrementAndGet();
+                return;
+            }
+        } while (!tail.compareAndSet(slot, slot + 1));
+
+        int index = (int) slot & mask;
+        levels[index] = level;
+        events.lazySet(index, event);
+    }
+
+    /**
+     * Returns the number of events dropped because the buffer was full.
+     *
+     * @return The number of dropped events.
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Writes the events still in the buffer and stops the writer thread. Waits for it to finish.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // -----------------------
+    // HELPER METHODS - WRITER
+    // -----------------------
+
+    /**
+     * The body of the writer thread.
+     */
+    private void writeEvents() {
+        StringBuilder batch = new StringBuilder();
+        while (true) {
+            // Read before draining, so that everything emitted before closing is written
+            boolean closing = closed;
+            if (!drain(batch)) {
+                if (closing) return;
+                LockSupport.parkNanos(this, FLUSH_INTERVAL);
+            }
+        }
+    }
+
+    /**
+     * Formats every published event, frees their slots and writes them out.
+     *
+     * @return {@code true} if anything was written.
+     */
+    private boolean drain(StringBuilder batch) {
+        long next = head;
+        while (true) {
+            int index = (int) next & mask;
+            LogEvent event = events.get(index);
+            if (event == null) break;
+
+            append(batch, levels[index], event);
+            levels[index] = null;
+            events.set(index, null);
+            next++;
+        }
+        head = next;
+
+        long droppedNow = dropped.get();
+        if (droppedNow != droppedReported) {
+            append(batch, EventLevel.WARN, new LogEvent.Notice((droppedNow - droppedReported) + " events dropped"));
+            droppedReported = droppedNow;
+        }
+
+        if (batch.length() == 0) return false;
+        out.print(batch);
+        out.flush();
+        batch.setLength(0);
+        return true;
+    }
+
+    private static void append(StringBuilder batch, EventLevel level, LogEvent event) {
+        String message;
+        try {
+            message = event.message();
+        } catch (RuntimeException e) {
+            message = event.getClass().getSimpleName() + " (" + e + ")";
+        }
+        batch.append(level).append(' ').append(message).append(System.lineSeparator());
+    }
+}
@@ -0,0 +1,10 @@
+package mvc.model.log;
+
+/**
+ * The severity of a {@link LogEvent}, from the least to the most severe.
+ *
+ * @author Sergio Vega García
+ */
+public enum EventLevel {
+    DEBUG, INFO, WARN, ERROR
+}
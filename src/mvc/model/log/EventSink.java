@@ -0,0 +1,48 @@
+package mvc.model.log;
+
+/**
+ * Receives the {@link LogEvent}s reported by the model and the controller.
+ *
+ * <p>Emitting must never block the caller for long. Callers check {@link #isEnabled(EventLevel)}
+ * before building an event, so that with the {@link #NONE no-op sink} the check is a constant
+ * the JIT folds away, together with the event and the call:</p>
+ * <pre>{@code
+ * if (events.isEnabled(EventLevel.INFO)) {
+ *     events.emit(EventLevel.INFO, new LogEvent.TreasureCollected(row, column));
+ * }
+ * }</pre>
+ *
+ * <h2>Implementations</h2>
+ * <ul>
+ *   <li>{@link NoOpEventSink}: discards everything. The default of the model.</li>
+ *   <li>{@link AsyncEventSink}: queues events in a ring buffer and writes them in batches on a
+ *   background thread.</li>
+ * </ul>
+ *
+ * <p>Implementations must be thread-safe.</p>
+ *
+ * @author Sergio Vega García
+ */
+public interface EventSink {
+
+    /**
+     * The sink that discards every event.
+     */
+    EventSink NONE = NoOpEventSink.INSTANCE;
+
+    /**
+     * Checks whether events of a level are recorded.
+     *
+     * @param level The level.
+     * @return {@code true} if {@link #emit(EventLevel, LogEvent)} would record events of that level.
+     */
+    boolean isEnabled(EventLevel level);
+
+    /**
+     * Records an event. Events of a level that is not {@link #isEnabled(EventLevel) enabled} are ignored.
+     *
+     * @param level The level of the event.
+     * @param event The event.
+     */
+    void emit(EventLevel level, LogEvent event);
+}
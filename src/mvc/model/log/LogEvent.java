@@ -0,0 +1,110 @@
+package mvc.model.log;
+
+import static mvc.model.Global.Directions;
+import static mvc.model.Global.PerceptionType;
+
+/**
+ * An event reported to an {@link EventSink}.
+ *
+ * <p>Events are small immutable records that only hold the values they describe; the text is
+ * only built by {@link #message()} when a sink actually writes the event.</p>
+ *
+ * @author Sergio Vega García
+ */
+public sealed interface LogEvent {
+
+    /**
+     * Describes the event in a human-readable form.
+     *
+     * @return The message.
+     */
+    String message();
+
+    /**
+     * A player shot an arrow from its square.
+     *
+     * @param row       the row of the player
+     * @param column    the column of the player
+     * @param direction the direction of the arrow
+     */
+    record ArrowShot(int row, int column, Directions direction) implements LogEvent {
+        @Override
+        public String message() {
+            return "Shooting an arrow to the " + direction;
+        }
+    }
+
+    /**
+     * An arrow killed a monster.
+     *
+     * @param row    the row of the monster
+     * @param column the column of the monster
+     */
+    record MonsterKilled(int row, int column) implements LogEvent {
+        @Override
+        public String message() {
+            return PerceptionType.GROAN + ": Monster defeated!";
+        }
+    }
+
+    /**
+     * An arrow hit a wall without killing anything.
+     *
+     * @param row       the row of the player that shot it
+     * @param column    the column of the player that shot it
+     * @param direction the direction of the arrow
+     */
+    record ArrowMissed(int row, int column, Directions direction) implements LogEvent {
+        @Override
+        public String message() {
+            return PerceptionType.BANG + ": Arrow hit a wall!";
+        }
+    }
+
+    /**
+     * A player picked up the treasure.
+     *
+     * @param row    the row of the treasure
+     * @param column the column of the treasure
+     */
+    record TreasureCollected(int row, int column) implements LogEvent {
+        @Override
+        public String message() {
+            return "Treasure collected!";
+        }
+    }
+
+    /**
+     * A player left the cave.
+     *
+     * @param row    the row of the exit
+     * @param column the column of the exit
+     */
+    record CaveLeft(int row, int column) implements LogEvent {
+        @Override
+        public String message() {
+            return "Player has left the cave.";
+        }
+    }
+
+    /**
+     * A message for the user, such as a notice or a rejected action.
+     *
+     * @param message the message
+     */
+    record Notice(String message) implements LogEvent {
+    }
+
+    /**
+     * An unexpected failure.
+     *
+     * @param context what was being done
+     * @param error   the cause of the failure
+     */
+    record Failure(String context, Throwable error) implements LogEvent {
+        @Override
+        public String message() {
+            return context + ": " + error.getMessage();
+        }
+    }
+}
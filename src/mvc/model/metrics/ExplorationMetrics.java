@@ -0,0 +1,371 @@
+package mvc.model.metrics;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Records where the time of an exploration goes, turn by turn and player by player.
+ *
+ * <p>Every turn of a player is one sample of each {@link Metric}: the time spent in each phase of
+ * the turn, the squares the knowledge update inferred and, optionally, the bytes allocated. The
+ * samples go into one {@link Histogram} per player and metric, so memory does not grow with the
+ * length of the run and recording a turn costs four clock reads and a few counter increments.
+ * Allocation tracking asks the JVM for the thread's allocated bytes twice per turn and is off
+ * unless requested. For long batch runs, a sample interval measures only one turn in every
+ * {@code n} of each player, which divides the cost by {@code n} and keeps the distributions.</p>
+ *
+ * <h2>Usage</h2>
+ * <pre>{@code
+ * ExplorationMetrics metrics = new ExplorationMetrics(true);
+ * model.setMetrics(metrics);
+ * engine.run(model);
+ * metrics.writeCsv(System.out);
+ * }</pre>
+ *
+ * <p>The metrics are not thread-safe: give each thread its own and {@link #add(ExplorationMetrics)}
+ * them together when done. Without metrics, players use {@link StepMetrics#NONE} and measure nothing.</p>
+ *
+ * @author Sergio Vega García
+ */
+public final class ExplorationMetrics {
+
+    /**
+     * What is measured in every turn.
+     */
+    public enum Metric {
+        PERCEIVE_NANOS("getPerceptions", "ns"),
+        UPDATE_NANOS("updateKnowledge", "ns"),
+        DECIDE_NANOS("makeDecision", "ns"),
+        INFERRED_SQUARES("inferredSquares", "squares"),
+        ALLOCATED_BYTES("allocated", "bytes");
+
+        private final String label;
+        private final String unit;
+
+        Metric(String label, String unit) {
+            this.label = label;
+            this.unit = unit;
+        }
+
+        /**
+         * Returns the name of the metric in the dumps.
+         *
+         * @return The label.
+         */
+        public String getLabel() {
+            return label;
+        }
+
+        /**
+         * Returns the unit of the metric.
+         *
+         * @return The unit.
+         */
+        public String getUnit() {
+            return unit;
+        }
+    }
+
+    /**
+     * Cached {@link Metric} values, indexed by ordinal.
+     */
+    private static final Metric[] METRICS = Metric.values();
+
+    /**
+     * The percentiles reported by the dumps.
+     */
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final String[] PERCENTILE_LABELS = {"p50", "p90", "p99", "p999"};
+
+    /**
+     * Reads the allocated bytes of the current thread, or {@code null} if allocations are not tracked.
+     */
+    private final com.sun.management.ThreadMXBean allocations;
+
+    /**
+     * One turn in every {@code sampleInterval} of each player is measured.
+     */
+    private final int sampleInterval;
+
+    private final List<PlayerMetrics> players = new ArrayList<>();
+
+    /**
+     * Constructs metrics that measure every turn and do not track allocations.
+     */
+    public ExplorationMetrics() {
+        this(false, 1);
+    }
+
+    /**
+     * Constructs metrics that measure every turn.
+     *
+     * @param trackAllocations whether to measure the bytes allocated in every turn
+     * @throws UnsupportedOperationException If allocations must be tracked but the JVM cannot measure them.
+     */
+    public ExplorationMetrics(boolean trackAllocations) {
+        this(trackAllocations, 1);
+    }
+
+    /**
+     * Constructs metrics.
+     *
+     * @param trackAllocations whether to measure the bytes allocated in every measured turn
+     * @param sampleInterval   measure one turn in every {@code sampleInterval} of each player
+     * @throws IllegalArgumentException      If the sample interval is not positive.
+     * @throws UnsupportedOperationException If allocations must be tracked but the JVM cannot measure them.
+     */
+    public ExplorationMetrics(boolean trackAllocations, int sampleInterval) {
+        if (sampleInterval <= 0) {
+            throw new IllegalArgumentException("The sample interval must be positive: " + sampleInterval);
+        }
+        this.sampleInterval = sampleInterval;
+        if (!trackAllocations) {
+            allocations = null;
+            return;
+        }
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean sunThreads)
+                || !sunThreads.isThreadAllocatedMemorySupported()) {
+            throw new UnsupportedOperationException("This JVM cannot measure allocated memory per thread");
+        }
+        if (!sunThreads.isThreadAllocatedMemoryEnabled()) {
+            sunThreads.setThreadAllocatedMemoryEnabled(true);
+        }
+        allocations = sunThreads;
+    }
+
+    /**
+     * Checks whether the bytes allocated in every turn are measured.
+     *
+     * @return {@code true} if allocations are tracked.
+     */
+    public boolean isTrackingAllocations() {
+        return allocations != null;
+    }
+
+    /**
+     * Returns how many turns of each player go by for every measured one.
+     *
+     * @return The sample interval, {@code 1} if every turn is measured.
+     */
+    public int getSampleInterval() {
+        return sampleInterval;
+    }
+
+    /**
+     * Returns the metrics a player reports its turns to.
+     *
+     * @param player The position of the player in the model.
+     * @return The player's metrics.
+     */
+    public StepMetrics player(int player) {
+        while (players.size() <= player) {
+            players.add(new PlayerMetrics(allocations, sampleInterval));
+        }
+        return players.get(player);
+    }
+
+    /**
+     * Returns the number of players with metrics.
+     *
+     * @return The number of players.
+     */
+    public int getPlayerCount() {
+        return players.size();
+    }
+
+    /**
+     * Returns the histogram of a metric for one player.
+     *
+     * @param player The position of the player in the model.
+     * @param metric The metric.
+     * @return The live histogram.
+     * @throws IndexOutOfBoundsException If the player has no metrics.
+     */
+    public Histogram getHistogram(int player, Metric metric) {
+        return players.get(player).histograms[metric.ordinal()];
+    }
+
+    /**
+     * Returns the histogram of a metric over every player.
+     *
+     * @param metric The metric.
+     * @return A new histogram holding the samples of every player.
+     */
+    public Histogram getTotal(Metric metric) {
+        Histogram total = new Histogram();
+        for (PlayerMetrics player : players) {
+            total.add(player.histograms[metric.ordinal()]);
+        }
+        return total;
+    }
+
+    /**
+     * Returns the number of turns measured over every player.
+     *
+     * @return The number of measured turns.
+     */
+    public long getTurns() {
+        long turns = 0;
+        for (PlayerMetrics player : players) {
+            turns += player.histograms[Metric.PERCEIVE_NANOS.ordinal()].getCount();
+        }
+        return turns;
+    }
+
+    /**
+     * Adds the samples of other metrics to these, player by player. The metrics should have the
+     * same sample interval.
+     *
+     * @param other The metrics to add.
+     */
+    public void add(ExplorationMetrics other) {
+        for (int i = 0; i < other.players.size(); i++) {
+            PlayerMetrics player = (PlayerMetrics) player(i);
+            for (int metric = 0; metric < METRICS.length; metric++) {
+                player.histograms[metric].add(other.players.get(i).histograms[metric]);
+            }
+        }
+    }
+
+    /**
+     * Forgets every sample, keeping the players.
+     */
+    public void reset() {
+        for (PlayerMetrics player : players) {
+            for (Histogram histogram : player.histograms) {
+                histogram.reset();
+            }
+        }
+    }
+
+    // -----
+    // DUMPS
+    // -----
+
+    /**
+     * Writes a summary of every metric as CSV: one row per player and metric, then one row per
+     * metric over all players, with {@code all} as the player.
+     *
+     * @param out Where to write.
+     * @throws IOException If writing fails.
+     */
+    public void writeCsv(Appendable out) throws IOException {
+        out.append("player,metric,unit,count,min,mean");
+        for (String label : PERCENTILE_LABELS) {
+            out.append(',').append(label);
+        }
+        out.append(",max\n");
+
+        for (int player = 0; player < players.size(); player++) {
+            for (Metric metric : METRICS) {
+                writeCsvRow(out, Integer.toString(player), metric, getHistogram(player, metric));
+            }
+        }
+        for (Metric metric : METRICS) {
+            writeCsvRow(out, "all", metric, getTotal(metric));
+        }
+    }
+
+    /**
+     * Writes a summary of every metric as a JSON object, per player and over all players.
+     *
+     * @param out Where to write.
+     * @throws IOException If writing fails.
+     */
+    public void writeJson(Appendable out) throws IOException {
+        out.append("{\"turns\":").append(Long.toString(getTurns()))
+                .append(",\"sampleInterval\":").append(Integer.toString(sampleInterval))
+                .append(",\"allocationsTracked\":").append(Boolean.toString(isTrackingAllocations()))
+                .append(",\"players\":[");
+        for (int player = 0; player < players.size(); player++) {
+            if (player > 0) out.append(',');
+            out.append('{');
+            for (Metric metric : METRICS) {
+                if (metric.ordinal() > 0) out.append(',');
+                writeJsonMetric(out, metric, getHistogram(player, metric));
+            }
+            out.append('}');
+        }
+        out.append("],\"all\":{");
+        for (Metric metric : METRICS) {
+            if (metric.ordinal() > 0) out.append(',');
+            writeJsonMetric(out, metric, getTotal(metric));
+        }
+        out.append("}}\n");
+    }
+
+    private static void writeCsvRow(Appendable out, String player, Metric metric, Histogram histogram) throws IOException {
+        out.append(player).append(',').append(metric.getLabel()).append(',').append(metric.getUnit())
+                .append(',').append(Long.toString(histogram.getCount()))
+                .append(',').append(Long.toString(histogram.getMin()))
+                .append(',').append(String.format(Locale.ROOT, "%.1f", histogram.getMean()));
+        for (double percentile : PERCENTILES) {
+            out.append(',').append(Long.toString(histogram.getValueAtPercentile(percentile)));
+        }
+        out.append(',').append(Long.toString(histogram.getMax())).append('\n');
+    }
+
+    private static void writeJsonMetric(Appendable out, Metric metric, Histogram histogram) throws IOException {
+        out.append('"').append(metric.getLabel()).append("\":{\"unit\":\"").append(metric.getUnit())
+                .append("\",\"count\":").append(Long.toString(histogram.getCount()))
+                .append(",\"min\":").append(Long.toString(histogram.getMin()))
+                .append(",\"mean\":").append(String.format(Locale.ROOT, "%.1f", histogram.getMean()));
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            out.append(",\"").append(PERCENTILE_LABELS[i]).append("\":")
+                    .append(Long.toString(histogram.getValueAtPercentile(PERCENTILES[i])));
+        }
+        out.append(",\"max\":").append(Long.toString(histogram.getMax())).append('}');
+    }
+
+    /**
+     * The histograms of one player.
+     */
+    private static final class PlayerMetrics implements StepMetrics {
+
+        private final Histogram[] histograms = new Histogram[METRICS.length];
+        private final com.sun.management.ThreadMXBean allocations;
+        private final int sampleInterval;
+
+        // The turns left until the next measured one
+        private int untilSample;
+
+        PlayerMetrics(com.sun.management.ThreadMXBean allocations, int sampleInterval) {
+            this.allocations = allocations;
+            this.sampleInterval = sampleInterval;
+            for (int metric = 0; metric < METRICS.length; metric++) {
+                histograms[metric] = new Histogram();
+            }
+        }
+
+        @Override
+        public boolean measureTurn() {
+            if (untilSample > 0) {
+                untilSample--;
+                return false;
+            }
+            untilSample = sampleInterval - 1;
+            return true;
+        }
+
+        @Override
+        public long allocatedBytes() {
+            return allocations == null ? 0 : allocations.getCurrentThreadAllocatedBytes();
+        }
+
+        @Override
+        public void recordTurn(long perceiveNanos, long updateNanos, long decideNanos, int inferredSquares, long allocatedBytes) {
+            histograms[Metric.PERCEIVE_NANOS.ordinal()].record(perceiveNanos);
+            histograms[Metric.UPDATE_NANOS.ordinal()].record(updateNanos);
+            histograms[Metric.DECIDE_NANOS.ordinal()].record(decideNanos);
+            histograms[Metric.INFERRED_SQUARES.ordinal()].record(inferredSquares);
+            if (allocations != null) {
+                histograms[Metric.ALLOCATED_BYTES.ordinal()].record(allocatedBytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package mvc.model.metrics;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of non-negative {@code long} values with logarithmic buckets and a bounded
+ * relative error, in the style of HdrHistogram.
+ *
+ * <p>Values below {@code 2 * 2^PRECISION_BITS} get a bucket each. Above that, every power of two
+ * is split into {@code 2^PRECISION_BITS} equal buckets, so a recorded value is known to within
+ * about 3% whatever its magnitude, and the whole {@code long} range fits in a fixed array of
+ * less than two thousand counters. Recording is a few shifts and an array increment: it never
+ * allocates and never resizes.</p>
+ *
+ * <p>Exact minimum, maximum and sum are kept next to the buckets, so the mean and the extremes
+ * carry no bucketing error. Percentiles report the highest value of the bucket they fall in,
+ * capped by the maximum.</p>
+ *
+ * <p>A histogram is not thread-safe. Record into one histogram per thread and {@link #add(Histogram)}
+ * them together when done.</p>
+ *
+ * @author Sergio Vega García
+ */
+public final class Histogram {
+
+    /**
+     * The number of bits of precision kept within each power of two.
+     */
+    public static final int PRECISION_BITS = 5;
+
+    private static final int SUB_BUCKETS = 1 << PRECISION_BITS;
+    private static final int BUCKETS = SUB_BUCKETS * (Long.SIZE - PRECISION_BITS);
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    /**
+     * Records a value. Negative values are recorded as {@code 0}.
+     *
+     * @param value The value.
+     */
+    public void record(long value) {
+        if (value < 0) value = 0;
+        counts[bucketOf(value)]++;
+        count++;
+        sum += value;
+        if (value < min) min = value;
+        if (value > max) max = value;
+    }
+
+    /**
+     * Adds every value recorded in another histogram to this one.
+     *
+     * @param other The histogram to add.
+     */
+    public void add(Histogram other) {
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            counts[bucket] += other.counts[bucket];
+        }
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Forgets every recorded value.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return The count.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the sum of the recorded values.
+     *
+     * @return The sum.
+     */
+    public long getSum() {
+        return sum;
+    }
+
+    /**
+     * Returns the smallest recorded value.
+     *
+     * @return The minimum, or {@code 0} if nothing was recorded.
+     */
+    public long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    /**
+     * Returns the largest recorded value.
+     *
+     * @return The maximum, or {@code 0} if nothing was recorded.
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the mean of the recorded values.
+     *
+     * @return The mean, or {@code 0} if nothing was recorded.
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Returns the value below or at which the given percentage of the recorded values fall.
+     *
+     * @param percentile The percentage, from {@code 0} to {@code 100}.
+     * @return The value, within the precision of the buckets, or {@code 0} if nothing was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                return Math.min(highestValueOf(bucket), max);
+            }
+        }
+        return max;
+    }
+
+    // -----------------------
+    // HELPER METHODS - BUCKETS
+    // -----------------------
+
+    /**
+     * Returns the bucket of a non-negative value.
+     */
+    static int bucketOf(long value) {
+        if (value < 2 * SUB_BUCKETS) return (int) value;
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - PRECISION_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * Returns the smallest value of a bucket.
+     */
+    static long lowestValueOf(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) return bucket;
+        int shift = bucket / SUB_BUCKETS - 1;
+        return (long) (bucket % SUB_BUCKETS + SUB_BUCKETS) << shift;
+    }
+
+    /**
+     * Returns the largest value of a bucket.
+     */
+    static long highestValueOf(int bucket) {
+        return bucket == BUCKETS - 1 ? Long.MAX_VALUE : lowestValueOf(bucket + 1) - 1;
+    }
+}
@@ -0,0 +1,46 @@
+package mvc.model.metrics;
+
+/**
+ * Receives the measurements of the turns of one player.
+ *
+ * <p>A player asks {@link #measureTurn()} at the start of every turn and, unless told to, takes
+ * the turn without measuring anything. With the {@link #NONE no-op metrics} the answer is a
+ * constant the JIT folds away, so disabled instrumentation costs nothing.</p>
+ *
+ * <p>Metrics of one player are only used by the thread exploring with that player.</p>
+ *
+ * @author Sergio Vega García
+ * @see ExplorationMetrics
+ */
+public interface StepMetrics {
+
+    /**
+     * The metrics that record nothing.
+     */
+    StepMetrics NONE = NoOpStepMetrics.INSTANCE;
+
+    /**
+     * Called at the start of every turn to decide whether that turn is measured.
+     *
+     * @return {@code true} if the player must measure the turn and {@link #recordTurn report} it.
+     */
+    boolean measureTurn();
+
+    /**
+     * Returns the number of bytes allocated so far by the calling thread, if allocations are tracked.
+     *
+     * @return The allocated bytes, or {@code 0} if allocations are not tracked.
+     */
+    long allocatedBytes();
+
+    /**
+     * Records one turn of the player.
+     *
+     * @param perceiveNanos   The time spent perceiving the current square.
+     * @param updateNanos     The time spent updating the player's knowledge.
+     * @param decideNanos     The time spent deciding and taking the action.
+     * @param inferredSquares The number of map squares whose status the knowledge update changed.
+     * @param allocatedBytes  The bytes allocated during the turn, or {@code 0} if not tracked.
+     */
+    void recordTurn(long perceiveNanos, long updateNanos, long decideNanos, int inferredSquares, long allocatedBytes);
+}
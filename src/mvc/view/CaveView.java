@@ -1,44 +1,57 @@
 package mvc.view;
 
 import mvc.controller.Controller;
+import mvc.controller.Event;
 import mvc.model.cave.Cave;
-import mvc.model.cave.Square;
+import mvc.model.cave.CaveSnapshot;
 
 import javax.imageio.ImageIO;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static mvc.model.Global.*;
 
 /**
  * A JPanel-based component for visualizing and interacting with a cave.
  *
- * <p>This class renders a cave based on a {@link Cave} and allows user interaction
+ * <p>This class renders a cave based on snapshots of a {@link Cave} and allows user interaction
  * by clicking on squares in the cave. Each square in the cave can represent different
  * statuses, such as Monster, Hole, Treasure, Player, or Clean, with corresponding images.
  *
+ * <p>The panel is as large as the whole cave at the current zoom and is meant to be shown
+ * inside a {@link JScrollPane}. Only the squares in the visible part of the panel are drawn,
+ * so the cost of a paint depends on the size of the viewport, not on the size of the cave.
+ * When squares are too small for their images to be recognizable, each status is drawn as a
+ * solid color instead, and below a few pixels the grid lines are left out.</p>
+ *
+ * <p>The view never reads the live cave, which the model thread keeps changing. It is handed
+ * immutable {@link CaveSnapshot}s from any thread and always paints the latest one it has seen
+ * on the event dispatch thread. Snapshots published faster than the view can show them are
+ * skipped; the view then repaints everything, since it missed the changes in between.</p>
+ *
  * <p>Usage:
  * <ul>
  *   <li>Create an instance by passing a {@link Controller}, the desired window side,
- *       and a {@link Cave}.</li>
- *   <li>Call {@link #updateCave()} to refresh the cave view after changes to the model.</li>
+ *       and a first {@link CaveSnapshot}.</li>
+ *   <li>Call {@link #updateCave(CaveSnapshot)} to refresh the cave view after changes to the model.</li>
+ *   <li>Scroll with the mouse wheel, and zoom around the pointer with Ctrl and the mouse wheel.</li>
  * </ul>
  *
  * @author Sergio Vega García
  * @see Cave
- * @see Square
+ * @see CaveSnapshot
  * @see mvc.controller.Controller
  * @see javax.swing.JPanel
  * <p>
  */
-public class CaveView extends JPanel {
+public class CaveView extends JPanel implements Scrollable {
 
     /**
      * The background color of each square in the cave.
@@ -50,6 +63,38 @@ public class CaveView extends JPanel {
      */
     private static final Color BORDER_COLOR = Color.BLACK;
 
+    /**
+     * The color drawn for each status when squares are too small for images, indexed by ordinal.
+     */
+    private static final Color[] STATUS_COLORS = new Color[SquareStatus.values().length];
+
+    static {
+        STATUS_COLORS[SquareStatus.MONSTER.ordinal()] = new Color(0x2E7D32);
+        STATUS_COLORS[SquareStatus.HOLE.ordinal()] = new Color(0x424242);
+        STATUS_COLORS[SquareStatus.TREASURE.ordinal()] = new Color(0xFFC107);
+        STATUS_COLORS[SquareStatus.PLAYER.ordinal()] = new Color(0x1E88E5);
+    }
+
+    /**
+     * The smallest square side, in pixels, at which status images are drawn.
+     */
+    private static final int SPRITE_MIN_SIDE = 8;
+
+    /**
+     * The smallest square side, in pixels, at which grid lines are drawn.
+     */
+    private static final int GRID_MIN_SIDE = 4;
+
+    /**
+     * The smallest side, in pixels, of the background tile.
+     */
+    private static final int TILE_MIN_SIDE = 256;
+
+    /**
+     * The factor applied to the square side by each step of the mouse wheel when zooming.
+     */
+    private static final double ZOOM_FACTOR = 1.25;
+
     /**
      * The controller to handle user interactions.
      */
@@ -61,20 +106,45 @@ public class CaveView extends JPanel {
     private final int windowSide;
 
     /**
-     * A cache for storing loaded images corresponding to cave statuses.
+     * The images of the cave statuses, pre-scaled to the side of a square.
+     */
+    private final SpriteAtlas sprites = new SpriteAtlas();
+
+    /**
+     * The latest snapshot published, possibly not shown yet. Written by any thread.
      */
-    private final Map<SquareStatus, BufferedImage> imageCache = new HashMap<>();
+    private volatile CaveSnapshot latest;
 
     /**
-     * The model representing the cave.
+     * Whether a refresh is already scheduled on the event dispatch thread.
      */
-    private final Cave cave;
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
 
     /**
-     * The side of a single square in the cave, dynamically calculated.
+     * The snapshot being shown. Only used on the event dispatch thread.
+     */
+    private CaveSnapshot shown;
+
+    /**
+     * The side of a single square in the cave, fitted to the window and changed by zooming.
      */
     private int squareSide;
 
+    /**
+     * The cave side the square side was last fitted to.
+     */
+    private int fittedCaveSide;
+
+    /**
+     * A block of empty squares, drawn once per square side and repeated to draw the grid.
+     */
+    private BufferedImage tile;
+
+    /**
+     * The square side the {@link #tile} was drawn for.
+     */
+    private int tileSquareSide;
+
     /**
      * Constructs a {@code caveView} with the specified controller, window side, and cave model.
      *
@@ -83,42 +153,93 @@ public class CaveView extends JPanel {
      *
      * @param controller the {@link Controller} to handle interactions with the cave
      * @param windowSide the side of the window in pixels
-     * @param cave       the {@link Cave} containing the cave's data
+     * @param snapshot   the first {@link CaveSnapshot} of the cave to show
      */
-    public CaveView(Controller controller, int windowSide, Cave cave) {
+    public CaveView(Controller controller, int windowSide, CaveSnapshot snapshot) {
         this.controller = controller;
         this.windowSide = windowSide;
-        this.cave = cave;
+        this.latest = snapshot;
+        this.shown = snapshot;
 
         initializeImages();
         configure();
-        updateCave();
+        fitSquareSide();
     }
 
     /**
-     * Loads images for cave statuses into the cache.
+     * Loads images for cave statuses into the sprite atlas.
      */
     private void initializeImages() {
-        imageCache.put(SquareStatus.MONSTER, loadImage(Images_Constants.MONSTER));
-        imageCache.put(SquareStatus.HOLE, loadImage(Images_Constants.HOLE));
-        imageCache.put(SquareStatus.TREASURE, loadImage(Images_Constants.TREASURE));
-        imageCache.put(SquareStatus.PLAYER, loadImage(Images_Constants.PLAYER));
+        sprites.setImage(SquareStatus.MONSTER, loadImage(Images_Constants.MONSTER));
+        sprites.setImage(SquareStatus.HOLE, loadImage(Images_Constants.HOLE));
+        sprites.setImage(SquareStatus.TREASURE, loadImage(Images_Constants.TREASURE));
+        sprites.setImage(SquareStatus.PLAYER, loadImage(Images_Constants.PLAYER));
     }
 
     /**
      * Configures the panel's layout and interaction settings.
      */
     private void configure() {
-        setPreferredSize(new Dimension(windowSide, windowSide));
-        addMouseListener(new CaveMouseListener());
+        CaveMouseListener mouseListener = new CaveMouseListener();
+        addMouseListener(mouseListener);
+        addMouseWheelListener(mouseListener);
     }
 
     /**
-     * Updates the cave view by recalculating square side and repainting the panel.
+     * Publishes a new snapshot of the cave and schedules a refresh of the view.
+     *
+     * <p>This method may be called from any thread and never blocks. Snapshots published
+     * before the scheduled refresh runs are replaced by the latest one.</p>
+     *
+     * @param snapshot the latest snapshot of the cave
      */
-    public void updateCave() {
-        squareSide = windowSide / cave.getCaveSide();
-        repaint();
+    public void updateCave(CaveSnapshot snapshot) {
+        latest = snapshot;
+        if (refreshScheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::refresh);
+        }
+    }
+
+    /**
+     * Shows the latest snapshot, on the event dispatch thread.
+     *
+     * <p>When it directly follows the snapshot shown so far, only its changed squares are
+     * repainted, each with its border, which overlaps the next square by one pixel.
+     * {@link #paintComponent(Graphics)} then only draws the squares inside the clip.
+     * Otherwise the whole view is repainted.</p>
+     */
+    private void refresh() {
+        refreshScheduled.set(false);
+        CaveSnapshot next = latest;
+        if (next == shown) return;
+
+        boolean consecutive = next.getVersion() == shown.getVersion() + 1 && !next.isFullChange();
+        shown = next;
+
+        if (next.getCaveSide() != fittedCaveSide) {
+            fitSquareSide();
+            repaint();
+        } else if (consecutive) {
+            int caveSide = next.getCaveSide();
+            for (int i = 0; i < next.getChangedCount(); i++) {
+                int square = next.getChangedSquare(i);
+                repaint((square % caveSide) * squareSide, (square / caveSide) * squareSide, squareSide + 1, squareSide + 1);
+            }
+        } else {
+            repaint();
+        }
+    }
+
+    /**
+     * Fits the square side so that the whole cave shown fits in the window.
+     *
+     * <p>Squares are never smaller than one pixel; on caves wider than the window
+     * the view must be scrolled or zoomed out to see the rest.</p>
+     */
+    private void fitSquareSide() {
+        fittedCaveSide = shown.getCaveSide();
+        squareSide = Math.max(1, windowSide / fittedCaveSide);
+        updatePreferredSize();
     }
 
     /**
@@ -139,29 +260,127 @@ public class CaveView extends JPanel {
     /**
      * Paints the cave onto the panel.
      *
-     * <p>This method iterates through the squares in the cave and renders each square
-     * along with its corresponding status, if any.
+     * <p>This method iterates through the squares that intersect both the clip area and the
+     * visible part of the panel, and renders each square along with its corresponding status,
+     * if any. The empty squares and their borders come from a cached {@link #tile} of squares,
+     * blitted over the area, so only the statuses are drawn per square. Status images come from
+     * the {@link SpriteAtlas}, which only scales them again when the square side has changed;
+     * on small squares statuses are drawn as solid colors.
      *
      * @param g the {@link Graphics} object used for rendering
      */
     public void paintComponent(Graphics g) {
         super.paintComponent(g);
 
-        byte caveSide = cave.getCaveSide();
-        Square[] squares = cave.getSquares();
+        CaveSnapshot snapshot = shown;
+        int caveSide = snapshot.getCaveSide();
+        Rectangle area = getVisibleRect();
+        Rectangle clip = g.getClipBounds();
+        if (clip != null) {
+            area = area.intersection(clip);
+        }
+        if (area.isEmpty()) return;
+
+        drawGrid(g, area, caveSide * squareSide);
 
-        for (byte row = 0; row < caveSide; row++) {
-            for (byte column = 0; column < caveSide; column++) {
-                int x = column * squareSide;
-                int y = row * squareSide;
-                Square square = squares[cave.toLinearIndex(row, column)];
+        boolean drawSprites = squareSide >= SPRITE_MIN_SIDE;
+        if (drawSprites) {
+            sprites.prepare(squareSide, getGraphicsConfiguration());
+        }
 
-                drawSquare(g, x, y);
-                drawStatus(g, square.getStatus(), x, y);
+        int firstRow = Math.max(0, area.y / squareSide);
+        int firstColumn = Math.max(0, area.x / squareSide);
+        int lastRow = Math.min(caveSide - 1, (area.y + area.height) / squareSide);
+        int lastColumn = Math.min(caveSide - 1, (area.x + area.width) / squareSide);
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                SquareStatus status = snapshot.getStatus(row * caveSide + column);
+                if (status == null || status == SquareStatus.CLEAN) continue;
+
+                if (drawSprites) {
+                    drawStatus(g, status, column * squareSide, row * squareSide);
+                } else {
+                    fillStatus(g, status, column * squareSide, row * squareSide);
+                }
             }
         }
     }
 
+    // -------------------------
+    // HELPER METHODS - BACKGROUND
+    // -------------------------
+
+    /**
+     * Draws the empty squares that intersect the given area, by repeating the {@link #tile}
+     * from the top left corner of the cave so that every copy is aligned with the squares.
+     *
+     * @param g        the {@link Graphics} object
+     * @param area     the area to draw
+     * @param gridSide the side of the whole cave in pixels, without the closing border
+     */
+    private void drawGrid(Graphics g, Rectangle area, int gridSide) {
+        BufferedImage tile = prepareTile();
+        int tileSide = tile.getWidth();
+
+        Graphics tiles = g.create();
+        tiles.clipRect(0, 0, gridSide, gridSide);
+        int endX = Math.min(area.x + area.width, gridSide);
+        int endY = Math.min(area.y + area.height, gridSide);
+        for (int y = area.y / tileSide * tileSide; y < endY; y += tileSide) {
+            for (int x = area.x / tileSide * tileSide; x < endX; x += tileSide) {
+                tiles.drawImage(tile, x, y, null);
+            }
+        }
+        tiles.dispose();
+
+        // The closing border on the right and bottom edges of the cave
+        if (squareSide >= GRID_MIN_SIDE) {
+            g.setColor(BORDER_COLOR);
+            g.drawLine(gridSide, 0, gridSide, gridSide);
+            g.drawLine(0, gridSide, gridSide, gridSide);
+        }
+    }
+
+    /**
+     * Returns the tile of empty squares, drawing it again if the square side changed since it
+     * was last drawn.
+     *
+     * <p>The tile holds as many squares as needed to be at least {@link #TILE_MIN_SIDE} pixels
+     * wide, so a paint needs few blits whatever the zoom, while its size never depends on the
+     * cave side. Each square is drawn with only its top and left borders; the bottom and right
+     * ones are those of the next squares.</p>
+     *
+     * @return the tile image
+     */
+    private BufferedImage prepareTile() {
+        if (tile != null && tileSquareSide == squareSide) {
+            return tile;
+        }
+
+        int squares = (TILE_MIN_SIDE + squareSide - 1) / squareSide;
+        int side = squares * squareSide;
+        GraphicsConfiguration configuration = getGraphicsConfiguration();
+        tile = configuration != null
+                ? configuration.createCompatibleImage(side, side, Transparency.OPAQUE)
+                : new BufferedImage(side, side, BufferedImage.TYPE_INT_RGB);
+        tileSquareSide = squareSide;
+
+        Graphics g = tile.createGraphics();
+        if (squareSide >= GRID_MIN_SIDE) {
+            for (int row = 0; row < squares; row++) {
+                for (int column = 0; column < squares; column++) {
+                    drawSquare(g, column * squareSide, row * squareSide);
+                }
+            }
+        } else {
+            g.setColor(SQUARE_COLOR);
+            g.fillRect(0, 0, side, side);
+        }
+        g.dispose();
+        return tile;
+    }
+
     /**
      * Draws a square at the specified position.
      *
@@ -176,8 +395,12 @@ public class CaveView extends JPanel {
         g.drawRect(x, y, squareSide, squareSide);
     }
 
+    // ---------------------
+    // HELPER METHODS - STATUS
+    // ---------------------
+
     /**
-     * Draws the status associated with a square.
+     * Draws the image associated with a status.
      *
      * @param g      the {@link Graphics} object
      * @param status the status of the square
@@ -185,24 +408,134 @@ public class CaveView extends JPanel {
      * @param y      the y-coordinate of the square
      */
     private void drawStatus(Graphics g, SquareStatus status, int x, int y) {
-        if (status != SquareStatus.CLEAN) {
-            BufferedImage image = imageCache.get(status);
-            if (image != null) {
-                g.drawImage(image, x, y, squareSide, squareSide, null);
-            }
+        BufferedImage sprite = sprites.getSprite(status);
+        if (sprite != null) {
+            g.drawImage(sprite, x, y, null);
         }
     }
 
     /**
-     * A mouse listener for handling clicks on the cave.
+     * Fills a square with the color associated with a status, for squares too small for images.
+     *
+     * @param g      the {@link Graphics} object
+     * @param status the status of the square
+     * @param x      the x-coordinate of the square
+     * @param y      the y-coordinate of the square
+     */
+    private void fillStatus(Graphics g, SquareStatus status, int x, int y) {
+        Color color = STATUS_COLORS[status.ordinal()];
+        if (color != null) {
+            g.setColor(color);
+            g.fillRect(x, y, squareSide, squareSide);
+        }
+    }
+
+    // -------------------
+    // HELPER METHODS - ZOOM
+    // -------------------
+
+    /**
+     * Changes the square side by one zoom step, keeping the point under the mouse pointer in place.
+     *
+     * @param steps  the number of steps, negative to zoom in and positive to zoom out
+     * @param anchor the point of the panel that stays under the pointer
+     */
+    private void zoom(int steps, Point anchor) {
+        int oldSide = squareSide;
+        int side = oldSide;
+        for (int i = 0; i < Math.abs(steps); i++) {
+            side = steps < 0
+                    ? Math.max(side + 1, (int) Math.round(side * ZOOM_FACTOR))
+                    : Math.min(side - 1, (int) Math.round(side / ZOOM_FACTOR));
+        }
+        side = Math.max(1, Math.min(windowSide / Cave_Constants.MIN_SIDE, side));
+        if (side == oldSide) return;
+
+        JViewport viewport = (JViewport) SwingUtilities.getAncestorOfClass(JViewport.class, this);
+        Point viewPosition = viewport != null ? viewport.getViewPosition() : new Point();
+
+        squareSide = side;
+        updatePreferredSize();
+
+        if (viewport != null) {
+            Dimension size = getPreferredSize();
+            Dimension extent = viewport.getExtentSize();
+            viewport.setViewSize(size);
+            int x = (int) Math.round((double) anchor.x * side / oldSide) - (anchor.x - viewPosition.x);
+            int y = (int) Math.round((double) anchor.y * side / oldSide) - (anchor.y - viewPosition.y);
+            viewport.setViewPosition(new Point(
+                    Math.max(0, Math.min(x, size.width - extent.width)),
+                    Math.max(0, Math.min(y, size.height - extent.height))));
+        }
+        repaint();
+    }
+
+    /**
+     * Sizes the panel to the whole cave at the current square side, border included.
+     */
+    private void updatePreferredSize() {
+        int side = shown.getCaveSide() * squareSide + 1;
+        setPreferredSize(new Dimension(side, side));
+        revalidate();
+    }
+
+    // ---------------------------
+    // SCROLLABLE
+    // ---------------------------
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return new Dimension(windowSide, windowSide);
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return squareSide;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        int extent = orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+        return Math.max(squareSide, extent - squareSide);
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return false;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return false;
+    }
+
+    /**
+     * A mouse listener for handling clicks and zooming on the cave.
      */
     private class CaveMouseListener extends MouseAdapter {
         @Override
         public void mouseClicked(MouseEvent e) {
             e.consume();
-            byte row = (byte) (e.getY() / squareSide);
-            byte column = (byte) (e.getX() / squareSide);
-            controller.notify(Events_Constants.SQUARE_CLICKED, row, column);
+            int row = e.getY() / squareSide;
+            int column = e.getX() / squareSide;
+            controller.post(new Event.SquareClicked(row, column));
+        }
+
+        /**
+         * Zooms with Ctrl held down, and otherwise hands the event to the scroll pane,
+         * which would not receive it while this listener is installed.
+         */
+        @Override
+        public void mouseWheelMoved(MouseWheelEvent e) {
+            if (e.isControlDown()) {
+                e.consume();
+                zoom(e.getWheelRotation(), e.getPoint());
+                return;
+            }
+            JScrollPane scrollPane = (JScrollPane) SwingUtilities.getAncestorOfClass(JScrollPane.class, CaveView.this);
+            if (scrollPane != null) {
+                scrollPane.dispatchEvent(SwingUtilities.convertMouseEvent(CaveView.this, e, scrollPane));
+            }
         }
     }
 }
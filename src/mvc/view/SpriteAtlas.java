@@ -0,0 +1,127 @@
+package mvc.view;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+import static mvc.model.Global.SquareStatus;
+
+/**
+ * The images drawn for each {@link SquareStatus}, pre-scaled to the current square side.
+ *
+ * <p>The original images are kept at full size and scaled once whenever the square side or the
+ * screen changes, into images compatible with the screen's {@link GraphicsConfiguration}. Java2D
+ * can keep such images in video memory, so painting a square is a plain blit with no scaling
+ * and no pixel format conversion.</p>
+ *
+ * <p>Sprites are scaled down progressively, halving their size with bilinear interpolation
+ * until the target side is reached, so small squares keep the detail of the originals.</p>
+ *
+ * <p>An atlas must only be used on the Swing event dispatch thread.</p>
+ *
+ * @author Sergio Vega García
+ * @see CaveView
+ */
+public class SpriteAtlas {
+
+    /**
+     * Cached {@link SquareStatus} values, indexed by ordinal.
+     */
+    private static final SquareStatus[] STATUSES = SquareStatus.values();
+
+    /**
+     * The full-size image of each status, indexed by ordinal, or {@code null}.
+     */
+    private final BufferedImage[] originals = new BufferedImage[STATUSES.length];
+
+    /**
+     * The scaled image of each status, indexed by ordinal, or {@code null}.
+     */
+    private final BufferedImage[] sprites = new BufferedImage[STATUSES.length];
+
+    /**
+     * The side the sprites are scaled to, or {@code 0} if they must be scaled again.
+     */
+    private int side;
+
+    /**
+     * The configuration the sprites are compatible with, or {@code null}.
+     */
+    private GraphicsConfiguration configuration;
+
+    /**
+     * Sets the full-size image of a status.
+     *
+     * @param status the status
+     * @param image  the image, or {@code null} to draw nothing for the status
+     */
+    public void setImage(SquareStatus status, BufferedImage image) {
+        originals[status.ordinal()] = image;
+        side = 0;
+    }
+
+    /**
+     * Scales the sprites to the given side, unless they already are.
+     *
+     * <p>This is cheap when nothing changed, so it may be called on every paint.</p>
+     *
+     * @param side          the side of a square in pixels
+     * @param configuration the configuration of the screen the sprites are drawn on,
+     *                      or {@code null} if the component is not displayed yet
+     */
+    public void prepare(int side, GraphicsConfiguration configuration) {
+        if (side == this.side && configuration == this.configuration) return;
+        this.side = side;
+        this.configuration = configuration;
+
+        for (int i = 0; i < STATUSES.length; i++) {
+            sprites[i] = originals[i] == null ? null : scale(originals[i], side, configuration);
+        }
+    }
+
+    /**
+     * Returns the sprite of a status, scaled by the last call to {@link #prepare(int, GraphicsConfiguration)}.
+     *
+     * @param status the status
+     * @return the sprite, or {@code null} if the status has no image
+     */
+    public BufferedImage getSprite(SquareStatus status) {
+        return sprites[status.ordinal()];
+    }
+
+    // ---------------------
+    // HELPER METHODS - SCALE
+    // ---------------------
+
+    /**
+     * Scales an image to a square of the given side.
+     */
+    private static BufferedImage scale(BufferedImage image, int side, GraphicsConfiguration configuration) {
+        BufferedImage current = image;
+        int width = image.getWidth();
+        int height = image.getHeight();
+
+        do {
+            width = Math.max(side, width / 2);
+            height = Math.max(side, height / 2);
+
+            BufferedImage step = createImage(width, height, configuration);
+            Graphics2D g = step.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(current, 0, 0, width, height, null);
+            g.dispose();
+            current = step;
+        } while (width != side || height != side);
+
+        return current;
+    }
+
+    /**
+     * Creates a translucent image compatible with the screen, or a plain ARGB image off screen.
+     */
+    private static BufferedImage createImage(int width, int height, GraphicsConfiguration configuration) {
+        return configuration != null
+                ? configuration.createCompatibleImage(width, height, Transparency.TRANSLUCENT)
+                : new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    }
+}
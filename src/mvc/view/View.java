@@ -2,6 +2,7 @@ package mvc.view;
 
 import mvc.controller.Controller;
 import mvc.model.cave.Cave;
+import mvc.model.cave.CaveSnapshot;
 import mvc.view.controls.Controls;
 
 import javax.swing.*;
@@ -15,8 +16,8 @@ import javax.swing.*;
  *
  * <p>Usage:
  * <ul>
- *   <li>Create an instance by passing a {@link Controller} and a {@link Cave}.</li>
- *   <li>Call {@link #updateView()} to refresh the cave view after changes to the model.</li>
+ *   <li>Create an instance by passing a {@link Controller} and a first {@link CaveSnapshot} of the {@link Cave}.</li>
+ *   <li>Call {@link #updateView(CaveSnapshot)} to refresh the cave view after changes to the model.</li>
  * </ul>
  *
  * @author Sergio Vega García
@@ -46,13 +47,13 @@ public class View extends javax.swing.JFrame {
      * the {@link Controls} panel and the {@link CaveView} panel in a vertical layout.
      *
      * @param controller the {@link Controller} to handle user interactions
-     * @param cave       the {@link Cave} representing the cave data
+     * @param snapshot   the first {@link CaveSnapshot} of the cave to display
      */
-    public View(Controller controller, Cave cave) {
+    public View(Controller controller, CaveSnapshot snapshot) {
         int width = 800;
 
         controls = new Controls(controller, width);
-        caveView = new CaveView(controller, width, cave);
+        caveView = new CaveView(controller, width, snapshot);
 
         configure();
         initComponents();
@@ -73,11 +74,15 @@ public class View extends javax.swing.JFrame {
      * Initializes and adds the components to the frame.
      *
      * <p>The {@link Controls} panel and {@link CaveView} panel are added to the frame
-     * in the configured vertical layout.
+     * in the configured vertical layout. The {@link CaveView} is shown through a
+     * {@link JScrollPane}, so caves larger than the window can be scrolled.
      */
     private void initComponents() {
+        JScrollPane caveScrollPane = new JScrollPane(caveView);
+        caveScrollPane.setBorder(BorderFactory.createEmptyBorder());
+
         add(controls);
-        add(caveView);
+        add(caveScrollPane);
     }
 
     /**
@@ -112,10 +117,12 @@ public class View extends javax.swing.JFrame {
     /**
      * Updates the view by refreshing the cave display.
      *
-     * <p>This method invokes {@link CaveView#updateCave()} to redraw the cave
-     * based on the current state of the {@link Cave}.
+     * <p>This method invokes {@link CaveView#updateCave(CaveSnapshot)} to redraw the cave
+     * from a snapshot of the {@link Cave}. It may be called from any thread.
+     *
+     * @param snapshot the latest snapshot of the cave
      */
-    public void updateView() {
-        caveView.updateCave();
+    public void updateView(CaveSnapshot snapshot) {
+        caveView.updateCave(snapshot);
     }
 }
@@ -1,12 +1,12 @@
 package mvc.view.controls;
 
 import mvc.controller.Controller;
+import mvc.controller.Event;
 
 import javax.swing.*;
 import java.awt.*;
 
 import static mvc.model.Global.Cave_Constants;
-import static mvc.model.Global.Events_Constants;
 
 /**
  * A JPanel-based component for selecting the side of a cave.
@@ -15,7 +15,7 @@ import static mvc.model.Global.Events_Constants;
  * It uses a {@link JSpinner} to limit the side to a range defined by
  * {@link Cave_Constants#MIN_SIDE} and {@link Cave_Constants#MAX_SIDE}.
  * When the spinner value changes, it notifies the {@link Controller} with the event
- * {@link mvc.model.Global.Events_Constants#CAVE_SIDE_CHANGED}.
+ * {@link Event.CaveSideChanged}.
  *
  * <p>Usage:
  * <ul>
@@ -27,7 +27,7 @@ import static mvc.model.Global.Events_Constants;
  * @see JSpinner
  * @see mvc.controller.Controller
  * @see Cave_Constants
- * @see mvc.model.Global.Events_Constants
+ * @see mvc.controller.Event
  */
 public class SideSpinner extends JPanel {
 
@@ -54,7 +54,7 @@ public class SideSpinner extends JPanel {
         spinner.setToolTipText("Select the side of the cave");
 
         // Add change listener to notify the controller when the spinner value changes
-        spinner.addChangeListener(e -> controller.notify(Events_Constants.CAVE_SIDE_CHANGED, spinner.getValue()));
+        spinner.addChangeListener(e -> controller.post(new Event.CaveSideChanged((Integer) spinner.getValue())));
 
         // Make the spinner text field non-editable
         ((JSpinner.DefaultEditor) spinner.getEditor()).getTextField().setEditable(false);
@@ -1,7 +1,7 @@
 package mvc.view.controls.selector.picture;
 
 import mvc.controller.Controller;
-import mvc.model.Global.Events_Constants;
+import mvc.controller.Event;
 import mvc.model.Global.Images_Constants;
 
 import java.awt.event.MouseAdapter;
@@ -12,7 +12,7 @@ import java.awt.event.MouseEvent;
  *
  * <p>This class is designed to display a "Reset" image and notify the {@link Controller}
  * when the picture is clicked. The notification event is defined by
- * {@link Events_Constants#RESET_CLICKED}.
+ * {@link Event.Signal#RESET_CLICKED}.
  *
  * <p>Usage:
  * <ul>
@@ -23,7 +23,7 @@ import java.awt.event.MouseEvent;
  * @author Sergio Vega García
  * @see Picture
  * @see Controller
- * @see Events_Constants
+ * @see mvc.controller.Event
  * @see Images_Constants
  */
 public class ResetPicture extends Picture {
@@ -32,8 +32,8 @@ public class ResetPicture extends Picture {
      * Constructs a {@code ResetPicture} with a default image and click handling.
      *
      * <p>The default image is set to {@link Images_Constants#RESET}.
-     * A mouse click on this picture notifies the {@link Controller} with the event
-     * {@link Events_Constants#RESET_CLICKED}.
+     * A mouse click on this picture posts to the {@link Controller} the event
+     * {@link Event.Signal#RESET_CLICKED}.
      *
      * @param controller the {@link Controller} that will handle the click event
      */
@@ -44,7 +44,7 @@ public class ResetPicture extends Picture {
         addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                controller.notify(Events_Constants.RESET_CLICKED);
+                controller.post(Event.Signal.RESET_CLICKED);
             }
         });
     }
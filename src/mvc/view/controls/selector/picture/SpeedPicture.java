@@ -1,7 +1,7 @@
 package mvc.view.controls.selector.picture;
 
 import mvc.controller.Controller;
-import mvc.model.Global.Events_Constants;
+import mvc.controller.Event;
 import mvc.model.Global.Images_Constants;
 
 import java.awt.event.MouseAdapter;
@@ -12,7 +12,7 @@ import java.awt.event.MouseEvent;
  *
  * <p>This class is designed to display a speed-related image (such as "Next Step") and
  * notifies the {@link Controller} when the picture is clicked. The notification event
- * is defined by {@link mvc.model.Global.Events_Constants#NEXT_STEP_CLICKED}.
+ * is defined by {@link Event.Signal#NEXT_STEP_CLICKED}.
  *
  * <p>Usage:
  * <ul>
@@ -23,7 +23,7 @@ import java.awt.event.MouseEvent;
  * @author Sergio Vega García
  * @see Picture
  * @see mvc.controller.Controller
- * @see mvc.model.Global.Events_Constants
+ * @see mvc.controller.Event
  * @see mvc.model.Global.Images_Constants
  */
 public class SpeedPicture extends Picture {
@@ -32,8 +32,8 @@ public class SpeedPicture extends Picture {
      * Constructs a {@code SpeedPicture} with a default image and click handling.
      *
      * <p>The default image is set to {@link mvc.model.Global.Images_Constants#NEXT_STEP}.
-     * A mouse click on this picture notifies the {@link Controller} with the event
-     * {@link mvc.model.Global.Events_Constants#NEXT_STEP_CLICKED}.
+     * A mouse click on this picture posts to the {@link Controller} the event
+     * {@link Event.Signal#NEXT_STEP_CLICKED}.
      *
      * @param controller the {@link Controller} that will handle the click event
      */
@@ -44,7 +44,7 @@ public class SpeedPicture extends Picture {
         addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                controller.notify(Events_Constants.NEXT_STEP_CLICKED);
+                controller.post(Event.Signal.NEXT_STEP_CLICKED);
             }
         });
     }
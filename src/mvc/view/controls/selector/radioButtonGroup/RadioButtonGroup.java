@@ -1,11 +1,13 @@
 package mvc.view.controls.selector.radioButtonGroup;
 
 import mvc.controller.Controller;
+import mvc.controller.Event;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.util.List;
+import java.util.function.Function;
 
 /**
  * An abstract class representing a group of radio buttons within a JPanel.
@@ -40,19 +42,19 @@ public abstract class RadioButtonGroup extends JPanel {
     private final ButtonGroup buttonGroup;
 
     /**
-     * A string representing the type of action to notify the controller about.
+     * Creates the event posted to the controller from the action command of the selected button.
      */
-    private final String actionType;
+    private final Function<String, Event> eventFactory;
 
     /**
      * Constructs a new {@code RadioButtonGroup}.
      *
-     * @param controller the {@link Controller} that will handle the events triggered by this group
-     * @param actionType a string representing the type of action to notify the controller about
+     * @param controller   the {@link Controller} that will handle the events triggered by this group
+     * @param eventFactory creates the event to post from the action command of the selected button
      */
-    public RadioButtonGroup(Controller controller, String actionType) {
+    public RadioButtonGroup(Controller controller, Function<String, Event> eventFactory) {
         this.controller = controller;
-        this.actionType = actionType;
+        this.eventFactory = eventFactory;
         this.buttonGroup = new ButtonGroup();
 
         setLayout(new GridLayout(0, 2)); // Optionally customizable layout
@@ -93,13 +95,13 @@ public abstract class RadioButtonGroup extends JPanel {
     /**
      * Handles the action event triggered by a radio button click.
      *
-     * <p>This method notifies the {@link Controller} with the specified action type
-     * and the action command of the selected radio button.
+     * <p>This method posts to the {@link Controller} the event created from the action
+     * command of the selected radio button.
      *
      * @param e the {@link ActionEvent} representing the radio button action
      */
     private void handleActionEvent(ActionEvent e) {
-        controller.notify(actionType, e.getActionCommand());
+        controller.post(eventFactory.apply(e.getActionCommand()));
     }
 
     /**
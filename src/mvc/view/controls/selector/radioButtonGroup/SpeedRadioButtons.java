@@ -1,10 +1,10 @@
 package mvc.view.controls.selector.radioButtonGroup;
 
 import mvc.controller.Controller;
+import mvc.controller.Event;
 
 import java.util.Arrays;
 
-import static mvc.model.Global.Events_Constants;
 import static mvc.model.Global.Speed_Constants;
 
 /**
@@ -18,8 +18,8 @@ import static mvc.model.Global.Speed_Constants;
  * <p>Usage:
  * <ul>
  *   <li>Use this class to create a user interface component for selecting speed settings.</li>
- *   <li>The selected speed is notified to the {@link Controller} with the
- *       {@link mvc.model.Global.Events_Constants#SPEED_CHANGED} action type.</li>
+ *   <li>The selected speed is notified to the {@link Controller} with a
+ *       {@link Event.SpeedChanged} event.</li>
  * </ul>
  *
  * @author Sergio Vega García
@@ -27,20 +27,19 @@ import static mvc.model.Global.Speed_Constants;
  * @see RadioButtonOption
  * @see Controller
  * @see Speed_Constants
- * @see Events_Constants
+ * @see Event.SpeedChanged
  */
 public class SpeedRadioButtons extends RadioButtonGroup {
 
     /**
      * Constructs a {@code SpeedRadioButtons} group.
      *
-     * <p>The group is associated with the {@link mvc.model.Global.Events_Constants#SPEED_CHANGED}
-     * action type and will notify the {@link Controller} whenever a speed option is selected.
+     * <p>The group posts {@link Event.SpeedChanged} events and will notify the {@link Controller} whenever a speed option is selected.
      *
      * @param controller the {@link Controller} that will handle speed change events
      */
     public SpeedRadioButtons(Controller controller) {
-        super(controller, Events_Constants.SPEED_CHANGED);
+        super(controller, Event.SpeedChanged::new);
     }
 
     /**
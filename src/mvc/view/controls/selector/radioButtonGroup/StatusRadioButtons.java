@@ -1,10 +1,10 @@
 package mvc.view.controls.selector.radioButtonGroup;
 
 import mvc.controller.Controller;
+import mvc.controller.Event;
 
 import java.util.Arrays;
 
-import static mvc.model.Global.Events_Constants;
 import static mvc.model.Global.Images_Constants;
 
 /**
@@ -17,7 +17,7 @@ import static mvc.model.Global.Images_Constants;
  *
  * @author Sergio Vega García
  * @see RadioButtonGroup
- * @see Events_Constants
+ * @see Event.StatusChanged
  * @see Images_Constants
  * @see Controller
  */
@@ -26,13 +26,12 @@ public class StatusRadioButtons extends RadioButtonGroup {
     /**
      * Constructs an {@code StatusRadioButtons} group.
      *
-     * <p>The group is associated with the {@link mvc.model.Global.Events_Constants#STATUS_CHANGED}
-     * action type and will notify the {@link Controller} whenever a selection is made.
+     * <p>The group posts {@link Event.StatusChanged} events and will notify the {@link Controller} whenever a selection is made.
      *
      * @param controller the {@link Controller} that will handle status change events
      */
     public StatusRadioButtons(Controller controller) {
-        super(controller, Events_Constants.STATUS_CHANGED);
+        super(controller, Event.StatusChanged::new);
     }
 
     /**
@@ -0,0 +1,160 @@
+package mvc.model;
+
+import mvc.model.cave.Cave;
+import mvc.model.cave.CaveGenerator;
+import mvc.model.cave.Map;
+import org.junit.jupiter.api.Test;
+
+import static mvc.model.Global.ActionType;
+import static mvc.model.Global.SquareStatus;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that {@link ConstraintInference} only deduces what is true of the cave, also when other
+ * players kill monsters and take treasures the deducing player has perceived.
+ *
+ * @author Sergio Vega García
+ */
+class ConstraintInferenceTest {
+
+    private static final int STEP_LIMIT = 5000;
+
+    /**
+     * The second player perceives the stench of two monsters the first one then kills. Unless it
+     * hears of the kills, the stale stench makes it prove a monster where the treasure is, and the
+     * radiance then proves the treasure on the hole next to it.
+     */
+    @Test
+    void otherPlayersKillsDropStaleStench() {
+        Model model = new Model(cave(
+                "MM..",
+                "H...",
+                ".T.H",
+                "...."));
+        placePlayer(model, 0, 3);
+        placePlayer(model, 0, 2);
+        model.getCave().updateAllPerceptions();
+        assertEquals(2, model.getPlayers().size());
+
+        int kills = 0;
+        for (int step = 1; step <= STEP_LIMIT && !model.isCaveExplored(); step++) {
+            model.exploreCave();
+            if (model.getPlayers().get(0).getLastAction() == ActionType.SHOOT) kills++;
+            for (int i = 0; i < 2; i++) {
+                Player player = model.getPlayers().get(i);
+                assertFalse(player.isDead(), "player " + i + " walked into a hazard at step " + step);
+                assertNoHazardSafe(player.getMap(), model.getCave(), "player " + i + ", step " + step);
+            }
+        }
+        assertEquals(2, kills);
+    }
+
+    @Test
+    void neverMarksHazardSafeWithOnePlayer() {
+        for (int side : new int[]{5, 9, 16}) {
+            CaveGenerator generator = new CaveGenerator(side, 0.1, 0.1, 0.05, true);
+            for (long seed = 0; seed < 50; seed++) {
+                Model model = model(generator, seed);
+                runSound(model, "side " + side + ", seed " + seed);
+            }
+        }
+    }
+
+    @Test
+    void neverMarksHazardSafeWhenOtherPlayersRemoveHazards() {
+        int removals = 0;
+        for (int side : new int[]{6, 10, 14}) {
+            CaveGenerator generator = new CaveGenerator(side, 0.15, 0.1, 0.08, true);
+            for (long seed = 0; seed < 150; seed++) {
+                Model model = model(generator, seed);
+                Cave cave = model.getCave();
+                placePlayer(model, 0, 0);
+                placePlayer(model, 0, side - 1);
+                placePlayer(model, side - 1, side - 1);
+                cave.updateAllPerceptions();
+                removals += runSound(model, "side " + side + ", seed " + seed);
+            }
+        }
+        assertTrue(removals > 100, "too few hazards removed to matter: " + removals);
+    }
+
+    /**
+     * Explores the cave, checking after every step that no player believes a hazard is safe.
+     *
+     * @return The number of monsters killed and treasures taken while other players were exploring.
+     */
+    private static int runSound(Model model, String context) {
+        int removals = 0;
+        for (int step = 1; step <= STEP_LIMIT && !model.isCaveExplored(); step++) {
+            model.exploreCave();
+            for (int i = 0; i < model.getPlayers().size(); i++) {
+                Player player = model.getPlayers().get(i);
+                String where = context + ", player " + i + ", step " + step;
+                assertFalse(player.isDead(), where + ": walked into a hazard");
+                assertNoHazardSafe(player.getMap(), model.getCave(), where);
+
+                ActionType action = player.getLastAction();
+                if (model.getPlayers().size() > 1 && (action == ActionType.SHOOT || action == ActionType.TAKE)) {
+                    removals++;
+                }
+            }
+        }
+        return removals;
+    }
+
+    private static void assertNoHazardSafe(Map map, Cave cave, String context) {
+        for (int index = 0; index < map.getSquareCount(); index++) {
+            if (!map.isSafe(index)) continue;
+            SquareStatus actual = cave.getStatus(index);
+            assertFalse(actual == SquareStatus.HOLE || actual == SquareStatus.MONSTER,
+                    context + ": square " + index + " is " + map.getStatus(index) + " in the map but " + actual + " in the cave");
+        }
+    }
+
+    /**
+     * Builds a cave from one string per row: {@code M} for a monster, {@code H} for a hole,
+     * {@code T} for a treasure and anything else for a clean square.
+     */
+    private static Cave cave(String... rows) {
+        Cave cave = new Cave(rows.length);
+        for (int row = 0; row < rows.length; row++) {
+            for (int column = 0; column < rows.length; column++) {
+                int square = cave.toLinearIndex(row, column);
+                switch (rows[row].charAt(column)) {
+                    case 'M' -> {
+                        cave.setStatus(square, SquareStatus.MONSTER);
+                        cave.adjustAmountOfMonsters(1);
+                    }
+                    case 'H' -> cave.setStatus(square, SquareStatus.HOLE);
+                    case 'T' -> {
+                        cave.setStatus(square, SquareStatus.TREASURE);
+                        cave.adjustAmountOfTreasures(1);
+                    }
+                    default -> cave.setStatus(square, SquareStatus.CLEAN);
+                }
+            }
+        }
+        return cave;
+    }
+
+    private static Model model(CaveGenerator generator, long seed) {
+        Model model = new Model(generator.generate(seed));
+        placePlayer(model, generator.getStartRow(), generator.getStartColumn());
+        model.getCave().updateAllPerceptions();
+        return model;
+    }
+
+    /**
+     * Places a player like the simulation does, unless the square is not clean.
+     */
+    private static void placePlayer(Model model, int row, int column) {
+        Cave cave = model.getCave();
+        int square = cave.toLinearIndex(row, column);
+        if (cave.getStatus(square) != SquareStatus.CLEAN || cave.hasTreasure(square)) return;
+        cave.setStatus(square, SquareStatus.PLAYER);
+        cave.adjustAmountOfPlayers(1);
+        model.addPlayer(row, column);
+    }
+}
@@ -0,0 +1,219 @@
+package mvc.model;
+
+import mvc.model.cave.Cave;
+import mvc.model.cave.CaveGenerator;
+import mvc.model.cave.Map;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.Supplier;
+
+import static mvc.model.Global.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the worklist of {@link LegacyInference} deduces exactly what the original full scan
+ * of the map deduced, step by step, on generated caves.
+ *
+ * @author Sergio Vega García
+ */
+class LegacyInferenceTest {
+
+    private static final int STEP_LIMIT = 2000;
+
+    @Test
+    void worklistMatchesFullScanOnGeneratedCaves() {
+        int compared = 0;
+        for (int side : new int[]{4, 7, 12, 20}) {
+            CaveGenerator generator = new CaveGenerator(side, 0.08, 0.08, 0.03, true);
+            for (long seed = 0; seed < 40; seed++) {
+                compared += compareRuns(generator, seed, side);
+            }
+        }
+        assertTrue(compared > 1000, "too few steps compared: " + compared);
+    }
+
+    @Test
+    void worklistMatchesFullScanWithTwoPlayers() {
+        int side = 10;
+        CaveGenerator generator = new CaveGenerator(side, 0.1, 0.06, 0.03, true);
+        for (long seed = 100; seed < 140; seed++) {
+            Model worklist = twoPlayerModel(generator, seed, side, LegacyInference::new);
+            Model fullScan = twoPlayerModel(generator, seed, side, FullScanInference::new);
+            runSideBySide(worklist, fullScan, "seed " + seed);
+        }
+    }
+
+    /**
+     * Runs the same cave with both engines and compares the maps after every step.
+     *
+     * @return The number of steps compared.
+     */
+    private static int compareRuns(CaveGenerator generator, long seed, int side) {
+        Model worklist = singlePlayerModel(generator, seed, LegacyInference::new);
+        Model fullScan = singlePlayerModel(generator, seed, FullScanInference::new);
+        return runSideBySide(worklist, fullScan, "side " + side + ", seed " + seed);
+    }
+
+    private static int runSideBySide(Model worklist, Model fullScan, String context) {
+        int steps = 0;
+        while (!worklist.isCaveExplored() && steps < STEP_LIMIT) {
+            worklist.exploreCave();
+            fullScan.exploreCave();
+            steps++;
+            for (int i = 0; i < worklist.getPlayers().size(); i++) {
+                assertSameMap(fullScan.getPlayers().get(i).getMap(), worklist.getPlayers().get(i).getMap(),
+                        context + ", player " + i + ", step " + steps);
+            }
+        }
+        assertEquals(worklist.isCaveExplored(), fullScan.isCaveExplored(), context);
+        return steps;
+    }
+
+    private static Model singlePlayerModel(CaveGenerator generator, long seed, Supplier<InferenceEngine> engines) {
+        Cave cave = generator.generate(seed);
+        Model model = new Model(cave);
+        model.setInferenceFactory(engines);
+        placePlayer(model, generator.getStartRow(), generator.getStartColumn());
+        cave.updateAllPerceptions();
+        return model;
+    }
+
+    private static Model twoPlayerModel(CaveGenerator generator, long seed, int side, Supplier<InferenceEngine> engines) {
+        Model model = singlePlayerModel(generator, seed, engines);
+        placePlayer(model, 0, side - 1);
+        model.getCave().updateAllPerceptions();
+        return model;
+    }
+
+    private static void placePlayer(Model model, int row, int column) {
+        Cave cave = model.getCave();
+        cave.setStatus(cave.toLinearIndex(row, column), SquareStatus.PLAYER);
+        cave.adjustAmountOfPlayers(1);
+        model.addPlayer(row, column);
+    }
+
+    private static void assertSameMap(Map expected, Map actual, String context) {
+        for (int index = 0; index < expected.getSquareCount(); index++) {
+            assertEquals(expected.getStatus(index), actual.getStatus(index), context + ", square " + index);
+            assertEquals(expected.getPerceptions(index), actual.getPerceptions(index), context + ", square " + index);
+            assertEquals(expected.isVisited(index), actual.isVisited(index), context + ", square " + index);
+        }
+    }
+
+    /**
+     * The original inference of the player: every rule applied to every square of the map, in
+     * row-major order, on every update. Notifications are ignored since nothing is skipped.
+     */
+    static final class FullScanInference implements InferenceEngine {
+
+        private Map map;
+
+        @Override
+        public void reset(Map map) {
+            this.map = map;
+        }
+
+        @Override
+        public void copyFrom(InferenceEngine source, Map map) {
+            this.map = map;
+        }
+
+        @Override
+        public void squarePerceived(int square) {
+        }
+
+        @Override
+        public void statusChanged(int square) {
+        }
+
+        @Override
+        public void hazardRemoved(int square, SquareStatus hazard) {
+        }
+
+        @Override
+        public void update() {
+            int side = map.getCaveSide();
+            for (int row = 0; row < side; row++) {
+                for (int col = 0; col < side; col++) {
+                    int square = map.toLinearIndex(row, col);
+                    int[] neighbors = neighborsOf(row, col, side);
+                    Perceptions perceptions = map.getPerceptions(square);
+
+                    // Update neighbors of a clean square
+                    if (perceptions != null && perceptions.isClean()) {
+                        for (int neighbor : neighbors) {
+                            if (neighbor >= 0 && map.getStatus(neighbor) == SquareStatus.UNKNOWN) {
+                                map.setStatus(neighbor, SquareStatus.CLEAN);
+                            }
+                        }
+                    }
+
+                    // Handle squares with one unknown neighbor
+                    int unknownCount = 0;
+                    int unknownNeighbor = -1;
+                    for (int neighbor : neighbors) {
+                        if (neighbor >= 0 && map.getStatus(neighbor) == SquareStatus.UNKNOWN) {
+                            unknownCount++;
+                            unknownNeighbor = neighbor;
+                        }
+                    }
+                    if (unknownCount == 1) {
+                        blameUnknownNeighbor(unknownNeighbor, neighbors, perceptions);
+                    }
+
+                    // Infer status of the current square based on neighbors
+                    if (map.getStatus(square) == SquareStatus.UNKNOWN) {
+                        inferStatus(square, neighbors);
+                    }
+                }
+            }
+        }
+
+        private void blameUnknownNeighbor(int unknownNeighbor, int[] neighbors, Perceptions perceptions) {
+            boolean[] inferred = new boolean[PerceptionType.values().length];
+            for (int neighbor : neighbors) {
+                if (neighbor < 0) continue;
+                SquareStatus status = map.getStatus(neighbor);
+                if (status == null) continue;
+                for (PerceptionType type : PerceptionType.values()) {
+                    if (mapPerceptionToStatus(type) == status) inferred[type.ordinal()] = true;
+                }
+            }
+            for (PerceptionType type : PerceptionType.values()) {
+                if (perceptions != null && perceptions.getPerception(type) != inferred[type.ordinal()]) {
+                    map.setStatus(unknownNeighbor, mapPerceptionToStatus(type));
+                }
+            }
+        }
+
+        private void inferStatus(int square, int[] neighbors) {
+            int[] counter = new int[PerceptionType.values().length];
+            int withPerceptions = 0;
+            for (int neighbor : neighbors) {
+                if (neighbor < 0 || map.getPerceptions(neighbor) == null) continue;
+                withPerceptions++;
+                for (PerceptionType type : PerceptionType.values()) {
+                    if (map.getPerceptions(neighbor).getPerception(type)) counter[type.ordinal()]++;
+                }
+            }
+            if (withPerceptions < 2) return;
+            for (int i = 0; i < counter.length; i++) {
+                if (counter[i] >= 2) {
+                    map.setStatus(square, SquareStatus.values()[i]);
+                    return;
+                }
+            }
+            map.setStatus(square, SquareStatus.CLEAN);
+        }
+
+        private static int[] neighborsOf(int row, int col, int side) {
+            return new int[]{
+                    row > 0 ? (row - 1) * side + col : -1,
+                    col < side - 1 ? row * side + col + 1 : -1,
+                    row < side - 1 ? (row + 1) * side + col : -1,
+                    col > 0 ? row * side + col - 1 : -1,
+            };
+        }
+    }
+}
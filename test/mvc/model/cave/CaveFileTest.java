@@ -0,0 +1,115 @@
+package mvc.model.cave;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static mvc.model.Global.SquareStatus;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that caves written by {@link CaveFile} are read back unchanged by {@link MappedCaveFile},
+ * and that damaged files are rejected with the documented exceptions.
+ *
+ * @author Sergio Vega García
+ */
+class CaveFileTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripKeepsEverySquareAndCount() throws IOException {
+        List<Cave> caves = new ArrayList<>();
+        // Odd square counts leave half of the last byte unused
+        for (int side : new int[]{4, 5, 16, 33}) {
+            caves.add(new CaveGenerator(side, 0.1, 0.1, 0.05, true).generate(side * 31L));
+        }
+        Cave withoutStatus = new Cave(7);
+        withoutStatus.setStatus(3, null);
+        caves.add(withoutStatus);
+
+        Path path = directory.resolve("caves.bin");
+        assertEquals(caves.size(), CaveFile.write(path, caves));
+
+        MappedCaveFile file = MappedCaveFile.open(path);
+        assertEquals(caves.size(), file.size());
+        Cave reused = new Cave(4);
+        for (int i = 0; i < caves.size(); i++) {
+            Cave expected = caves.get(i);
+            MappedCave mapped = file.get(i);
+            assertEquals(expected.getCaveSide(), mapped.getCaveSide());
+            assertEquals(expected.getAmountOfMonsters(), mapped.getAmountOfMonsters());
+            assertEquals(expected.getAmountOfTreasures(), mapped.getAmountOfTreasures());
+            assertEquals(expected.getAmountOfPlayers(), mapped.getAmountOfPlayers());
+
+            mapped.copyInto(reused);
+            for (int index = 0; index < expected.getSquareCount(); index++) {
+                assertEquals(expected.getStatus(index), mapped.getStatus(index), "square " + index);
+                assertEquals(expected.getStatus(index), reused.getStatus(index), "square " + index);
+            }
+            assertEquals(expected.getAmountOfMonsters(), reused.getAmountOfMonsters());
+            assertEquals(expected.getAmountOfTreasures(), reused.getAmountOfTreasures());
+        }
+        assertNull(file.get(caves.size() - 1).getStatus(3));
+    }
+
+    @Test
+    void emptyFileHasNoCaves() throws IOException {
+        Path path = directory.resolve("empty.bin");
+        assertEquals(0, CaveFile.write(path, List.of()));
+        assertEquals(0, MappedCaveFile.open(path).size());
+    }
+
+    @Test
+    void recordCountLargerThanTheFileIsRejected() throws IOException {
+        Path path = writeOneCave();
+        overwriteInt(path, 8, Integer.MAX_VALUE);
+        assertThrows(IOException.class, () -> MappedCaveFile.open(path));
+    }
+
+    @Test
+    void truncatedRecordIsRejected() throws IOException {
+        Path path = writeOneCave();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+        assertThrows(IOException.class, () -> MappedCaveFile.open(path));
+    }
+
+    @Test
+    void unknownStatusCodeIsReported() throws IOException {
+        Path path = writeOneCave();
+        // Status code 14 in both squares of the first byte of the record
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xEE}), CaveFile.HEADER_BYTES + CaveFile.RECORD_HEADER_BYTES);
+        }
+        MappedCave cave = MappedCaveFile.open(path).get(0);
+        assertThrows(IllegalStateException.class, () -> cave.getStatus(0));
+        assertThrows(IllegalStateException.class, () -> cave.getStatus(1));
+        assertEquals(SquareStatus.CLEAN, cave.getStatus(2));
+    }
+
+    private Path writeOneCave() throws IOException {
+        Path path = directory.resolve("cave.bin");
+        CaveFile.write(path, List.of(new Cave(4)));
+        assertEquals(CaveFile.HEADER_BYTES + CaveFile.recordSize(4), Files.size(path));
+        return path;
+    }
+
+    private static void overwriteInt(Path path, long position, int value) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, value), position);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package mvc.model.cave;
+
+import org.junit.jupiter.api.Test;
+
+import static mvc.model.Global.PerceptionType;
+import static mvc.model.Global.SquareStatus;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the perceptions a {@link Cave} computes from the contents of the squares.
+ *
+ * @author Sergio Vega García
+ */
+class CavePerceptionsTest {
+
+    @Test
+    void treasureRadiatesAfterPlayerWalksOverIt() {
+        Cave cave = new Cave(4);
+        int treasure = cave.toLinearIndex(1, 1);
+        int neighbor = cave.toLinearIndex(1, 2);
+        cave.setStatus(treasure, SquareStatus.TREASURE);
+        cave.updateAllPerceptions();
+        assertTrue(cave.getPerception(neighbor, PerceptionType.RADIANCE));
+
+        // A player that already found a treasure walks over this one without taking it
+        cave.setStatus(treasure, SquareStatus.PLAYER);
+        cave.updateNeighborPerceptions(treasure);
+        assertTrue(cave.getPerception(neighbor, PerceptionType.RADIANCE));
+        cave.setStatus(treasure, SquareStatus.CLEAN);
+        cave.updateNeighborPerceptions(treasure);
+        assertTrue(cave.getPerception(neighbor, PerceptionType.RADIANCE));
+
+        cave.setHasTreasure(treasure, false);
+        cave.updateNeighborPerceptions(treasure);
+        assertFalse(cave.getPerception(neighbor, PerceptionType.RADIANCE));
+    }
+}